@@ -0,0 +1,46 @@
+#!/bin/sh
+# Builds an AppCDS archive that lets the JVM map the application's classes instead of loading them one by one.
+# A training run starts the program once and dumps every class it loaded into the archive on exit.
+#
+# Usage:   ./build-appcds.sh [jar] [archive]
+# Then:    java -XX:SharedArchiveFile=primates.jsa -jar PrimateSanctuary.jar
+#
+# The training run uses the Swing interface when a display is available and the headless mode otherwise,
+# so build the archive on a machine like the one that will run the program.
+# The archive only works with the exact JDK and jar it was built with; rebuild it after every new build.
+set -e
+
+JAR=${1:-PrimateSanctuary.jar}
+ARCHIVE=${2:-primates.jsa}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+if [ ! -f "$JAR" ]; then
+    echo "Jar not found: $JAR" >&2
+    exit 1
+fi
+
+if [ -n "$DISPLAY" ]; then
+    MODE=""
+else
+    MODE="--headless"
+fi
+
+# exercise the model once so its classes end up in the archive as well
+TRAINING=$(mktemp)
+trap 'rm -f "$TRAINING"' EXIT
+cat > "$TRAINING" <<'SCRIPT'
+add Training DRILL MALE 80 25 5 FRUITS
+medicate Training
+move Training
+isolation
+enclosures
+census
+SCRIPT
+
+if [ -n "$MODE" ]; then
+    "$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" primates.Main $MODE "$TRAINING" > /dev/null
+else
+    "$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" primates.Main --exit-when-ready
+fi
+
+echo "Wrote $ARCHIVE; start the program with: $JAVA -XX:SharedArchiveFile=$ARCHIVE -cp $JAR primates.Main $MODE"
@@ -0,0 +1,314 @@
+package primates.Controller;
+
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.SanctuarySnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs sanctuary operations from a command script without any user interface.
+ * Each line of the script holds one command; blank lines and lines starting with '#' are ignored:
+ * <pre>
+ * add &lt;name&gt; &lt;species&gt; &lt;sex&gt; &lt;size&gt; &lt;weight&gt; &lt;age&gt; &lt;food&gt;
+ * medicate &lt;name&gt;
+ * move &lt;name&gt;
+ * remove &lt;name&gt;
+ * isolation | enclosures | census
+ * save &lt;file&gt; | load &lt;file&gt;
+ * </pre>
+ * Names containing spaces can be written in double quotes.
+ * Reading and parsing run on a separate thread and feed a bounded queue, so parsing the next commands
+ * overlaps with executing the current one. Reports go to the output writer, errors to the error writer.
+ */
+public class BatchController {
+    // commands handed from the parser thread to the executor, and the marker for the end of the script
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final Command END = new Command(0, "", new String[0], null);
+
+    private Sanctuary model;
+    private final PrintWriter out;
+    private final PrintWriter err;
+
+    /**
+     * Initializes a batch controller for a sanctuary.
+     *
+     * @param model The Sanctuary model the commands operate on.
+     * @param out   The writer that receives the reports.
+     * @param err   The writer that receives error messages.
+     */
+    public BatchController(Sanctuary model, PrintWriter out, PrintWriter err) {
+        this.model = model;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Returns the model the commands currently operate on; a 'load' command replaces it.
+     *
+     * @return The current Sanctuary model.
+     */
+    public Sanctuary getModel() {
+        return model;
+    }
+
+    /**
+     * Executes every command of a script in order.
+     *
+     * @param script The script to read commands from.
+     * @return The number of commands that failed.
+     * @throws IOException If the script cannot be read.
+     */
+    public int run(Reader script) throws IOException {
+        BlockingQueue<Command> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        IOException[] readFailure = new IOException[1];
+
+        // parse on a separate thread while the commands already queued are executed
+        Thread parser = new Thread(() -> {
+            BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+            try {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    Command command = parse(lineNumber, line);
+                    if (command != null) {
+                        queue.put(command);
+                    }
+                }
+            } catch (IOException e) {
+                readFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "batch-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        int failures = 0;
+        try {
+            for (Command command = queue.take(); command != END; command = queue.take()) {
+                if (!execute(command)) {
+                    failures++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running the script.", e);
+        } finally {
+            out.flush();
+            err.flush();
+        }
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+        return failures;
+    }
+
+    /**
+     * Executes every command of a script in order on the calling thread, without a parser thread.
+     * Meant for short scripts, e.g. one per request of a service, where starting a thread costs more than it overlaps.
+     *
+     * @param script The script to read commands from.
+     * @return The number of commands that failed.
+     * @throws IOException If the script cannot be read.
+     */
+    public int runInline(Reader script) throws IOException {
+        BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+        int failures = 0;
+        try {
+            String line;
+            for (int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++) {
+                Command command = parse(lineNumber, line);
+                if (command != null && !execute(command)) {
+                    failures++;
+                }
+            }
+        } finally {
+            out.flush();
+            err.flush();
+        }
+        return failures;
+    }
+
+    /**
+     * Returns the names of the commands in a script, in script order, without executing any of them.
+     * Callers that only allow some commands can check a script with it before running it.
+     *
+     * @param script The script to read commands from.
+     * @return The lower-case command names.
+     * @throws IOException If the script cannot be read.
+     */
+    public static List<String> commandNames(Reader script) throws IOException {
+        BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+        List<String> names = new ArrayList<>();
+        String line;
+        for (int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++) {
+            Command command = parse(lineNumber, line);
+            if (command != null) {
+                names.add(command.name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Splits one script line into a command, or returns null for blank lines and comments.
+     * Syntax problems are kept on the command and reported when it is executed, so errors stay in script order.
+     */
+    private static Command parse(int lineNumber, String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else if (!quoted && c == '#' && !inToken && tokens.isEmpty()) {
+                return null;
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        String error = quoted ? "Unterminated quote." : null;
+        return new Command(lineNumber, tokens.get(0).toLowerCase(), tokens.subList(1, tokens.size()).toArray(new String[0]), error);
+    }
+
+    /**
+     * Executes a single command and reports its outcome.
+     *
+     * @return Whether the command succeeded.
+     */
+    private boolean execute(Command command) {
+        try {
+            if (command.error != null) {
+                throw new IllegalArgumentException(command.error);
+            }
+            String[] args = command.args;
+            switch (command.name) {
+                case "add":
+                    expectArgs(command, 7);
+                    Primate added = model.addPrimateToSanctuary(args[0],
+                            Primate.Species.valueOf(args[1].toUpperCase()),
+                            Primate.Sex.valueOf(args[2].toUpperCase()),
+                            Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]),
+                            Primate.Food.valueOf(args[6].toUpperCase()));
+                    out.println("added " + added.getName());
+                    break;
+                case "medicate":
+                    expectArgs(command, 1);
+                    Primate patient = requireIsolated(args[0]);
+                    model.medicalCare(patient);
+                    out.println("medicated " + patient.getName());
+                    break;
+                case "move":
+                    expectArgs(command, 1);
+                    Primate moving = requireIsolated(args[0]);
+                    model.moveToEnclosure(moving);
+                    out.println("moved " + moving.getName() + " to the " + moving.getSpecies() + " enclosure");
+                    break;
+                case "remove":
+                    expectArgs(command, 1);
+                    Primate leaving = model.findPrimateInEnclosures(args[0]);
+                    if (leaving == null) {
+                        throw new IllegalArgumentException("No primate named " + args[0] + " in the enclosures.");
+                    }
+                    model.removePrimateFromENC(leaving);
+                    out.println("removed " + leaving.getName());
+                    break;
+                case "isolation":
+                    expectArgs(command, 0);
+                    for (Primate primate : model.getIsolatedPrimates()) {
+                        out.println(primate.getDetails());
+                    }
+                    break;
+                case "enclosures":
+                    expectArgs(command, 0);
+                    model.getEnclosureList().forEach(out::print);
+                    break;
+                case "census":
+                    expectArgs(command, 0);
+                    model.getAllNames().forEach(out::println);
+                    break;
+                case "save":
+                    expectArgs(command, 1);
+                    SanctuarySnapshot.write(model, Paths.get(args[0]));
+                    out.println("saved " + args[0]);
+                    break;
+                case "load":
+                    expectArgs(command, 1);
+                    model = SanctuarySnapshot.read(Paths.get(args[0]));
+                    out.println("loaded " + args[0]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command.name);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            err.println("line " + command.lineNumber + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // helper function to check the number of arguments of a command
+    private static void expectArgs(Command command, int count) {
+        if (command.args.length != count) {
+            throw new IllegalArgumentException("'" + command.name + "' expects " + count + " argument(s).");
+        }
+    }
+
+    // helper function to find a primate in isolation by its name
+    private Primate requireIsolated(String name) {
+        Primate primate = model.findPrimateByName(name);
+        if (primate == null) {
+            throw new IllegalArgumentException("No primate named " + name + " in isolation.");
+        }
+        return primate;
+    }
+
+    /**
+     * One parsed script line.
+     */
+    private static final class Command {
+        private final int lineNumber;
+        private final String name;
+        private final String[] args;
+        private final String error;
+
+        Command(int lineNumber, String name, String[] args, String error) {
+            this.lineNumber = lineNumber;
+            this.name = name;
+            this.args = args;
+            this.error = error;
+        }
+    }
+}
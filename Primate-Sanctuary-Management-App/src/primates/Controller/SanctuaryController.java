@@ -1,9 +1,11 @@
 package primates.Controller;
+import primates.Model.Outcome;
+import primates.Model.Page;
 import primates.Model.Primate;
 import primates.Model.Sanctuary;
 import primates.View.SanctuaryView;
 
-import javax.xml.crypto.dsig.spec.RSAPSSParameterSpec;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -11,6 +13,16 @@ public class SanctuaryController {
     private SanctuaryView view;
     private Sanctuary model;
 
+    // the enclosure and summary lists are loaded one page at a time as the user scrolls
+    private static final int PAGE_SIZE = 100;
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+    private static final String SUMMARY_HEADER = "All Primates Currently in the Sanctuary (in alphabetical order):\n";
+    // the species whose enclosures are listed next and the cursor within them; past the last species when done
+    private int enclosureSpecies;
+    private String enclosureCursor;
+    // the cursor of the next summary page, or null when done
+    private String summaryCursor;
+
     /**
      * Initializes a controller for managing the sanctuary.
      * Connects the SanctuaryView and the Sanctuary model, setting up action listeners and initializing the view.
@@ -32,6 +44,8 @@ public class SanctuaryController {
         view.addAddButtonListener(e -> addPrimate());
         view.addMedicalCareButtonListener(e -> applyMedicalCare());
         view.addMoveToENCButtonListener(e -> movePrimateToENC());
+        view.addEnclosureScrollListener(this::loadMoreEnclosures);
+        view.addSummaryScrollListener(this::loadMoreSummary);
 
         // refresh all the primate lists
         refreshIsolationList();
@@ -54,17 +68,17 @@ public class SanctuaryController {
             int weight = view.getWeightFieldValue();
             Primate.Food food = view.getSelectedFood();
 
-            // initialize a new primate object based on the inputs
-            Primate newPrimate = model.addPrimateToSanctuary(name, species, sex, size, weight, age, food);
-
-            // show user a success message
-            view.showSuccess("Primate added successfully!");
-
-            // refresh the updated isolation list
-            refreshIsolationList();
+            // take in a new primate based on the inputs; a rejection is reported, not thrown
+            Outcome outcome = model.tryAddPrimateToSanctuary(name, species, sex, size, weight, age, food);
+            if (outcome.isAccepted()) {
+                // show user a success message
+                view.showSuccess("Primate added successfully!");
+            } else {
+                view.showError(outcome.getMessage());
+            }
 
         } catch (IllegalArgumentException e) {
-            // if an IllegalArgumentException was raised, show user an error message
+            // if a number field could not be read, show user an error message
             view.showError(e.getMessage());
         }
         // refresh the isolation list and summary list
@@ -119,9 +133,13 @@ public class SanctuaryController {
         // if a primate is found and was medicated, move it to is enclosure
         // otherwise, show an error message
         if (primate != null && primate.medicatedBefore()) {
-            model.removePrimateFromISO(primate);
-            model.addPrimateToENC(primate);
-            view.showSuccess(primate.getName() + " has been successfully moved to its enclosure.");
+            // the move is all-or-nothing: if it is rejected, the primate stays in isolation
+            Outcome outcome = model.tryMoveToEnclosure(primate);
+            if (outcome.isAccepted()) {
+                view.showSuccess(primate.getName() + " has been successfully moved to its enclosure.");
+            } else {
+                view.showError(outcome.getMessage());
+            }
             refreshIsolationList();
         } else {
             view.showError("Invalid selection, primate not found, or not medicated.");
@@ -147,15 +165,84 @@ public class SanctuaryController {
 
     /**
      * Refreshes the enclosure list view to reflect current data in the model.
+     * Only the first page is loaded; the rest follows as the user scrolls.
      */
     public void refreshEnclosureList() {
-        view.displayEnclosurePrimates(model.getEnclosureList());
+        enclosureSpecies = 0;
+        enclosureCursor = null;
+        view.displayEnclosurePrimates(nextEnclosurePage());
+    }
+
+    /**
+     * Appends the next page of the enclosure list, if there is one.
+     */
+    private void loadMoreEnclosures() {
+        if (enclosureSpecies < SPECIES.length) {
+            view.appendEnclosurePrimates(nextEnclosurePage());
+        }
+    }
+
+    /**
+     * Reads up to one page of enclosure lines, continuing across species in order.
+     *
+     * @return The lines of the page, including a header line for every species it starts.
+     */
+    private List<String> nextEnclosurePage() {
+        List<String> lines = new ArrayList<>();
+        while (lines.size() < PAGE_SIZE && enclosureSpecies < SPECIES.length) {
+            Primate.Species species = SPECIES[enclosureSpecies];
+            if (enclosureCursor == null) {
+                if (enclosureSpecies > 0) {
+                    lines.add("");
+                }
+                lines.add("Enclosure for " + species + ":");
+            }
+            Page<Primate> page = model.getEnclosurePage(species, Page.Order.BY_NAME,
+                    Math.max(1, PAGE_SIZE - lines.size()), enclosureCursor);
+            for (Primate primate : page.getItems()) {
+                lines.add(Sanctuary.getEnclosureLine(primate));
+            }
+            enclosureCursor = page.getNextCursor();
+            if (enclosureCursor == null) {
+                enclosureSpecies++;
+            }
+        }
+        return lines;
     }
 
     /**
      * Refreshes the summary view to reflect all primates currently in the sanctuary.
+     * Only the first page is loaded; the rest follows as the user scrolls.
      */
     public void refreshSummaryList() {
-        view.displaySummary(model.getAllNames());
+        List<String> lines = new ArrayList<>();
+        lines.add(SUMMARY_HEADER);
+        Page<Primate> page = model.getCensusPage(Page.Order.BY_NAME, PAGE_SIZE, null);
+        addSummaryLines(lines, page);
+        view.displaySummary(lines);
+    }
+
+    /**
+     * Appends the next page of the summary view, if there is one.
+     */
+    private void loadMoreSummary() {
+        if (summaryCursor != null) {
+            List<String> lines = new ArrayList<>();
+            addSummaryLines(lines, model.getCensusPage(Page.Order.BY_NAME, PAGE_SIZE, summaryCursor));
+            view.appendSummary(lines);
+        }
+    }
+
+    /**
+     * Adds the summary lines of a census page and remembers where the next page starts.
+     *
+     * @param lines The lines to add to.
+     * @param page  The census page.
+     */
+    private void addSummaryLines(List<String> lines, Page<Primate> page) {
+        for (Primate primate : page.getItems()) {
+            lines.add(Sanctuary.getSummaryLine(primate));
+        }
+        summaryCursor = page.getNextCursor();
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,155 @@
 package primates;
+import primates.Controller.BatchController;
 import primates.Controller.SanctuaryController;
 import primates.Model.Sanctuary;
+import primates.Model.SanctuarySnapshot;
 import primates.View.SanctuaryView;
 
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Main class for the Primate Sanctuary Management System.
  * This class initializes the application by setting up the model, view, and controller components.
+ * <p>
+ * Usage:
+ * <pre>
+ * java primates.Main                                start the Swing user interface
+ * java primates.Main --headless [script]            run a command script (or stdin) without any user interface
+ * java primates.Main ... --load &lt;snapshot&gt;           start from a saved sanctuary snapshot
+ * java primates.Main ... --startup-time             also print how long the application took to become ready
+ * java primates.Main ... --exit-when-ready          exit as soon as the application is ready (for startup benchmarks)
+ * </pre>
  */
 public class Main {
     /**
      * The main method to start the application. It ensures that the GUI is created and updated on the Event Dispatch Thread (EDT),
      * which is the proper way to launch a Swing application to ensure thread safety.
+     * In headless mode no AWT or Swing class is ever touched.
      *
-     * @param args Command line arguments passed to the program (not used).
+     * @param args Command line arguments passed to the program.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        boolean headless = false;
+        boolean startupTime = false;
+        boolean exitWhenReady = false;
+        String script = null;
+        String snapshot = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--headless")) {
+                headless = true;
+            } else if (arg.equals("--startup-time")) {
+                startupTime = true;
+            } else if (arg.equals("--exit-when-ready")) {
+                exitWhenReady = true;
+            } else if (arg.equals("--load") && i + 1 < args.length) {
+                snapshot = args[++i];
+            } else if (headless && script == null) {
+                script = arg;
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                System.exit(2);
+            }
+        }
+
+        if (headless) {
+            System.exit(runHeadless(script, snapshot, startupTime, exitWhenReady));
+        } else {
+            launchGui(snapshot, startupTime, exitWhenReady);
+        }
+    }
+
+    /**
+     * Runs a command script against a sanctuary and writes the reports to stdout.
+     *
+     * @param script        The script file, or null or "-" to read commands from stdin.
+     * @param snapshot      The snapshot to start from, or null for an empty sanctuary.
+     * @param startupTime   Whether to print the startup time to stderr.
+     * @param exitWhenReady Whether to exit before running the script.
+     * @return The process exit code: 0 if every command succeeded, 1 otherwise.
+     */
+    private static int runHeadless(String script, String snapshot, boolean startupTime, boolean exitWhenReady) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), false);
+        PrintWriter err = new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+        Sanctuary model = snapshot == null ? new Sanctuary() : SanctuarySnapshot.read(Paths.get(snapshot));
+        BatchController controller = new BatchController(model, out, err);
+        if (startupTime) {
+            reportStartupTime("headless ready");
+        }
+        if (exitWhenReady) {
+            return 0;
+        }
+        try (Reader in = script == null || script.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            return controller.run(in) == 0 ? 0 : 1;
+        }
+    }
+
+    /**
+     * Shows the Swing user interface as early as possible and loads the model in the background.
+     * The window appears with its buttons disabled; the controller is connected on the EDT once the model is ready.
+     *
+     * @param snapshot      The snapshot to load, or null for an empty sanctuary.
+     * @param startupTime   Whether to print the time to the first frame and to the first interactive frame.
+     * @param exitWhenReady Whether to exit as soon as the window is interactive.
+     */
+    private static void launchGui(String snapshot, boolean startupTime, boolean exitWhenReady) {
+        // Create the model component off the EDT, while the window is being built
+        CompletableFuture<Sanctuary> model = CompletableFuture.supplyAsync(() -> {
+            try {
+                return snapshot == null ? new Sanctuary() : SanctuarySnapshot.read(Paths.get(snapshot));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
         SwingUtilities.invokeLater(() -> {
-            // Create the model component
-            Sanctuary model = new Sanctuary();
             // Create the view component
             SanctuaryView view = new SanctuaryView();
-            // Create the controller component, connecting the model and view of the MVC architecture
-            new SanctuaryController(view, model);
+            view.setControlsEnabled(false);
+            if (startupTime) {
+                reportStartupTime("gui first frame");
+            }
+
+            model.whenComplete((loaded, failure) -> SwingUtilities.invokeLater(() -> {
+                Sanctuary sanctuary = loaded;
+                if (failure != null) {
+                    Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                    view.showError("Could not load the sanctuary: " + cause.getMessage());
+                    sanctuary = new Sanctuary();
+                }
+                // Create the controller component, connecting the model and view of the MVC architecture
+                new SanctuaryController(view, sanctuary);
+                view.setControlsEnabled(true);
+                if (startupTime) {
+                    reportStartupTime("gui interactive");
+                }
+                if (exitWhenReady) {
+                    System.exit(0);
+                }
+            }));
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Prints the time since the JVM started, so both start paths can be compared.
+     *
+     * @param milestone The name of the startup milestone being measured.
+     */
+    static void reportStartupTime(String milestone) {
+        System.err.println("startup (" + milestone + "): " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+    }
+}
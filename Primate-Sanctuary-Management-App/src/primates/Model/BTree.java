@@ -0,0 +1,298 @@
+package primates.Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// the BTree class would map long keys to fixed-size values inside the pages of a PageCache
+// it is a B+ tree: all values sit in the leaves, which are chained left to right for range scans,
+// and inner pages only hold separator keys and child page numbers
+// removing a key never merges pages, so a tree that shrank keeps its pages; they are filled again by later inserts
+// the tree is not thread-safe; its owner serializes all access
+final class BTree {
+    // page layout: type (1 byte), unused, entry count (2 bytes), unused, next leaf (8 bytes), then the entries
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int COUNT = 2;
+    private static final int NEXT = 8;
+    private static final int HEADER = 16;
+
+    // receives the entries of a range scan; return false to stop
+    interface Visitor {
+        boolean visit(long key, ByteBuffer page, int valueOffset);
+    }
+
+    private final PageCache cache;
+    private final int valueSize;
+    // leaves hold (key, value) entries; inner pages hold a first child, then (key, child) entries
+    private final int leafCapacity;
+    private final int innerCapacity;
+    private long root;
+
+    // open a tree whose root is the given page
+    BTree(PageCache cache, long root, int valueSize) {
+        this.cache = cache;
+        this.root = root;
+        this.valueSize = valueSize;
+        this.leafCapacity = (PageCache.PAGE_SIZE - HEADER) / (8 + valueSize);
+        this.innerCapacity = (PageCache.PAGE_SIZE - HEADER - 8) / 16;
+    }
+
+    // create an empty tree and return its root page
+    static long create(PageCache cache) throws IOException {
+        long page = cache.allocate();
+        ByteBuffer buffer = cache.pin(page);
+        buffer.put(0, LEAF);
+        buffer.putShort(COUNT, (short) 0);
+        buffer.putLong(NEXT, -1);
+        cache.unpin(page, true);
+        cache.unpin(page, true);
+        return page;
+    }
+
+    // get the root page, which changes when the root splits
+    long root() {
+        return root;
+    }
+
+    // copy the value of a key into the target array; returns false if the key is not in the tree
+    boolean get(long key, byte[] value) throws IOException {
+        long page = findLeaf(key);
+        ByteBuffer buffer = cache.pin(page);
+        try {
+            int index = search(buffer, key, 8 + valueSize, HEADER);
+            if (index < 0) {
+                return false;
+            }
+            buffer.get(HEADER + index * (8 + valueSize) + 8, value, 0, valueSize);
+            return true;
+        } finally {
+            cache.unpin(page, false);
+        }
+    }
+
+    // insert a key or replace its value
+    void put(long key, byte[] value) throws IOException {
+        long[] split = insert(root, key, value);
+        if (split != null) {
+            // the root split: a new root gets the old root and its new sibling as children
+            long page = cache.allocate();
+            ByteBuffer buffer = cache.pin(page);
+            cache.unpin(page, true);
+            buffer.put(0, INNER);
+            buffer.putShort(COUNT, (short) 1);
+            buffer.putLong(HEADER, root);
+            buffer.putLong(HEADER + 8, split[0]);
+            buffer.putLong(HEADER + 16, split[1]);
+            cache.unpin(page, true);
+            root = page;
+        }
+    }
+
+    // remove a key; returns false if it was not in the tree
+    boolean remove(long key) throws IOException {
+        long page = findLeaf(key);
+        ByteBuffer buffer = cache.pin(page);
+        boolean removed = false;
+        try {
+            int entry = 8 + valueSize;
+            int index = search(buffer, key, entry, HEADER);
+            if (index >= 0) {
+                int count = buffer.getShort(COUNT);
+                byte[] bytes = buffer.array();
+                System.arraycopy(bytes, HEADER + (index + 1) * entry, bytes, HEADER + index * entry, (count - index - 1) * entry);
+                buffer.putShort(COUNT, (short) (count - 1));
+                removed = true;
+            }
+            return removed;
+        } finally {
+            cache.unpin(page, removed);
+        }
+    }
+
+    // visit every entry with from <= key < to, in key order
+    void scan(long from, long to, Visitor visitor) throws IOException {
+        long page = findLeaf(from);
+        int entry = 8 + valueSize;
+        while (page >= 0) {
+            ByteBuffer buffer = cache.pin(page);
+            long next;
+            try {
+                int count = buffer.getShort(COUNT);
+                int index = search(buffer, from, entry, HEADER);
+                for (int i = index < 0 ? -index - 1 : index; i < count; i++) {
+                    long key = buffer.getLong(HEADER + i * entry);
+                    if (key >= to || !visitor.visit(key, buffer, HEADER + i * entry + 8)) {
+                        return;
+                    }
+                }
+                next = buffer.getLong(NEXT);
+            } finally {
+                cache.unpin(page, false);
+            }
+            page = next;
+        }
+    }
+
+    // helper function to walk from the root down to the leaf that holds or would hold a key
+    private long findLeaf(long key) throws IOException {
+        long page = root;
+        while (true) {
+            ByteBuffer buffer = cache.pin(page);
+            long child;
+            try {
+                if (buffer.get(0) == LEAF) {
+                    return page;
+                }
+                child = buffer.getLong(childOffset(childIndex(buffer, key)));
+            } finally {
+                cache.unpin(page, false);
+            }
+            page = child;
+        }
+    }
+
+    // helper function to insert below a page; returns {separator, new right page} if the page split, else null
+    private long[] insert(long page, long key, byte[] value) throws IOException {
+        ByteBuffer buffer = cache.pin(page);
+        boolean leaf = buffer.get(0) == LEAF;
+        if (leaf) {
+            try {
+                return insertIntoLeaf(buffer, key, value);
+            } finally {
+                cache.unpin(page, true);
+            }
+        }
+        int index = childIndex(buffer, key);
+        long child = buffer.getLong(childOffset(index));
+        cache.unpin(page, false);
+
+        long[] split = insert(child, key, value);
+        if (split == null) {
+            return null;
+        }
+        buffer = cache.pin(page);
+        try {
+            return insertIntoInner(buffer, index, split[0], split[1]);
+        } finally {
+            cache.unpin(page, true);
+        }
+    }
+
+    // helper function to put an entry into a leaf, splitting it first if it is full
+    private long[] insertIntoLeaf(ByteBuffer buffer, long key, byte[] value) throws IOException {
+        int entry = 8 + valueSize;
+        int index = search(buffer, key, entry, HEADER);
+        if (index >= 0) {
+            buffer.put(HEADER + index * entry + 8, value, 0, valueSize);
+            return null;
+        }
+        index = -index - 1;
+        int count = buffer.getShort(COUNT);
+        if (count < leafCapacity) {
+            insertEntry(buffer, count, index, entry, key);
+            buffer.put(HEADER + index * entry + 8, value, 0, valueSize);
+            return null;
+        }
+
+        long right = cache.allocate();
+        ByteBuffer rightBuffer = cache.pin(right);
+        cache.unpin(right, true);
+        try {
+            // IDs arrive in increasing order, so an insert at the very end leaves the full page as it is
+            // and starts an empty one; otherwise the page is split in half
+            int half = index == count ? count : count / 2;
+            System.arraycopy(buffer.array(), HEADER + half * entry, rightBuffer.array(), HEADER, (count - half) * entry);
+            rightBuffer.put(0, LEAF);
+            rightBuffer.putShort(COUNT, (short) (count - half));
+            rightBuffer.putLong(NEXT, buffer.getLong(NEXT));
+            buffer.putShort(COUNT, (short) half);
+            buffer.putLong(NEXT, right);
+            if (index < half) {
+                insertEntry(buffer, half, index, entry, key);
+                buffer.put(HEADER + index * entry + 8, value, 0, valueSize);
+            } else {
+                int at = index - half;
+                insertEntry(rightBuffer, count - half, at, entry, key);
+                rightBuffer.put(HEADER + at * entry + 8, value, 0, valueSize);
+            }
+            return new long[]{rightBuffer.getLong(HEADER), right};
+        } finally {
+            cache.unpin(right, true);
+        }
+    }
+
+    // helper function to add a (separator, child) pair after the child at index, splitting the page if it is full
+    // the separator in the middle of a split page moves up to the parent
+    private long[] insertIntoInner(ByteBuffer buffer, int index, long separator, long child) throws IOException {
+        int count = buffer.getShort(COUNT);
+        if (count < innerCapacity) {
+            insertEntry(buffer, count, index, 16, separator);
+            buffer.putLong(HEADER + 8 + index * 16 + 8, child);
+            return null;
+        }
+
+        // split: the left keeps keys [0, half), the key at half moves up, the right gets the rest
+        long right = cache.allocate();
+        ByteBuffer rightBuffer = cache.pin(right);
+        cache.unpin(right, true);
+        try {
+            int half = index == count ? count - 1 : count / 2;
+            long up = buffer.getLong(HEADER + 8 + half * 16);
+            rightBuffer.put(0, INNER);
+            rightBuffer.putLong(HEADER, buffer.getLong(HEADER + 8 + half * 16 + 8));
+            System.arraycopy(buffer.array(), HEADER + 8 + (half + 1) * 16, rightBuffer.array(), HEADER + 8, (count - half - 1) * 16);
+            rightBuffer.putShort(COUNT, (short) (count - half - 1));
+            buffer.putShort(COUNT, (short) half);
+            if (index <= half) {
+                insertEntry(buffer, half, index, 16, separator);
+                buffer.putLong(HEADER + 8 + index * 16 + 8, child);
+            } else {
+                int at = index - half - 1;
+                insertEntry(rightBuffer, count - half - 1, at, 16, separator);
+                rightBuffer.putLong(HEADER + 8 + at * 16 + 8, child);
+            }
+            return new long[]{up, right};
+        } finally {
+            cache.unpin(right, true);
+        }
+    }
+
+    // helper function to open a gap at index and write the key there; the caller writes the rest of the entry
+    private static void insertEntry(ByteBuffer buffer, int count, int index, int entry, long key) {
+        int start = buffer.get(0) == LEAF ? HEADER : HEADER + 8;
+        byte[] bytes = buffer.array();
+        System.arraycopy(bytes, start + index * entry, bytes, start + (index + 1) * entry, (count - index) * entry);
+        buffer.putLong(start + index * entry, key);
+        buffer.putShort(COUNT, (short) (count + 1));
+    }
+
+    // helper function to choose the child of an inner page to follow for a key
+    private static int childIndex(ByteBuffer buffer, long key) {
+        int index = search(buffer, key, 16, HEADER + 8);
+        // keys equal to a separator live in the child right of it
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // helper function to get the offset of the child at index of an inner page
+    private static int childOffset(int index) {
+        return index == 0 ? HEADER : HEADER + 8 + (index - 1) * 16 + 8;
+    }
+
+    // helper function to binary search the keys of a page; returns the index, or -(insertion point) - 1
+    private static int search(ByteBuffer buffer, long key, int entry, int start) {
+        int low = 0;
+        int high = buffer.getShort(COUNT) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long found = buffer.getLong(start + mid * entry);
+            if (found < key) {
+                low = mid + 1;
+            } else if (found > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
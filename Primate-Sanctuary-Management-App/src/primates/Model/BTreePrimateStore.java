@@ -0,0 +1,310 @@
+package primates.Model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the BTreePrimateStore class would keep every primate in a single page file, so the registry outlives the process
+// and its lookups and location scans are not limited by the heap
+// two B+ trees share the file and one page cache: the primate tree maps an ID to a fixed-size record,
+// and the membership tree holds one key per (location, ID) pair, so the residents of a location are a range scan
+// page 0 holds the header: magic number, format version, both roots and the number of primates
+// names of up to INLINE_NAME_BYTES bytes sit in the record; longer names go to a chain of overflow pages
+// everything is written back when pages are evicted and on flush()/close(); there is no write-ahead log,
+// so a crash between two flushes can leave the file inconsistent
+// the primates handed out by get() and residents() are copies rebuilt from the file, not the objects living in the housings
+public class BTreePrimateStore implements PrimateStore {
+    // "PSBT" in ASCII
+    static final int MAGIC = 0x50534254;
+    static final byte VERSION = 1;
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+
+    // record layout
+    private static final int SPECIES = 0;
+    private static final int SEX = 1;
+    private static final int FOOD = 2;
+    private static final int FLAGS = 3;
+    private static final int LOCATION = 4;
+    private static final int NAME_LENGTH = 5;
+    private static final int SIZE = 8;
+    private static final int WEIGHT = 12;
+    private static final int AGE = 16;
+    private static final int NAME = 20;
+    static final int INLINE_NAME_BYTES = 48;
+    private static final int RECORD_SIZE = NAME + INLINE_NAME_BYTES;
+    // a name length byte of this value means the name is in overflow pages: its length and first page follow in NAME
+    private static final int OVERFLOW = 0xFF;
+
+    private static final byte FLAG_ISOLATED = 1;
+    private static final byte FLAG_MEDICATED = 2;
+
+    private static final Primate.Species[] SPECIES_VALUES = Primate.Species.values();
+    private static final Primate.Sex[] SEX_VALUES = Primate.Sex.values();
+    private static final Primate.Food[] FOOD_VALUES = Primate.Food.values();
+
+    private final FileChannel channel;
+    private final PageCache cache;
+    private final BTree primates;
+    private final BTree membership;
+    private int count;
+    // scratch record, reused by every call under the store's lock
+    private final byte[] record = new byte[RECORD_SIZE];
+
+    // open the store in the given file, creating it if it does not exist, with the default cache size
+    public BTreePrimateStore(Path file) throws IOException {
+        this(file, DEFAULT_CACHE_PAGES);
+    }
+
+    // open the store in the given file with a cache of the given number of 4 KB pages
+    public BTreePrimateStore(Path file, int cachePages) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.cache = new PageCache(channel, cachePages);
+            if (cache.pageCount() == 0) {
+                cache.allocate();
+                cache.unpin(0, true);
+                primates = new BTree(cache, BTree.create(cache), RECORD_SIZE);
+                membership = new BTree(cache, BTree.create(cache), 0);
+                writeHeader();
+            } else {
+                ByteBuffer header = cache.pin(0);
+                try {
+                    if (header.getInt(0) != MAGIC) {
+                        throw new IOException("Not a primate store: " + file);
+                    }
+                    if (header.get(4) != VERSION) {
+                        throw new IOException("Unsupported primate store version: " + header.get(4));
+                    }
+                    primates = new BTree(cache, header.getLong(8), RECORD_SIZE);
+                    membership = new BTree(cache, header.getLong(16), 0);
+                    count = header.getInt(24);
+                } finally {
+                    cache.unpin(0, false);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized int add(Primate primate) {
+        try {
+            int id = count;
+            encode(primate, 0);
+            primates.put(id, record);
+            count++;
+            primate.id = id;
+            return id;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized Primate get(int id) {
+        try {
+            return id >= 0 && id < count && primates.get(id, record) ? decode(id) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void update(Primate primate, int location) {
+        try {
+            if (primate.id < 0) {
+                throw new IllegalArgumentException(Outcome.NOT_IN_SANCTUARY.getMessage());
+            }
+            if (!primates.get(primate.id, record)) {
+                // first seen: write the whole record, name included, as add() does
+                encode(primate, 0);
+                primates.put(primate.id, record);
+                count = Math.max(count, primate.id + 1);
+            }
+            int previous = record[LOCATION];
+            if (previous != location) {
+                if (previous != 0) {
+                    membership.remove(membershipKey(previous, primate.id));
+                }
+                if (location != 0) {
+                    membership.put(membershipKey(location, primate.id), record);
+                }
+            }
+            // the name never changes, so its bytes and overflow pages stay as they are
+            encodeFields(primate, location);
+            primates.put(primate.id, record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized int getLocation(int id) {
+        try {
+            return id >= 0 && id < count && primates.get(id, record) ? record[LOCATION] : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized List<Primate> residents(int location, int fromId, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        try {
+            long from = membershipKey(location, Math.max(0, fromId));
+            membership.scan(from, membershipKey(location, 0) + (1L << 32), (key, page, offset) -> {
+                ids.add((int) key);
+                return ids.size() < limit;
+            });
+            List<Primate> residents = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                residents.add(get(id));
+            }
+            return residents;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writeHeader();
+        cache.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // get the share of page requests answered from the cache so far
+    public synchronized double getCacheHitRatio() {
+        long total = cache.hits() + cache.misses();
+        return total == 0 ? 1 : (double) cache.hits() / total;
+    }
+
+    // get the number of pages written back to the file so far
+    public synchronized long getPagesWritten() {
+        return cache.writes();
+    }
+
+    // helper function to order membership keys by location, then ID
+    private static long membershipKey(int location, int id) {
+        return ((long) (location & 0xFF) << 32) | id;
+    }
+
+    // helper function to save the roots and the primate count in the header page
+    private void writeHeader() throws IOException {
+        ByteBuffer header = cache.pin(0);
+        header.putInt(0, MAGIC);
+        header.put(4, VERSION);
+        header.putLong(8, primates.root());
+        header.putLong(16, membership.root());
+        header.putInt(24, count);
+        cache.unpin(0, true);
+    }
+
+    // helper function to write a whole new record, name included
+    private void encode(Primate primate, int location) throws IOException {
+        encodeFields(primate, location);
+        byte[] name = primate.nameId >= 0 ? NameDictionary.SHARED.utf8(primate.nameId)
+                : primate.pendingName == null ? new byte[0] : primate.pendingName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        if (name.length <= INLINE_NAME_BYTES) {
+            record[NAME_LENGTH] = (byte) name.length;
+            System.arraycopy(name, 0, record, NAME, name.length);
+        } else {
+            record[NAME_LENGTH] = (byte) OVERFLOW;
+            buffer.putInt(NAME, name.length);
+            buffer.putLong(NAME + 4, writeOverflow(name));
+        }
+    }
+
+    // helper function to write everything but the name into the record
+    private void encodeFields(Primate primate, int location) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        record[SPECIES] = (byte) primate.species.ordinal();
+        record[SEX] = (byte) primate.sex.ordinal();
+        record[FOOD] = (byte) primate.food.ordinal();
+        record[FLAGS] = (byte) ((primate.isolated ? FLAG_ISOLATED : 0) | (primate.medicated ? FLAG_MEDICATED : 0));
+        record[LOCATION] = (byte) location;
+        buffer.putInt(SIZE, primate.size);
+        buffer.putInt(WEIGHT, primate.weight);
+        buffer.putInt(AGE, primate.age);
+    }
+
+    // helper function to rebuild a primate from the record
+    private Primate decode(int id) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        Primate primate = new Primate(null, SPECIES_VALUES[record[SPECIES]], SEX_VALUES[record[SEX]],
+                buffer.getInt(SIZE), buffer.getInt(WEIGHT), buffer.getInt(AGE), FOOD_VALUES[record[FOOD]]);
+        int length = record[NAME_LENGTH] & 0xFF;
+        byte[] name = length == OVERFLOW
+                ? readOverflow(buffer.getInt(NAME), buffer.getLong(NAME + 4))
+                : Arrays.copyOfRange(record, NAME, NAME + length);
+        primate.nameId = NameDictionary.SHARED.intern(new String(name, StandardCharsets.UTF_8));
+        primate.isolated = (record[FLAGS] & FLAG_ISOLATED) != 0;
+        primate.medicated = (record[FLAGS] & FLAG_MEDICATED) != 0;
+        primate.id = id;
+        return primate;
+    }
+
+    // helper function to write a long name into a chain of pages, each starting with the number of the next one
+    private long writeOverflow(byte[] name) throws IOException {
+        int chunk = PageCache.PAGE_SIZE - 8;
+        long first = -1;
+        long previous = -1;
+        for (int offset = 0; offset < name.length; offset += chunk) {
+            long page = cache.allocate();
+            ByteBuffer buffer = cache.pin(page);
+            buffer.putLong(0, -1);
+            System.arraycopy(name, offset, buffer.array(), 8, Math.min(chunk, name.length - offset));
+            cache.unpin(page, true);
+            cache.unpin(page, true);
+            if (previous < 0) {
+                first = page;
+            } else {
+                ByteBuffer link = cache.pin(previous);
+                link.putLong(0, page);
+                cache.unpin(previous, true);
+            }
+            previous = page;
+        }
+        return first;
+    }
+
+    // helper function to read a long name back from its overflow pages
+    private byte[] readOverflow(int length, long page) throws IOException {
+        byte[] name = new byte[length];
+        int chunk = PageCache.PAGE_SIZE - 8;
+        for (int offset = 0; offset < length; offset += chunk) {
+            ByteBuffer buffer = cache.pin(page);
+            System.arraycopy(buffer.array(), 8, name, offset, Math.min(chunk, length - offset));
+            long next = buffer.getLong(0);
+            cache.unpin(page, false);
+            page = next;
+        }
+        return name;
+    }
+}
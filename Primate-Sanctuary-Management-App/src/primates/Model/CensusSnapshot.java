@@ -0,0 +1,208 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// the CensusSnapshot class would be a frozen, consistent view of who lives where in the sanctuary at one version
+// it never changes after it was handed out, so a report can take as long as it likes without locking anything
+// or holding up intake; the sanctuary publishes a new version after every change instead
+// a new version shares everything but the path to the changed primate with the one before (see PersistentIntMap),
+// so publishing costs a few small copies and getting the current snapshot costs a volatile read
+// not to be confused with SanctuarySnapshot, which saves a sanctuary to a file
+public final class CensusSnapshot {
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+    static final CensusSnapshot EMPTY = new CensusSnapshot(0, 0, PersistentIntMap.<Resident>empty(), emptyEnclosures());
+
+    private final long version;
+    private final long time;
+    // residents by ID: everyone in isolation, then one map per species' enclosures
+    private final PersistentIntMap<Resident> isolated;
+    private final PersistentIntMap<Resident>[] enclosed;
+
+    // the Resident class would hold what a snapshot knows about one primate; it never changes either
+    public static final class Resident {
+        private final int id;
+        private final int nameId;
+        private final Primate.Species species;
+        private final Primate.Sex sex;
+        private final int size;
+        private final int weight;
+        private final int age;
+        private final Primate.Food food;
+        private final boolean medicated;
+        // the isolation cage, or -1 in an enclosure
+        private final int cage;
+
+        Resident(Primate primate, int cage) {
+            this.id = primate.id;
+            this.nameId = primate.nameId;
+            this.species = primate.getSpecies();
+            this.sex = primate.getSex();
+            this.size = primate.getSize();
+            this.weight = primate.getWeight();
+            this.age = primate.getAge();
+            this.food = primate.getFood();
+            this.medicated = primate.medicatedBefore();
+            this.cage = cage;
+        }
+
+        public int getId(){return id;}
+
+        public String getName(){return nameId < 0 ? null : NameDictionary.SHARED.decode(nameId);}
+
+        public Primate.Species getSpecies(){return species;}
+
+        public Primate.Sex getSex(){return sex;}
+
+        public int getSize(){return size;}
+
+        public int getWeight(){return weight;}
+
+        public int getAge(){return age;}
+
+        public Primate.Food getFood(){return food;}
+
+        public boolean medicatedBefore(){return medicated;}
+
+        public boolean isIsolated(){return cage >= 0;}
+
+        // get the isolation cage index, or -1 for a primate living in an enclosure
+        public int getCage(){return cage;}
+
+        // helper function to write the name as Primate.appendName does
+        private StringBuilder appendName(StringBuilder out) {
+            return nameId < 0 ? out.append("null") : NameDictionary.SHARED.appendTo(nameId, out);
+        }
+    }
+
+    private CensusSnapshot(long version, long time, PersistentIntMap<Resident> isolated, PersistentIntMap<Resident>[] enclosed) {
+        this.version = version;
+        this.time = time;
+        this.isolated = isolated;
+        this.enclosed = enclosed;
+    }
+
+    // get the next version, with a primate moved to its location code (as in PrimateHistory) or updated where it is
+    // only the maps of the old and the new location are copied; all others are shared with this version
+    CensusSnapshot with(Primate primate, int location, long time) {
+        PersistentIntMap<Resident> isolatedNext = isolated.remove(primate.id);
+        PersistentIntMap<Resident>[] enclosedNext = enclosed;
+        int species = primate.getSpecies().ordinal();
+        PersistentIntMap<Resident> speciesNext = enclosed[species].remove(primate.id);
+        if (location > 0) {
+            isolatedNext = isolatedNext.put(primate.id, new Resident(primate, location - 1));
+        } else if (location < 0) {
+            speciesNext = speciesNext.put(primate.id, new Resident(primate, -1));
+        }
+        if (speciesNext != enclosed[species]) {
+            enclosedNext = enclosed.clone();
+            enclosedNext[species] = speciesNext;
+        }
+        return new CensusSnapshot(version + 1, time, isolatedNext, enclosedNext);
+    }
+
+    // get the version, which grows by at least one with every published change
+    public long getVersion() {
+        return version;
+    }
+
+    // get the time of the change this snapshot was taken after, in epoch milliseconds
+    public long getTime() {
+        return time;
+    }
+
+    // get the number of primates in the sanctuary
+    public int size() {
+        int size = isolated.size();
+        for (PersistentIntMap<Resident> residents : enclosed) {
+            size += residents.size();
+        }
+        return size;
+    }
+
+    // get a primate by ID, or null if it was not in the sanctuary at this version
+    public Resident find(int id) {
+        if (id < 0) {
+            return null;
+        }
+        Resident resident = isolated.get(id);
+        for (int i = 0; resident == null && i < enclosed.length; i++) {
+            resident = enclosed[i].get(id);
+        }
+        return resident;
+    }
+
+    // get every primate in isolation, in ID order
+    public List<Resident> getIsolated() {
+        return Collections.unmodifiableList(isolated.values());
+    }
+
+    // get every primate in the enclosures of a species, in ID order
+    public List<Resident> getEnclosureResidents(Primate.Species species) {
+        if (species == null) {
+            throw new IllegalArgumentException("Primate species is not valid.");
+        }
+        return Collections.unmodifiableList(enclosed[species.ordinal()].values());
+    }
+
+    // get the number of primates in the enclosures of a species
+    public int getEnclosurePopulation(Primate.Species species) {
+        if (species == null) {
+            throw new IllegalArgumentException("Primate species is not valid.");
+        }
+        return enclosed[species.ordinal()].size();
+    }
+
+    // get every primate in the sanctuary: the isolated ones, then the enclosures in species order
+    public List<Resident> getResidents() {
+        List<Resident> residents = new ArrayList<>(size());
+        residents.addAll(isolated.values());
+        for (PersistentIntMap<Resident> species : enclosed) {
+            residents.addAll(species.values());
+        }
+        return Collections.unmodifiableList(residents);
+    }
+
+    // get the sanctuary summary of this version, in the format of Sanctuary.getAllNames()
+    public List<String> getAllNames() {
+        List<String> details = new ArrayList<>(size() + 1);
+        StringBuilder detail = new StringBuilder(64);
+        for (Resident resident : getResidents()) {
+            detail.setLength(0);
+            resident.appendName(detail.append("Name: ")).append(", Age: ").append(resident.age)
+                    .append(", Sex: ").append(resident.sex).append(", Food: ").append(resident.food);
+            details.add(detail.toString());
+        }
+        Collections.sort(details);
+        details.add(0, "All Primates Currently in the Sanctuary (in alphabetical order):\n");
+        return details;
+    }
+
+    // get the enclosure listing of this version, one entry per species, in the format of Sanctuary.getEnclosureList()
+    public List<String> getEnclosureList() {
+        List<String> enclosureList = new ArrayList<>(SPECIES.length);
+        for (Primate.Species species : SPECIES) {
+            StringBuilder enclosureString = new StringBuilder();
+            enclosureString.append("Enclosure for ").append(species).append(":\n");
+            for (Resident resident : enclosed[species.ordinal()].values()) {
+                resident.appendName(enclosureString.append("Name: "))
+                        .append(", Sex: ").append(resident.sex)
+                        .append(", Favorite Food: ").append(resident.food)
+                        .append("\n");
+            }
+            enclosureList.add(enclosureString.toString());
+        }
+        return enclosureList;
+    }
+
+    // helper function to set up an empty map for every species
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static PersistentIntMap<Resident>[] emptyEnclosures() {
+        PersistentIntMap<Resident>[] enclosed = new PersistentIntMap[SPECIES.length];
+        for (int i = 0; i < enclosed.length; i++) {
+            enclosed[i] = PersistentIntMap.empty();
+        }
+        return enclosed;
+    }
+}
@@ -0,0 +1,65 @@
+package primates.Model;
+
+import java.util.Arrays;
+import java.util.List;
+
+// the CohortPlanner class would decide where a whole cohort of primates of one species goes at once,
+// instead of placing them one by one in the order they happen to arrive
+// it plans on copies of the enclosure profiles: in every round, the primate with the fewest enclosures left that accept it
+// is placed first, into the enclosure whose residents it matches most closely, so easy primates do not use up the places
+// the difficult ones need; primates that fit nowhere yet are retried after every placement, since e.g. a female joining
+// can make room under a sex share rule for another male
+// every round checks each unplaced primate against each enclosure, O(1) per check through the profiles,
+// so a cohort of n primates costs O(n^2 * enclosures) checks however many primates already live there
+final class CohortPlanner {
+    private CohortPlanner() {
+    }
+
+    // plan the cohort into the enclosures described by the profiles (changed by the plan) and their free places (room)
+    // returns the enclosure index for every primate, or -1 where none is left; the order array receives the indexes of the
+    // planned primates in the order they were planned (an order the rules accept them in one by one), then -1
+    static int[] plan(List<Primate> cohort, EnclosureProfile[] profiles, int[] room, PlacementRules rules, int[] order) {
+        int[] target = new int[cohort.size()];
+        Arrays.fill(target, -1);
+        Arrays.fill(order, -1);
+        int planned = 0;
+        boolean[] placed = new boolean[cohort.size()];
+        while (true) {
+            int best = -1;
+            int bestOptions = Integer.MAX_VALUE;
+            int bestEnclosure = -1;
+            for (int i = 0; i < cohort.size(); i++) {
+                if (placed[i]) {
+                    continue;
+                }
+                Primate primate = cohort.get(i);
+                int options = 0;
+                int closest = -1;
+                int closestWidening = Integer.MAX_VALUE;
+                for (int e = 0; e < profiles.length; e++) {
+                    if (room[e] > 0 && rules.check(profiles[e], primate).isAccepted()) {
+                        options++;
+                        int widening = PlacementRules.widening(profiles[e], primate);
+                        if (widening < closestWidening) {
+                            closest = e;
+                            closestWidening = widening;
+                        }
+                    }
+                }
+                if (options > 0 && options < bestOptions) {
+                    best = i;
+                    bestOptions = options;
+                    bestEnclosure = closest;
+                }
+            }
+            if (best < 0) {
+                return target;
+            }
+            placed[best] = true;
+            target[best] = bestEnclosure;
+            order[planned++] = best;
+            profiles[bestEnclosure].account(cohort.get(best), 1);
+            room[bestEnclosure]--;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import java.util.List;
 // the enclosure class would extend the HousingAbstract class and initiate a new enclosure object
 // each enclosure would be given a String ID, a int capacity, and it's associated Primate specie
 // it also inherits and overwrites the add/remove primates methods from its abstract class
+// next to its primates it keeps an EnclosureProfile of them, which placement rules are checked against
 public class Enclosure extends HousingAbstract{
     private Primate.Species primateType;
+    // running totals over the residents, changed together with the primates list
+    final EnclosureProfile profile = new EnclosureProfile();
     public Enclosure(String ID, int capacity, Primate.Species primateType){
         super(capacity,ID);
         this.primateType = primateType;
@@ -18,25 +21,64 @@ public class Enclosure extends HousingAbstract{
     // add a new primate if: the current Primate is in the right type and the current size of the primates array is smaller than its capacity
     @Override
     public boolean addPrimate(Primate primate){
-        if (this.primates.size() < capacity && primate.getSpecies() == primateType){
-            this.primates.add(primate);
-            return true;
+        return tryAdd(primate, PlacementRules.NONE).isAccepted();
+    }
+
+    // helper function to add a primate if it is of the right type, there is room, and the placement rules let it join the residents
+    Outcome tryAdd(Primate primate, PlacementRules rules){
+        lock.lock();
+        try {
+            if (primate.getSpecies() != primateType) {
+                return Outcome.WRONG_ENCLOSURE;
+            }
+            if (this.primates.size() >= capacity) {
+                return Outcome.ENCLOSURE_FULL;
+            }
+            Outcome outcome = rules.check(profile, primate);
+            if (outcome.isAccepted()) {
+                primate.internName();
+                this.primates.add(primate);
+                profile.account(primate, 1);
+                version++;
+            }
+            return outcome;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     // overwrite the removePrimate method
     // remove a primate from the primates array if it is achievable
     @Override
     public boolean removePrimate(Primate primate){
-        return this.primates.remove(primate);
+        lock.lock();
+        try {
+            if (this.primates.remove(primate)) {
+                profile.account(primate, -1);
+                version++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
     }
 
     // overwrite the getPrimates method
     // return a copy of the primate array list
     @Override
     public List<Primate> getPrimates(){
-        return new ArrayList<>(this.primates);
+        lock.lock();
+        try {
+            return new ArrayList<>(this.primates);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    void account(Primate primate, int delta){
+        profile.account(primate, delta);
     }
 
     // helper function to get the type of Primate for this enclosure
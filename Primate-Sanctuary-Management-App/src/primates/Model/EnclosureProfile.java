@@ -0,0 +1,63 @@
+package primates.Model;
+
+// the EnclosureProfile class would keep running totals over the residents of an enclosure,
+// so the placement rules can judge a newcomer without looking at any resident
+// ages are counted per year (31 and older share the last bucket); weights and sizes per power of two,
+// i.e. a weight of 20 falls into bucket 4 (16 to 31); every bucket that is used has its bit set in the matching mask
+// adding or removing a resident is O(1); the enclosure keeps its profile in step under its lock
+final class EnclosureProfile {
+    static final int BUCKETS = 32;
+
+    int count;
+    final int[] sexes = new int[Primate.Sex.values().length];
+    final int[] ages = new int[BUCKETS];
+    final int[] weights = new int[BUCKETS];
+    final int[] sizes = new int[BUCKETS];
+    final int[] foods = new int[Primate.Food.values().length];
+    int ageMask;
+    int weightMask;
+    int sizeMask;
+    int foodMask;
+
+    // count a resident in (delta 1) or out (delta -1)
+    void account(Primate primate, int delta) {
+        count += delta;
+        sexes[primate.getSex().ordinal()] += delta;
+        ageMask = count(ages, ageMask, ageBucket(primate.getAge()), delta);
+        weightMask = count(weights, weightMask, octave(primate.getWeight()), delta);
+        sizeMask = count(sizes, sizeMask, octave(primate.getSize()), delta);
+        foodMask = count(foods, foodMask, primate.getFood().ordinal(), delta);
+    }
+
+    // get an independent copy, e.g. to plan several placements without touching the enclosure
+    EnclosureProfile copy() {
+        EnclosureProfile copy = new EnclosureProfile();
+        copy.count = count;
+        System.arraycopy(sexes, 0, copy.sexes, 0, sexes.length);
+        System.arraycopy(ages, 0, copy.ages, 0, BUCKETS);
+        System.arraycopy(weights, 0, copy.weights, 0, BUCKETS);
+        System.arraycopy(sizes, 0, copy.sizes, 0, BUCKETS);
+        System.arraycopy(foods, 0, copy.foods, 0, foods.length);
+        copy.ageMask = ageMask;
+        copy.weightMask = weightMask;
+        copy.sizeMask = sizeMask;
+        copy.foodMask = foodMask;
+        return copy;
+    }
+
+    // get the age bucket of an age in years
+    static int ageBucket(int age) {
+        return Math.max(0, Math.min(age, BUCKETS - 1));
+    }
+
+    // get the power-of-two bucket of a weight or size
+    static int octave(int value) {
+        return value <= 0 ? 0 : 31 - Integer.numberOfLeadingZeros(value);
+    }
+
+    // helper function to change one bucket and return the mask with that bucket's bit set while it is in use
+    private static int count(int[] buckets, int mask, int bucket, int delta) {
+        buckets[bucket] += delta;
+        return buckets[bucket] > 0 ? mask | (1 << bucket) : mask & ~(1 << bucket);
+    }
+}
@@ -0,0 +1,437 @@
+package primates.Model;
+
+import java.util.Arrays;
+
+// the HealthRecords class would keep the weight and size measurements and the treatments of every primate over time
+// each primate has one series per measure; a series is a list of chunks of up to CHUNK_SAMPLES samples,
+// and inside a chunk only the first sample is stored as is; for every later one the change of the time step and the change
+// of the value are stored as zigzag varints, so a weight taken every day at the same hour costs about two bytes instead of twelve
+// every series also keeps weekly rollups (count, sum, min, max), so a trend over months reads a few rollups per primate
+// and only decodes raw samples for the partly covered weeks at the edges of the asked period
+// treatments are counted in one series per species instead, so medical care does not build a series for every primate;
+// the treatments of one primate are already in its PrimateHistory timeline
+public class HealthRecords {
+    // what a sample measures; a treatment sample has the value 1, so the rollups count treatments
+    public enum Measure {WEIGHT, SIZE, TREATMENT}
+
+    // the raw samples of one primate in a period, as returned by the samples query
+    public static final class Samples {
+        private final long[] times;
+        private final int[] values;
+
+        Samples(long[] times, int[] values) {
+            this.times = times;
+            this.values = values;
+        }
+
+        public int size() {return times.length;}
+
+        // the sample time in epoch milliseconds
+        public long getTime(int index) {return times[index];}
+
+        public int getValue(int index) {return values[index];}
+    }
+
+    // a measure over a group of primates, one bucket per rollup period (a week), as returned by the trend query
+    // buckets without samples have a count of 0 and a mean of NaN
+    public static final class Trend {
+        private final long firstBucketStart;
+        private final int[] counts;
+        private final long[] sums;
+        private final int[] mins;
+        private final int[] maxes;
+
+        Trend(long firstBucketStart, int buckets) {
+            this.firstBucketStart = firstBucketStart;
+            this.counts = new int[buckets];
+            this.sums = new long[buckets];
+            this.mins = new int[buckets];
+            this.maxes = new int[buckets];
+            Arrays.fill(mins, Integer.MAX_VALUE);
+            Arrays.fill(maxes, Integer.MIN_VALUE);
+        }
+
+        void add(int bucket, int count, long sum, int min, int max) {
+            counts[bucket] += count;
+            sums[bucket] += sum;
+            mins[bucket] = Math.min(mins[bucket], min);
+            maxes[bucket] = Math.max(maxes[bucket], max);
+        }
+
+        public int size() {return counts.length;}
+
+        // the start of a bucket in epoch milliseconds
+        public long getBucketStart(int bucket) {return firstBucketStart + bucket * ROLLUP_MILLIS;}
+
+        public int getCount(int bucket) {return counts[bucket];}
+
+        public double getMean(int bucket) {return counts[bucket] == 0 ? Double.NaN : (double) sums[bucket] / counts[bucket];}
+
+        public int getMin(int bucket) {return mins[bucket];}
+
+        public int getMax(int bucket) {return maxes[bucket];}
+    }
+
+    // the number of samples in one chunk
+    static final int CHUNK_SAMPLES = 256;
+    // unused bytes a full chunk may keep instead of being copied to its exact size
+    private static final int CHUNK_SLACK = 32;
+    // rollups cover one week each, aligned to the epoch
+    public static final long ROLLUP_MILLIS = 7L * 24 * 3600 * 1000;
+    private static final Measure[] MEASURES = Measure.values();
+
+    // series indexed by measure, then primate ID
+    private final Series[][] series = new Series[MEASURES.length][];
+    // treatment series indexed by species ordinal
+    private final Series[] treatments = new Series[Primate.Species.values().length];
+    // the IDs of the primates of each species that have any health record
+    private int[][] bySpecies = new int[Primate.Species.values().length][];
+    private final int[] speciesCounts = new int[Primate.Species.values().length];
+    private int sampleCount;
+
+    // constructor
+    public HealthRecords() {
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new Series[64];
+        }
+        for (int i = 0; i < bySpecies.length; i++) {
+            bySpecies[i] = new int[16];
+            treatments[i] = new Series();
+        }
+    }
+
+    // record a treatment of a primate of the given species
+    synchronized void recordTreatment(Primate.Species species, long time) {
+        treatments[species.ordinal()].add(time, 1);
+        sampleCount++;
+    }
+
+    // record a sample for a primate; times never go backwards within a series, so every series stays sorted
+    synchronized void record(int primateId, Primate.Species species, Measure measure, long time, int value) {
+        if (measure == Measure.TREATMENT) {
+            throw new IllegalArgumentException("Treatments are recorded per species.");
+        }
+        Series[] column = series[measure.ordinal()];
+        if (primateId >= column.length) {
+            column = Arrays.copyOf(column, Math.max(primateId + 1, column.length * 2));
+            series[measure.ordinal()] = column;
+        }
+        if (column[primateId] == null) {
+            column[primateId] = new Series();
+            if (!hasAnySeries(primateId, measure)) {
+                addToSpecies(species.ordinal(), primateId);
+            }
+        }
+        column[primateId].add(time, value);
+        sampleCount++;
+    }
+
+    // helper function to check whether a primate already has a series of another measure
+    private boolean hasAnySeries(int primateId, Measure except) {
+        for (Measure measure : MEASURES) {
+            Series[] column = series[measure.ordinal()];
+            if (measure != except && primateId < column.length && column[primateId] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // helper function to remember that a primate belongs to a species
+    private void addToSpecies(int species, int primateId) {
+        if (speciesCounts[species] == bySpecies[species].length) {
+            bySpecies[species] = Arrays.copyOf(bySpecies[species], speciesCounts[species] * 2);
+        }
+        bySpecies[species][speciesCounts[species]++] = primateId;
+    }
+
+    // get the total number of recorded samples
+    public synchronized int size() {
+        return sampleCount;
+    }
+
+    // get the raw samples of one primate in [from, to); there are none for treatments, see the primate's history instead
+    public synchronized Samples samples(int primateId, Measure measure, long from, long to) {
+        Series found = find(primateId, measure);
+        if (found == null || from >= to) {
+            return new Samples(new long[0], new int[0]);
+        }
+        Collector collector = new Collector();
+        found.scan(from, to, collector);
+        return collector.toSamples();
+    }
+
+    // get the latest sample value of one primate, or -1 if it has none
+    public synchronized int latest(int primateId, Measure measure) {
+        Series found = find(primateId, measure);
+        return found == null ? -1 : found.chunks[found.chunkCount - 1].lastValue;
+    }
+
+    // get the trend of a measure over every primate of a species in [from, to), one bucket per week
+    // whole weeks are read from the rollups; only the weeks cut by from or to decode raw samples
+    public synchronized Trend trend(Primate.Species species, Measure measure, long from, long to) {
+        if (to <= from) {
+            return new Trend(Math.floorDiv(from, ROLLUP_MILLIS) * ROLLUP_MILLIS, 0);
+        }
+        long firstBucket = Math.floorDiv(from, ROLLUP_MILLIS);
+        long lastBucket = Math.floorDiv(to - 1, ROLLUP_MILLIS);
+        Trend trend = new Trend(firstBucket * ROLLUP_MILLIS, (int) (lastBucket - firstBucket + 1));
+        if (measure == Measure.TREATMENT) {
+            Series counted = treatments[species.ordinal()];
+            if (counted.chunkCount > 0) {
+                counted.addTo(trend, firstBucket, lastBucket, from, to);
+            }
+            return trend;
+        }
+        Series[] column = series[measure.ordinal()];
+        int[] ids = bySpecies[species.ordinal()];
+        for (int i = 0; i < speciesCounts[species.ordinal()]; i++) {
+            int id = ids[i];
+            if (id < column.length && column[id] != null) {
+                column[id].addTo(trend, firstBucket, lastBucket, from, to);
+            }
+        }
+        return trend;
+    }
+
+    // helper function to find the series of a primate
+    private Series find(int primateId, Measure measure) {
+        Series[] column = series[measure.ordinal()];
+        return primateId >= 0 && primateId < column.length ? column[primateId] : null;
+    }
+
+    // receives decoded samples
+    private interface SampleConsumer {
+        void accept(long time, int value);
+    }
+
+    // helper class to gather decoded samples into arrays
+    private static final class Collector implements SampleConsumer {
+        private long[] times = new long[16];
+        private int[] values = new int[16];
+        private int count;
+
+        @Override
+        public void accept(long time, int value) {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            times[count] = time;
+            values[count++] = value;
+        }
+
+        Samples toSamples() {
+            return new Samples(Arrays.copyOf(times, count), Arrays.copyOf(values, count));
+        }
+    }
+
+    // helper class to add decoded samples to one trend bucket
+    private static final class BucketSum implements SampleConsumer {
+        private int count;
+        private long sum;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        @Override
+        public void accept(long time, int value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    // the samples of one primate and measure: delta-encoded chunks plus weekly rollups
+    private static final class Series {
+        private Chunk[] chunks = new Chunk[1];
+        private int chunkCount;
+
+        // rollup columns, one entry per week that has samples; weeks since the epoch fit an int for millions of years
+        private int[] buckets = new int[4];
+        private int[] counts = new int[4];
+        private long[] sums = new long[4];
+        private int[] mins = new int[4];
+        private int[] maxes = new int[4];
+        private int bucketCount;
+
+        void add(long time, int value) {
+            Chunk last = chunkCount == 0 ? null : chunks[chunkCount - 1];
+            if (last != null) {
+                time = Math.max(time, last.lastTime);
+            }
+            if (last == null || last.count == CHUNK_SAMPLES) {
+                if (last != null) {
+                    last.seal();
+                }
+                if (chunkCount == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunkCount * 2);
+                }
+                // a series tends to encode alike from chunk to chunk, so the next chunk starts at the size of the last one
+                chunks[chunkCount++] = new Chunk(time, value, last == null ? 32 : last.length + CHUNK_SLACK);
+            } else {
+                last.append(time, value);
+            }
+            roll(Math.floorDiv(time, ROLLUP_MILLIS), value);
+        }
+
+        // helper function to add a sample to the rollup of its week
+        private void roll(long bucket, int value) {
+            int i = bucketCount - 1;
+            if (i < 0 || buckets[i] != bucket) {
+                if (bucketCount == buckets.length) {
+                    // a series gains a rollup per week for years, so the columns grow by half instead of doubling
+                    int capacity = bucketCount + (bucketCount >> 1);
+                    buckets = Arrays.copyOf(buckets, capacity);
+                    counts = Arrays.copyOf(counts, capacity);
+                    sums = Arrays.copyOf(sums, capacity);
+                    mins = Arrays.copyOf(mins, capacity);
+                    maxes = Arrays.copyOf(maxes, capacity);
+                }
+                i = bucketCount++;
+                buckets[i] = (int) bucket;
+                mins[i] = Integer.MAX_VALUE;
+                maxes[i] = Integer.MIN_VALUE;
+            }
+            counts[i]++;
+            sums[i] += value;
+            mins[i] = Math.min(mins[i], value);
+            maxes[i] = Math.max(maxes[i], value);
+        }
+
+        // helper function to decode every sample in [from, to), skipping chunks outside of it
+        void scan(long from, long to, SampleConsumer consumer) {
+            // the first chunk that ends at or after from
+            int low = 0;
+            int high = chunkCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (chunks[mid].lastTime < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < chunkCount && chunks[i].firstTime < to; i++) {
+                chunks[i].scan(from, to, consumer);
+            }
+        }
+
+        // helper function to add this series to the buckets of a trend
+        void addTo(Trend trend, long firstBucket, long lastBucket, long from, long to) {
+            // the first rollup at or after the first bucket
+            int low = 0;
+            int high = bucketCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buckets[mid] < firstBucket) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long lastTime = chunks[chunkCount - 1].lastTime;
+            for (int i = low; i < bucketCount && buckets[i] <= lastBucket; i++) {
+                long start = buckets[i] * ROLLUP_MILLIS;
+                int bucket = (int) (buckets[i] - firstBucket);
+                // a week cut by to is still whole if none of its samples are later than to
+                if (start >= from && (start + ROLLUP_MILLIS <= to || lastTime < to)) {
+                    trend.add(bucket, counts[i], sums[i], mins[i], maxes[i]);
+                } else {
+                    BucketSum partial = new BucketSum();
+                    scan(Math.max(from, start), Math.min(to, start + ROLLUP_MILLIS), partial);
+                    if (partial.count > 0) {
+                        trend.add(bucket, partial.count, partial.sum, partial.min, partial.max);
+                    }
+                }
+            }
+        }
+    }
+
+    // up to CHUNK_SAMPLES samples: the first one as is, the rest as the change of the time step and the value delta, both zigzag varints
+    private static final class Chunk {
+        private final long firstTime;
+        private final int firstValue;
+        private long lastTime;
+        private long lastStep;
+        private int lastValue;
+        private int count = 1;
+        private byte[] data;
+        private int length;
+
+        Chunk(long time, int value, int capacity) {
+            this.data = new byte[capacity];
+            this.firstTime = time;
+            this.firstValue = value;
+            this.lastTime = time;
+            this.lastValue = value;
+        }
+
+        void append(long time, int value) {
+            if (data.length - length < 15) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 15));
+            }
+            long step = time - lastTime;
+            long stepChange = step - lastStep;
+            putVarLong((stepChange << 1) ^ (stepChange >> 63));
+            int delta = value - lastValue;
+            putVarLong(((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL);
+            lastStep = step;
+            lastTime = time;
+            lastValue = value;
+            count++;
+        }
+
+        // trim the encoded data once the chunk is full
+        void seal() {
+            if (data.length - length > CHUNK_SLACK) {
+                data = Arrays.copyOf(data, length);
+            }
+        }
+
+        void scan(long from, long to, SampleConsumer consumer) {
+            long time = firstTime;
+            long step = 0;
+            int value = firstValue;
+            int position = 0;
+            for (int i = 0; ; i++) {
+                if (time >= to) {
+                    return;
+                }
+                if (time >= from) {
+                    consumer.accept(time, value);
+                }
+                if (i == count - 1) {
+                    return;
+                }
+                long stepChange = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[position++];
+                    stepChange |= (long) (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                int zigzag = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[position++];
+                    zigzag |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                step += (stepChange >>> 1) ^ -(stepChange & 1);
+                time += step;
+                value += (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+
+        private void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package primates.Model;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 // the HousingAbstract class would function as the blueprints both types of housing options in the Sanctuary
 // it will define that for every housing option in the Sanctuary, it must have a String ID, an int capacity, and a list that contains all its primate objects
 // it will also define that each of the housing option should have a method to add primates, a method to remove primates, and a method to get the primates list
+// every change to the primates list happens under the housing's lock and increases its version,
+// which lets transactions detect concurrent changes without holding locks while they are being prepared
 public abstract class HousingAbstract {
+    // hands out the position of every housing in the global locking order
+    private static final AtomicLong NEXT_LOCK_ORDER = new AtomicLong();
+
     int capacity;
     String ID;
     List<Primate> primates;
+    // optimistic version stamp, increased on every change of the primates list
+    volatile long version;
+    // held while the primates list is read or changed
+    final ReentrantLock lock = new ReentrantLock();
+    // transactions always lock housings in this order, so two transactions can never wait on each other in a cycle
+    final long lockOrder = NEXT_LOCK_ORDER.getAndIncrement();
 
     // abstract class constructor
     public HousingAbstract(int capacity, String ID){
@@ -23,4 +36,44 @@ public abstract class HousingAbstract {
     public abstract boolean removePrimate(Primate primate);
     // get the list which contains all the primates in the current housing option
     public abstract List<Primate> getPrimates();
+
+    // helper function to count a primate that was just added to (delta 1) or removed from (delta -1) the primates list
+    // in whatever the housing keeps about its residents; called under the lock
+    void account(Primate primate, int delta){
+    }
+
+    // helper function to check whether a primate lives here
+    boolean contains(Primate primate){
+        lock.lock();
+        try {
+            return primates.contains(primate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // helper function to find a resident by the dictionary ID of its name, or null
+    Primate findByNameId(int nameId){
+        lock.lock();
+        try {
+            for (Primate primate : primates) {
+                if (primate.nameId == nameId) {
+                    return primate;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // helper function to get the housing's ID
+    public String getID(){
+        return ID;
+    }
+
+    // helper function to get the current version stamp of the housing
+    public long getVersion(){
+        return version;
+    }
 }
@@ -0,0 +1,75 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the InMemoryPrimateStore class would keep every primate on the heap, indexed by ID
+// this is how the sanctuary has always kept its registry: lookups by ID are an array access,
+// while listing the residents of one location scans all location codes
+public class InMemoryPrimateStore implements PrimateStore {
+    private final ArrayList<Primate> primates = new ArrayList<>();
+    private byte[] locations = new byte[256];
+
+    @Override
+    public synchronized int add(Primate primate) {
+        int id = primates.size();
+        primate.id = id;
+        primates.add(primate);
+        if (id == locations.length) {
+            locations = Arrays.copyOf(locations, id * 2);
+        }
+        return id;
+    }
+
+    @Override
+    public synchronized Primate get(int id) {
+        return id >= 0 && id < primates.size() ? primates.get(id) : null;
+    }
+
+    // the primate object is the stored one, so only the location has to be saved once it is known
+    @Override
+    public synchronized void update(Primate primate, int location) {
+        int id = primate.id;
+        if (id < 0) {
+            throw new IllegalArgumentException(Outcome.NOT_IN_SANCTUARY.getMessage());
+        }
+        while (primates.size() <= id) {
+            primates.add(null);
+        }
+        primates.set(id, primate);
+        if (id >= locations.length) {
+            locations = Arrays.copyOf(locations, Math.max(id + 1, locations.length * 2));
+        }
+        locations[id] = (byte) location;
+    }
+
+    @Override
+    public synchronized int getLocation(int id) {
+        return id >= 0 && id < primates.size() ? locations[id] : 0;
+    }
+
+    @Override
+    public synchronized List<Primate> residents(int location, int fromId, int limit) {
+        List<Primate> residents = new ArrayList<>();
+        for (int id = Math.max(0, fromId); id < primates.size() && residents.size() < limit; id++) {
+            if (locations[id] == location && primates.get(id) != null) {
+                residents.add(primates.get(id));
+            }
+        }
+        return residents;
+    }
+
+    @Override
+    public synchronized int size() {
+        return primates.size();
+    }
+
+    @Override
+    public synchronized void reserve(int count) {
+        primates.ensureCapacity(count);
+        if (count > locations.length) {
+            locations = Arrays.copyOf(locations, count);
+        }
+    }
+}
@@ -18,25 +18,46 @@ public class Isolation extends HousingAbstract {
     // add a new primate if the current size of the primates array is smaller than its capacity
     @Override
     public boolean addPrimate(Primate primate){
-        if (this.primates.size() < capacity){
-            this.primates.add(primate);
-            return true;
+        lock.lock();
+        try {
+            if (this.primates.size() < capacity){
+                primate.internName();
+                this.primates.add(primate);
+                version++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     // overwrite the removePrimate method
     // remove a primate from the primates array if it is achievable
     @Override
     public boolean removePrimate(Primate primate){
-        return this.primates.remove(primate);
+        lock.lock();
+        try {
+            if (this.primates.remove(primate)) {
+                version++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
     }
 
     // overwrite the getPrimates method
     // return a copy of the primate array list
     @Override
     public List<Primate> getPrimates(){
-        return new ArrayList<>(this.primates);
+        lock.lock();
+        try {
+            return new ArrayList<>(this.primates);
+        } finally {
+            lock.unlock();
+        }
     }
 
     // helper function to get an isolation's capacity
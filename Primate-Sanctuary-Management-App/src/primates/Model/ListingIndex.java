@@ -0,0 +1,54 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// the ListingIndex class would keep the primates of one listing (the census, the isolation cages, or one species' enclosures)
+// sorted by name and by ID, so a page of the listing costs O(log n + page size) instead of a copy and sort of everyone
+// names are compared by their dictionary bytes, ties broken by ID; the caller guards the index with its own lock
+final class ListingIndex {
+    static final Comparator<Primate> BY_ID = Comparator.comparingInt(p -> p.id);
+    static final Comparator<Primate> BY_NAME = (a, b) -> {
+        int compared;
+        if (a.nameId < 0 || b.nameId < 0) {
+            // primates without a name come first
+            compared = Integer.compare(a.nameId < 0 ? 0 : 1, b.nameId < 0 ? 0 : 1);
+        } else {
+            compared = NameDictionary.SHARED.compare(a.nameId, b.nameId);
+        }
+        return compared != 0 ? compared : Integer.compare(a.id, b.id);
+    };
+
+    private final TreeSet<Primate> byName = new TreeSet<>(BY_NAME);
+    private final TreeSet<Primate> byId = new TreeSet<>(BY_ID);
+
+    void add(Primate primate) {
+        byName.add(primate);
+        byId.add(primate);
+    }
+
+    void remove(Primate primate) {
+        byName.remove(primate);
+        byId.remove(primate);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    // get up to pageSize primates that follow the given one (or the first ones if it is null)
+    Page<Primate> page(Page.Order order, int pageSize, Primate after) {
+        NavigableSet<Primate> sorted = order == Page.Order.BY_NAME ? byName : byId;
+        Iterator<Primate> rest = (after == null ? sorted : sorted.tailSet(after, false)).iterator();
+        List<Primate> items = new ArrayList<>(Math.min(pageSize, 1024));
+        while (items.size() < pageSize && rest.hasNext()) {
+            items.add(rest.next());
+        }
+        String next = rest.hasNext() ? Page.cursorAfter(order, items.get(items.size() - 1)) : null;
+        return new Page<>(items, next);
+    }
+}
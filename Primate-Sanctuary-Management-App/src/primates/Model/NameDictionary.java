@@ -0,0 +1,215 @@
+package primates.Model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// the NameDictionary class would store every distinct primate name once, as UTF-8 bytes in one shared byte array
+// each name gets an int ID; primates keep only that ID, so comparing names is comparing ints
+// the hash of every name is computed once (it equals String.hashCode) and kept next to it for the open-addressing lookup table
+// names are only turned back into Strings when they are shown to the user
+// readers take no lock: they work on the latest published Names, whose names never change; a new name is written
+// past the end of what was published (into larger copies when the arrays are full) and then published in a new Names
+final class NameDictionary {
+    // the dictionary shared by every primate
+    static final NameDictionary SHARED = new NameDictionary();
+
+    // the names published so far
+    private volatile Names names = new Names(new byte[4096], new int[257], new int[256], new int[512], 0);
+
+    // the storage of one published version of the dictionary
+    private static final class Names {
+        // UTF-8 bytes of all names back to back; name i spans offsets[i] to offsets[i + 1]
+        final byte[] bytes;
+        final int[] offsets;
+        final int[] hashes;
+        // open-addressing table of name IDs + 1 (0 marks a free slot); kept at most half full
+        // writers fill free slots with IDs past count, which readers of this version treat as free
+        final int[] table;
+        final int count;
+
+        Names(byte[] bytes, int[] offsets, int[] hashes, int[] table, int count) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+            this.hashes = hashes;
+            this.table = table;
+            this.count = count;
+        }
+    }
+
+    // get the ID of a name, adding it to the dictionary if it is new
+    int intern(String name) {
+        int id = lookup(name);
+        return id >= 0 ? id : add(name);
+    }
+
+    // get the ID of a name without adding it, or -1 if no primate was ever given that name
+    int lookup(String name) {
+        return find(names, name, name.hashCode());
+    }
+
+    // turn a name ID back into a String
+    String decode(int id) {
+        Names current = names;
+        return new String(current.bytes, current.offsets[id], current.offsets[id + 1] - current.offsets[id], StandardCharsets.UTF_8);
+    }
+
+    // append a name to a builder; plain ASCII names are copied without creating a String
+    StringBuilder appendTo(int id, StringBuilder out) {
+        Names current = names;
+        byte[] bytes = current.bytes;
+        int start = current.offsets[id];
+        int end = current.offsets[id + 1];
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return out.append(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            }
+        }
+        for (int i = start; i < end; i++) {
+            out.append((char) bytes[i]);
+        }
+        return out;
+    }
+
+    // get a copy of a name's UTF-8 bytes
+    byte[] utf8(int id) {
+        Names current = names;
+        return Arrays.copyOfRange(current.bytes, current.offsets[id], current.offsets[id + 1]);
+    }
+
+    // compare two names by their UTF-8 bytes, which orders them by code point, without creating Strings
+    int compare(int first, int second) {
+        if (first == second) {
+            return 0;
+        }
+        Names current = names;
+        byte[] bytes = current.bytes;
+        int[] offsets = current.offsets;
+        int i = offsets[first];
+        int j = offsets[second];
+        int firstEnd = offsets[first + 1];
+        int secondEnd = offsets[second + 1];
+        for (; i < firstEnd && j < secondEnd; i++, j++) {
+            if (bytes[i] != bytes[j]) {
+                return (bytes[i] & 0xFF) - (bytes[j] & 0xFF);
+            }
+        }
+        return (firstEnd - offsets[first]) - (secondEnd - offsets[second]);
+    }
+
+    // get the number of distinct names
+    int size() {
+        return names.count;
+    }
+
+    // helper function to find a name in one version of the dictionary, or -1 if it is not there
+    private static int find(Names current, String name, int hash) {
+        int[] table = current.table;
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            // an ID this version does not cover yet was added after it, into a slot that was free
+            if (entry == 0 || entry > current.count) {
+                return -1;
+            }
+            if (current.hashes[entry - 1] == hash && matches(current, entry - 1, name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // helper function to add a new name and publish the next version; only one writer at a time
+    private synchronized int add(String name) {
+        Names current = names;
+        int hash = name.hashCode();
+        // another writer may have added it since the lookup
+        int found = find(current, name, hash);
+        if (found >= 0) {
+            return found;
+        }
+        int id = current.count;
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = current.bytes;
+        int[] offsets = current.offsets;
+        int[] hashes = current.hashes;
+        int start = offsets[id];
+        if (start + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(start + encoded.length, bytes.length * 2));
+        }
+        if (id + 1 == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            offsets = Arrays.copyOf(offsets, hashes.length + 1);
+        }
+        System.arraycopy(encoded, 0, bytes, start, encoded.length);
+        hashes[id] = hash;
+        offsets[id + 1] = start + encoded.length;
+        int[] table = (id + 1) * 2 > current.table.length ? rehash(hashes, id, current.table.length * 2) : current.table;
+        insert(table, hash, id);
+        names = new Names(bytes, offsets, hashes, table, id + 1);
+        return id;
+    }
+
+    // helper function to put a name ID into the first free slot of its probe sequence
+    private static void insert(int[] table, int hash, int id) {
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    // helper function to build a larger lookup table holding the first count names
+    private static int[] rehash(int[] hashes, int count, int length) {
+        int[] larger = new int[length];
+        for (int id = 0; id < count; id++) {
+            insert(larger, hashes[id], id);
+        }
+        return larger;
+    }
+
+    // helper function to spread the bits of String hashes, which are often close together for similar names
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // helper function to compare a stored name with a String by encoding the String's characters on the fly
+    private static boolean matches(Names current, int id, String name) {
+        byte[] bytes = current.bytes;
+        int pos = current.offsets[id];
+        int end = current.offsets[id + 1];
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            int c = name.charAt(i);
+            if (c < 0x80) {
+                if (pos >= end || bytes[pos++] != c) {
+                    return false;
+                }
+                continue;
+            }
+            if (Character.isHighSurrogate((char) c) && i + 1 < length && Character.isLowSurrogate(name.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, name.charAt(++i));
+            } else if (Character.isSurrogate((char) c)) {
+                // unpaired surrogates are stored as '?', like String.getBytes does
+                if (pos >= end || bytes[pos++] != '?') {
+                    return false;
+                }
+                continue;
+            }
+            int extra = c < 0x800 ? 1 : c < 0x10000 ? 2 : 3;
+            if (end - pos < extra + 1) {
+                return false;
+            }
+            int lead = extra == 1 ? 0xC0 : extra == 2 ? 0xE0 : 0xF0;
+            if (bytes[pos++] != (byte) (lead | (c >> (6 * extra)))) {
+                return false;
+            }
+            for (int shift = 6 * (extra - 1); shift >= 0; shift -= 6) {
+                if (bytes[pos++] != (byte) (0x80 | ((c >> shift) & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+        return pos == end;
+    }
+}
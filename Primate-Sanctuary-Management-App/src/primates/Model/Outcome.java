@@ -0,0 +1,56 @@
+package primates.Model;
+
+import java.util.ConcurrentModificationException;
+
+// the Outcome enum would describe how a sanctuary operation ended, without throwing and without allocating anything
+// every rejection carries the same message the throwing methods use, and knows which exception those methods throw for it
+public enum Outcome {
+    ACCEPTED(null),
+    INVALID_NAME("Primate name cannot be empty."),
+    INVALID_SPECIES("Primate species is not valid."),
+    INVALID_SEX("Primate sex is not valid."),
+    INVALID_MEASUREMENTS("Primate size, weight, and age must be greater than zero."),
+    INVALID_FOOD("Primate food preference is not valid."),
+    ISOLATION_FULL("No available isolation space."),
+    NOT_IN_ISOLATION("The target primate is not found in any isolation units."),
+    NOT_IN_ENCLOSURE("The target primate has not been found in the enclosures."),
+    NOT_IN_SANCTUARY("The target primate is not found in the sanctuary."),
+    NOT_ISOLATED("This primate has not been isolated yet."),
+    NOT_MEDICATED("This primate has not been medicated yet."),
+    WRONG_ENCLOSURE("The enclosure does not house this primate's species."),
+    ENCLOSURE_FULL("The enclosure for this primate is currently full."),
+    INCOMPATIBLE_GROUP("No enclosure for this primate's species has room for it under the placement rules."),
+    QUARANTINE_ACTIVE("This primate's quarantine has not ended yet."),
+    ALREADY_IN_ENCLOSURE("The target primate already lives in an enclosure."),
+    FOREIGN_HOUSING("The target housing does not belong to this sanctuary."),
+    CONFLICT("Another change touched the same housings; the operation was not applied.");
+
+    private final String message;
+
+    Outcome(String message) {
+        this.message = message;
+    }
+
+    // check whether the operation went through
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+
+    // get the reason of a rejection, or null if the operation was accepted
+    public String getMessage() {
+        return message;
+    }
+
+    // create the exception the throwing methods report this rejection with
+    // a full isolation is a state of the sanctuary, a conflict is a lost race, everything else is a problem with the request
+    RuntimeException toException() {
+        switch (this) {
+            case ISOLATION_FULL:
+                return new IllegalStateException(message);
+            case CONFLICT:
+                return new ConcurrentModificationException(message);
+            default:
+                return new IllegalArgumentException(message);
+        }
+    }
+}
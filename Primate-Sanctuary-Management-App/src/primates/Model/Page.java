@@ -0,0 +1,53 @@
+package primates.Model;
+
+import java.util.Collections;
+import java.util.List;
+
+// the Page class would hold one page of a sanctuary listing and the cursor to ask for the next one
+// a cursor remembers the last primate of the page, so the next page starts right after it even if primates came or left in between
+public class Page<T> {
+    // the orders a listing can be read in; both are stable because ties on names are broken by ID
+    public enum Order {BY_NAME, BY_ID}
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    // constructor
+    Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    // get the items on this page
+    public List<T> getItems() {return items;}
+
+    // get the cursor for the next page, or null if this is the last page
+    public String getNextCursor() {return nextCursor;}
+
+    // check whether another page follows
+    public boolean hasMore() {return nextCursor != null;}
+
+    // helper function to write the cursor after a primate
+    static String cursorAfter(Order order, Primate last) {
+        return (order == Order.BY_NAME ? "N" : "I") + last.id;
+    }
+
+    // helper function to read the ID of the primate a cursor points after, or -1 for no cursor
+    static int parseCursor(Order order, String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        char expected = order == Order.BY_NAME ? 'N' : 'I';
+        try {
+            if (cursor.length() > 1 && cursor.charAt(0) == expected) {
+                int id = Integer.parseInt(cursor.substring(1));
+                if (id >= 0) {
+                    return id;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor for a listing in " + order + " order: " + cursor);
+    }
+}
@@ -0,0 +1,213 @@
+package primates.Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+// the PageCache class would keep a fixed number of file pages in memory for the on-disk B-tree
+// a page is pinned while it is read or changed and cannot be evicted until it is unpinned again;
+// when a frame is needed, a CLOCK hand sweeps the frames, giving every recently used page a second chance,
+// and writes the victim back first if it was changed
+// the cache is not thread-safe; its owner serializes all access
+final class PageCache {
+    static final int PAGE_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer[] frames;
+    // the page held by each frame, or -1 for a free frame
+    private final long[] framePages;
+    private final int[] pins;
+    private final boolean[] dirty;
+    private final boolean[] referenced;
+    // page number to frame, an open-addressing table with linear probing; slots hold frame + 1, 0 is empty
+    private final int[] table;
+    private final int mask;
+    private int hand;
+    private long pageCount;
+
+    private long hits;
+    private long misses;
+    private long writes;
+
+    // constructor
+    PageCache(FileChannel channel, int frameCount) throws IOException {
+        if (frameCount < 8) {
+            throw new IllegalArgumentException("The page cache needs at least 8 frames.");
+        }
+        this.channel = channel;
+        this.frames = new ByteBuffer[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = ByteBuffer.allocate(PAGE_SIZE);
+        }
+        this.framePages = new long[frameCount];
+        Arrays.fill(framePages, -1);
+        this.pins = new int[frameCount];
+        this.dirty = new boolean[frameCount];
+        this.referenced = new boolean[frameCount];
+        this.pageCount = channel.size() / PAGE_SIZE;
+        this.table = new int[Integer.highestOneBit(frameCount) * 4];
+        this.mask = table.length - 1;
+    }
+
+    // get the number of pages in the file, including the ones only in the cache so far
+    long pageCount() {
+        return pageCount;
+    }
+
+    // pin a page and get its contents; every pin must be followed by an unpin
+    ByteBuffer pin(long page) throws IOException {
+        if (page < 0 || page >= pageCount) {
+            throw new IOException("Page " + page + " is outside of the store file.");
+        }
+        int frame = find(page);
+        if (frame >= 0) {
+            hits++;
+        } else {
+            frame = evict();
+            ByteBuffer buffer = frames[frame];
+            buffer.clear();
+            long position = page * PAGE_SIZE;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    // pages allocated but never written back read as zeros
+                    Arrays.fill(buffer.array(), buffer.position(), PAGE_SIZE, (byte) 0);
+                    break;
+                }
+            }
+            framePages[frame] = page;
+            insert(frame);
+            misses++;
+        }
+        pins[frame]++;
+        referenced[frame] = true;
+        return frames[frame];
+    }
+
+    // unpin a page, telling the cache whether it was changed
+    void unpin(long page, boolean changed) {
+        int frame = find(page);
+        if (frame < 0 || pins[frame] == 0) {
+            throw new IllegalStateException("Page " + page + " is not pinned.");
+        }
+        pins[frame]--;
+        dirty[frame] |= changed;
+    }
+
+    // add a zeroed page at the end of the file and pin it
+    long allocate() throws IOException {
+        int frame = evict();
+        long page = pageCount++;
+        Arrays.fill(frames[frame].array(), (byte) 0);
+        framePages[frame] = page;
+        insert(frame);
+        pins[frame] = 1;
+        dirty[frame] = true;
+        referenced[frame] = true;
+        return page;
+    }
+
+    // helper function to find a frame for a new page, writing back the page it held if needed
+    private int evict() throws IOException {
+        // two full sweeps clear every reference bit, so a third finds a victim unless every frame is pinned
+        for (int step = 0; step < 3 * frames.length; step++) {
+            int frame = hand;
+            hand = (hand + 1) % frames.length;
+            if (framePages[frame] < 0) {
+                return frame;
+            }
+            if (pins[frame] > 0) {
+                continue;
+            }
+            if (referenced[frame]) {
+                referenced[frame] = false;
+                continue;
+            }
+            writeBack(frame);
+            delete(frame);
+            framePages[frame] = -1;
+            return frame;
+        }
+        throw new IllegalStateException("Every page of the cache is pinned.");
+    }
+
+    // helper function to find the frame holding a page, or -1
+    private int find(long page) {
+        for (int slot = slotOf(page); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (framePages[table[slot] - 1] == page) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    // helper function to add a frame to the table under the page it holds
+    private void insert(int frame) {
+        int slot = slotOf(framePages[frame]);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = frame + 1;
+    }
+
+    // helper function to remove a frame from the table, moving later entries of its probe run back into the gap
+    private void delete(int frame) {
+        int slot = slotOf(framePages[frame]);
+        while (table[slot] != frame + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (slot = (slot + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int home = slotOf(framePages[table[slot] - 1]);
+            // move the entry if its home slot does not lie cyclically between the gap and its current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private int slotOf(long page) {
+        long hash = page * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40) & mask;
+    }
+
+    // helper function to write a changed frame to the file
+    private void writeBack(int frame) throws IOException {
+        if (!dirty[frame]) {
+            return;
+        }
+        ByteBuffer buffer = frames[frame];
+        buffer.clear();
+        long position = framePages[frame] * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        dirty[frame] = false;
+        writes++;
+    }
+
+    // write every changed page to the file
+    void flush() throws IOException {
+        for (int frame = 0; frame < frames.length; frame++) {
+            if (framePages[frame] >= 0) {
+                writeBack(frame);
+            }
+        }
+        channel.force(false);
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+
+    long writes() {
+        return writes;
+    }
+}
@@ -0,0 +1,138 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// the PersistentIntMap class would map non-negative int keys to values without ever changing a map that was handed out
+// it is a 32-way trie over the key bits, with every node storing only its used slots next to a bitmap of them;
+// put() and remove() copy the at most seven nodes on the path to the key and share all the rest with the old map,
+// so keeping an old version around costs nothing until it is changed, and readers never need a lock
+// values come out in key order
+final class PersistentIntMap<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // 7 levels of 5 bits cover every non-negative int
+    private static final int TOP_SHIFT = 30;
+    private static final PersistentIntMap<Object> EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private static final class Node {
+        private final int bitmap;
+        // children below the last level, values on it
+        private final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // get the value of a key, or null
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Node node = root;
+        for (int shift = TOP_SHIFT; node != null; shift -= BITS) {
+            int bit = 1 << ((key >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) {
+                return (V) slot;
+            }
+            node = (Node) slot;
+        }
+        return null;
+    }
+
+    // get a map with the key set to the value
+    PersistentIntMap<V> put(int key, V value) {
+        if (key < 0 || value == null) {
+            throw new IllegalArgumentException("Keys must not be negative and values must not be null.");
+        }
+        int newSize = get(key) == null ? size + 1 : size;
+        return new PersistentIntMap<>(put(root, TOP_SHIFT, key, value), newSize);
+    }
+
+    // get a map without the key
+    PersistentIntMap<V> remove(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentIntMap<>(remove(root, TOP_SHIFT, key), size - 1);
+    }
+
+    // get every value in key order
+    List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        collect(root, TOP_SHIFT, values);
+        return values;
+    }
+
+    private static Node put(Node node, int shift, int key, Object value) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        int bitmap = node == null ? 0 : node.bitmap;
+        Object[] slots = node == null ? new Object[0] : node.slots;
+        int position = Integer.bitCount(bitmap & (bit - 1));
+        if ((bitmap & bit) != 0) {
+            Object copy = shift == 0 ? value : put((Node) slots[position], shift - BITS, key, value);
+            Object[] changed = slots.clone();
+            changed[position] = copy;
+            return new Node(bitmap, changed);
+        }
+        Object[] grown = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, grown, 0, position);
+        grown[position] = shift == 0 ? value : put(null, shift - BITS, key, value);
+        System.arraycopy(slots, position, grown, position + 1, slots.length - position);
+        return new Node(bitmap | bit, grown);
+    }
+
+    // the key is known to be in the map; returns null when the node becomes empty
+    private static Node remove(Node node, int shift, int key) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        int position = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = shift == 0 ? null : remove((Node) node.slots[position], shift - BITS, key);
+        if (child != null) {
+            Object[] changed = node.slots.clone();
+            changed[position] = child;
+            return new Node(node.bitmap, changed);
+        }
+        if (node.slots.length == 1) {
+            return null;
+        }
+        Object[] shrunk = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, shrunk, 0, position);
+        System.arraycopy(node.slots, position + 1, shrunk, position, shrunk.length - position);
+        return new Node(node.bitmap & ~bit, shrunk);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void collect(Node node, int shift, List<V> values) {
+        if (node == null) {
+            return;
+        }
+        for (Object slot : node.slots) {
+            if (shift == 0) {
+                values.add((V) slot);
+            } else {
+                collect((Node) slot, shift - BITS, values);
+            }
+        }
+    }
+}
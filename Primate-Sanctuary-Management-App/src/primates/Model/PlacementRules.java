@@ -0,0 +1,188 @@
+package primates.Model;
+
+import java.util.Arrays;
+
+// the PlacementRules class would decide whether a primate may join the residents of an enclosure,
+// beyond the species and capacity checks every enclosure makes
+// the rules cover age bands that must be kept apart, how far apart weights and sizes may be, how many different favorite foods
+// one enclosure may need, and the share of each sex; each rule is compiled into a small table when the rules are created,
+// so a decision is a handful of table lookups against the enclosure's running totals (EnclosureProfile),
+// however many primates live there
+// rules are immutable: every with* method returns new rules, so one set can be shared by any number of threads
+public final class PlacementRules {
+    private static final int BUCKETS = EnclosureProfile.BUCKETS;
+    private static final int FOOD_MASKS = 1 << Primate.Food.values().length;
+    private static final int ALL_FOODS = FOOD_MASKS - 1;
+    // no rules beyond species and capacity
+    public static final PlacementRules NONE = new PlacementRules();
+
+    // per age bucket, the mask of age buckets it must not share an enclosure with
+    private final int[] ageConflicts;
+    // per weight or size bucket, the mask of buckets too far away from it
+    private final int[] weightConflicts;
+    private final int[] sizeConflicts;
+    // per mask of foods already eaten in an enclosure, the mask of foods a newcomer may prefer
+    private final int[] allowedFoods;
+    // per sex: the highest share in percent, and how many may always live together regardless of the share
+    private final int[] sexPercent;
+    private final int[] sexExempt;
+
+    private PlacementRules() {
+        this(new int[BUCKETS], new int[BUCKETS], new int[BUCKETS], foodTable(FOOD_MASKS),
+                filled(Primate.Sex.values().length, 100), new int[Primate.Sex.values().length]);
+    }
+
+    private PlacementRules(int[] ageConflicts, int[] weightConflicts, int[] sizeConflicts, int[] allowedFoods, int[] sexPercent, int[] sexExempt) {
+        this.ageConflicts = ageConflicts;
+        this.weightConflicts = weightConflicts;
+        this.sizeConflicts = sizeConflicts;
+        this.allowedFoods = allowedFoods;
+        this.sexPercent = sexPercent;
+        this.sexExempt = sexExempt;
+    }
+
+    // get rules under which primates aged [fromAge, toAge] never share an enclosure with primates aged [otherFromAge, otherToAge]
+    // ages of 31 years and more count as 31; e.g. withSeparatedAges(0, 1, 12, 31) keeps infants away from old primates
+    public PlacementRules withSeparatedAges(int fromAge, int toAge, int otherFromAge, int otherToAge) {
+        if (fromAge < 0 || otherFromAge < 0 || fromAge > toAge || otherFromAge > otherToAge) {
+            throw new IllegalArgumentException("Age bands must not be negative or empty.");
+        }
+        int band = bandMask(fromAge, toAge);
+        int other = bandMask(otherFromAge, otherToAge);
+        if ((band & other) != 0) {
+            throw new IllegalArgumentException("Separated age bands must not overlap.");
+        }
+        int[] conflicts = ageConflicts.clone();
+        for (int age = 0; age < BUCKETS; age++) {
+            if ((band & (1 << age)) != 0) {
+                conflicts[age] |= other;
+            }
+            if ((other & (1 << age)) != 0) {
+                conflicts[age] |= band;
+            }
+        }
+        return new PlacementRules(conflicts, weightConflicts, sizeConflicts, allowedFoods, sexPercent, sexExempt);
+    }
+
+    // get rules under which the weights in one enclosure span at most the given number of power-of-two classes beyond the first:
+    // class k holds the weights 2^k to 2^(k+1) - 1, so a spread of 1 lets 10 live with 4 to 31, but not with 32
+    public PlacementRules withWeightSpread(int classes) {
+        return new PlacementRules(ageConflicts, spreadTable(classes), sizeConflicts, allowedFoods, sexPercent, sexExempt);
+    }
+
+    // get rules under which the sizes in one enclosure span at most the given number of power-of-two classes, as for weights
+    public PlacementRules withSizeSpread(int classes) {
+        return new PlacementRules(ageConflicts, weightConflicts, spreadTable(classes), allowedFoods, sexPercent, sexExempt);
+    }
+
+    // get rules under which the residents of one enclosure have at most the given number of different favorite foods
+    public PlacementRules withMaxFoods(int foods) {
+        if (foods <= 0) {
+            throw new IllegalArgumentException("An enclosure must allow at least one food.");
+        }
+        return new PlacementRules(ageConflicts, weightConflicts, sizeConflicts, foodTable(foods), sexPercent, sexExempt);
+    }
+
+    // get rules under which at most the given percentage of an enclosure's residents are of one sex,
+    // once more than exempt of them live there; e.g. withMaxShare(MALE, 34, 1) allows one male in any group, more only in a third
+    public PlacementRules withMaxShare(Primate.Sex sex, int percent, int exempt) {
+        if (sex == null) {
+            throw new IllegalArgumentException("Primate sex is not valid.");
+        }
+        if (percent < 0 || percent > 100 || exempt < 0) {
+            throw new IllegalArgumentException("The share must be between 0 and 100 percent and the exempt count must not be negative.");
+        }
+        int[] percents = sexPercent.clone();
+        int[] exempts = sexExempt.clone();
+        percents[sex.ordinal()] = percent;
+        exempts[sex.ordinal()] = exempt;
+        return new PlacementRules(ageConflicts, weightConflicts, sizeConflicts, allowedFoods, percents, exempts);
+    }
+
+    // check whether a primate may join an enclosure now, as far as these rules and the enclosure's species and capacity go
+    // returns ACCEPTED, WRONG_ENCLOSURE, ENCLOSURE_FULL or INCOMPATIBLE_GROUP
+    public Outcome check(Enclosure enclosure, Primate primate) {
+        enclosure.lock.lock();
+        try {
+            if (primate.getSpecies() != enclosure.getPrimateType()) {
+                return Outcome.WRONG_ENCLOSURE;
+            }
+            if (enclosure.primates.size() >= enclosure.capacity) {
+                return Outcome.ENCLOSURE_FULL;
+            }
+            return check(enclosure.profile, primate);
+        } finally {
+            enclosure.lock.unlock();
+        }
+    }
+
+    // helper function to decide whether a primate fits in with residents described by a profile
+    Outcome check(EnclosureProfile profile, Primate primate) {
+        if ((profile.ageMask & ageConflicts[EnclosureProfile.ageBucket(primate.getAge())]) != 0
+                || (profile.weightMask & weightConflicts[EnclosureProfile.octave(primate.getWeight())]) != 0
+                || (profile.sizeMask & sizeConflicts[EnclosureProfile.octave(primate.getSize())]) != 0
+                || (allowedFoods[profile.foodMask] & (1 << primate.getFood().ordinal())) == 0) {
+            return Outcome.INCOMPATIBLE_GROUP;
+        }
+        int sex = primate.getSex().ordinal();
+        int same = profile.sexes[sex] + 1;
+        if (same > sexExempt[sex] && same * 100L > (long) sexPercent[sex] * (profile.count + 1)) {
+            return Outcome.INCOMPATIBLE_GROUP;
+        }
+        return Outcome.ACCEPTED;
+    }
+
+    // helper function to get how many of a primate's profile buckets would be new to an enclosure; fewer means a closer match
+    static int widening(EnclosureProfile profile, Primate primate) {
+        return missing(profile.ageMask, EnclosureProfile.ageBucket(primate.getAge()))
+                + missing(profile.weightMask, EnclosureProfile.octave(primate.getWeight()))
+                + missing(profile.sizeMask, EnclosureProfile.octave(primate.getSize()))
+                + missing(profile.foodMask, primate.getFood().ordinal());
+    }
+
+    // helper function to get 1 if a bucket's bit is not set in a mask, else 0
+    private static int missing(int mask, int bucket) {
+        return ((mask >>> bucket) & 1) ^ 1;
+    }
+
+    // helper function to get the bucket mask of an age band
+    private static int bandMask(int from, int to) {
+        int mask = 0;
+        for (int age = EnclosureProfile.ageBucket(from); age <= EnclosureProfile.ageBucket(to); age++) {
+            mask |= 1 << age;
+        }
+        return mask;
+    }
+
+    // helper function to compile a spread rule: every bucket conflicts with the buckets more than the spread away
+    private static int[] spreadTable(int classes) {
+        if (classes < 0) {
+            throw new IllegalArgumentException("The spread must not be negative.");
+        }
+        int[] conflicts = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int other = 0; other < BUCKETS; other++) {
+                if (Math.abs(bucket - other) > classes) {
+                    conflicts[bucket] |= 1 << other;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    // helper function to compile the food rule: any food while fewer than the maximum are eaten, otherwise only those
+    private static int[] foodTable(int foods) {
+        int[] allowed = new int[FOOD_MASKS];
+        for (int mask = 0; mask < FOOD_MASKS; mask++) {
+            allowed[mask] = Integer.bitCount(mask) < foods ? ALL_FOODS : mask;
+        }
+        return allowed;
+    }
+
+    // helper function to create an array with every element set to a value
+    private static int[] filled(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+}
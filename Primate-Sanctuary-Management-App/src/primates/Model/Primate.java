@@ -10,7 +10,11 @@ public class Primate {
     public enum Food {EGGS, FRUITS, INSECTS, LEAVES, NUTS, SEEDS, TREE_SAP}
 
     // declare all the variables needed
-    String name;
+    // the name is kept as an ID into the shared name dictionary (-1 for no name)
+    // a name the dictionary does not know yet is only added once a housing takes the primate in (see internName),
+    // so rejected intakes never grow the dictionary; until then the name waits here
+    int nameId;
+    String pendingName;
     Species species;
     Sex sex;
     int size;
@@ -19,10 +23,18 @@ public class Primate {
     Food food;
     boolean isolated;
     boolean medicated;
+    // whether the primate still has to wait out its quarantine before it can leave isolation
+    // written under the quarantine wheel's lock, read without it by every placement check, hence volatile
+    volatile boolean quarantined;
+    // the sanctuary-wide ID, assigned when the primate is first taken in (-1 until then)
+    int id = -1;
+    // the sanctuary's queue of primates still to be written to its store: 1 while queued, and the next queued primate
+    volatile int saveQueued;
+    Primate nextUnsaved;
 
     // constructor
     public Primate(String name, Species species, Sex sex, int size, int weight, int age, Food food){
-        this.name = name;
+        setName(name);
         this.species = species;
         this.sex = sex;
         this.size = size;
@@ -33,8 +45,30 @@ public class Primate {
         this.medicated = false;
     }
 
+    // constructor for an empty primate that PrimateArena fills in later
+    Primate() {
+        this.nameId = -1;
+    }
+
+    // helper function to fill in an arena primate
+    void fill(String name, Species species, Sex sex, int size, int weight, int age, Food food) {
+        setName(name);
+        this.species = species;
+        this.sex = sex;
+        this.size = size;
+        this.weight = weight;
+        this.age = age;
+        this.food = food;
+    }
+
     // "get" methods to return most info regarding a primate
-    public String getName(){return name;}
+    public int getId(){return id;}
+
+    public String getName(){return nameId < 0 ? pendingName : NameDictionary.SHARED.decode(nameId);}
+
+    // get the ID of the primate's name; primates share an ID exactly when their names are equal
+    // -1 while a new name waits for the primate to be taken into a housing
+    public int getNameId(){return nameId;}
 
     public Species getSpecies(){return species;}
 
@@ -56,6 +90,9 @@ public class Primate {
 
 
 
+    // helper function to check whether the primate's quarantine is still running
+    public boolean isQuarantined(){return quarantined;}
+
     // helper function to update a primate's isolation record
     public void setIsolated() {
         this.isolated = true;
@@ -68,7 +105,28 @@ public class Primate {
 
     // helper function to return the Primate's detail
     public String getDetails() {
-        return String.format("%s - %d - %s - %s - %s - %s",
-                name, age, species, sex, food, medicated ? "Medicated" : "Not Medicated");
+        StringBuilder details = new StringBuilder(64);
+        appendName(details).append(" - ").append(age).append(" - ").append(species).append(" - ").append(sex)
+                .append(" - ").append(food).append(" - ").append(medicated ? "Medicated" : "Not Medicated");
+        return details.toString();
+    }
+
+    // helper function to write the primate's name into a builder without decoding it into its own String
+    StringBuilder appendName(StringBuilder out) {
+        return nameId < 0 ? out.append(pendingName) : NameDictionary.SHARED.appendTo(nameId, out);
+    }
+
+    // helper function to add a waiting name to the shared dictionary; housings call it when they take the primate in
+    void internName() {
+        if (pendingName != null) {
+            nameId = NameDictionary.SHARED.intern(pendingName);
+            pendingName = null;
+        }
+    }
+
+    // helper function to set the name: a known name becomes its ID right away, a new one waits for internName
+    private void setName(String name) {
+        nameId = name == null ? -1 : NameDictionary.SHARED.lookup(name);
+        pendingName = nameId < 0 ? name : null;
     }
 }
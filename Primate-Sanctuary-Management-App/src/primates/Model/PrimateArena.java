@@ -0,0 +1,52 @@
+package primates.Model;
+
+// the PrimateArena class would hand out primate objects that were all created up front, e.g. before a bulk load
+// Sanctuary.intake fills in a primate from the arena instead of creating one, so taking in a primate allocates nothing
+// once the arena is used up, new primates are simply created as usual
+public class PrimateArena {
+    private final Primate[] slots;
+    private int next;
+    private Primate last;
+
+    // constructor that creates all primate objects at once
+    public PrimateArena(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The arena capacity cannot be negative.");
+        }
+        slots = new Primate[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Primate();
+        }
+    }
+
+    // get the number of primate objects not handed out yet
+    public int remaining() {
+        return slots.length - next;
+    }
+
+    // get the primate most recently taken in through this arena, or null if none was
+    public Primate last() {
+        return last;
+    }
+
+    // helper function to hand out the next unused primate object
+    Primate take() {
+        Primate primate = next < slots.length ? slots[next] : new Primate();
+        if (next < slots.length) {
+            slots[next++] = null;
+        }
+        return primate;
+    }
+
+    // helper function to take back a primate that was not taken in after all, so the next intake reuses it
+    void giveBack(Primate primate) {
+        if (next > 0 && slots[next - 1] == null) {
+            slots[--next] = primate;
+        }
+    }
+
+    // helper function to remember the primate that was taken in
+    void accepted(Primate primate) {
+        last = primate;
+    }
+}
@@ -0,0 +1,268 @@
+package primates.Model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// the PrimateHistory class would keep an append-only record of every movement and treatment in the sanctuary
+// events are stored column by column in growable primitive arrays (time, primate ID, type, location),
+// and every event also points back to the previous event of the same primate, which chains each primate's events together
+// from time to time the current location of every primate is saved as a checkpoint,
+// so a question about the past only replays the events after the nearest earlier checkpoint
+public class PrimateHistory {
+    // the kinds of events that can happen to a primate
+    public enum EventType {ENTERED_ISOLATION, MEDICATED, LEFT_ISOLATION, ENTERED_ENCLOSURE, LEFT_ENCLOSURE}
+
+    // one recorded event, as returned by the timeline query
+    public static final class Event {
+        private final long time;
+        private final EventType type;
+        private final int location;
+
+        Event(long time, EventType type, int location) {
+            this.time = time;
+            this.type = type;
+            this.location = location;
+        }
+
+        // the event time in epoch milliseconds
+        public long getTime() {return time;}
+
+        public EventType getType() {return type;}
+
+        // the isolation cage index or the enclosure's species ordinal, depending on the event type
+        public int getLocation() {return location;}
+    }
+
+    // never take checkpoints more often than this many events
+    static final int MIN_CHECKPOINT_INTERVAL = 4096;
+    private static final EventType[] TYPES = EventType.values();
+    // location codes: 0 is outside the sanctuary, positive is an isolation cage, negative is an enclosure
+    private static final byte NOWHERE = 0;
+
+    // event columns
+    private long[] times = new long[1024];
+    private int[] primateIds = new int[1024];
+    private byte[] types = new byte[1024];
+    private byte[] locations = new byte[1024];
+    private int[] previous = new int[1024];
+    private int size;
+
+    // per primate: the index of its latest event and its current location code
+    private int[] lastEvent = new int[256];
+    private byte[] currentLocation = new byte[256];
+    private int primateCount;
+
+    // checkpoints: the event index they were taken at and a copy of all location codes at that moment
+    private final List<byte[]> checkpointStates = new ArrayList<>();
+    private int[] checkpointEvents = new int[16];
+    private int checkpointCount;
+
+    // constructor
+    public PrimateHistory() {
+        Arrays.fill(lastEvent, -1);
+    }
+
+    // record a new event for a primate; times never go backwards, so the time column stays sorted
+    synchronized void record(long time, int primateId, EventType type, int location) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            primateIds = Arrays.copyOf(primateIds, capacity);
+            types = Arrays.copyOf(types, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+        }
+        if (primateId >= primateCount) {
+            growPrimates(primateId + 1);
+        }
+        times[size] = size > 0 ? Math.max(time, times[size - 1]) : time;
+        primateIds[size] = primateId;
+        types[size] = (byte) type.ordinal();
+        locations[size] = (byte) location;
+        previous[size] = lastEvent[primateId];
+        lastEvent[primateId] = size;
+        currentLocation[primateId] = apply(currentLocation[primateId], type, location);
+        size++;
+
+        // checkpoint once enough events have passed to pay for copying every location
+        int sinceLast = size - (checkpointCount == 0 ? 0 : checkpointEvents[checkpointCount - 1]);
+        if (sinceLast >= Math.max(MIN_CHECKPOINT_INTERVAL, primateCount)) {
+            checkpoint();
+        }
+    }
+
+    // make room for the given number of events and primates up front
+    synchronized void reserve(int events, int primates) {
+        if (events > times.length) {
+            times = Arrays.copyOf(times, events);
+            primateIds = Arrays.copyOf(primateIds, events);
+            types = Arrays.copyOf(types, events);
+            locations = Arrays.copyOf(locations, events);
+            previous = Arrays.copyOf(previous, events);
+        }
+        if (primates > lastEvent.length) {
+            int old = lastEvent.length;
+            lastEvent = Arrays.copyOf(lastEvent, primates);
+            Arrays.fill(lastEvent, old, primates, -1);
+            currentLocation = Arrays.copyOf(currentLocation, primates);
+        }
+    }
+
+    // helper function to make room for more primates
+    private void growPrimates(int count) {
+        if (count > lastEvent.length) {
+            int capacity = Math.max(count, lastEvent.length * 2);
+            int old = lastEvent.length;
+            lastEvent = Arrays.copyOf(lastEvent, capacity);
+            Arrays.fill(lastEvent, old, capacity, -1);
+            currentLocation = Arrays.copyOf(currentLocation, capacity);
+        }
+        primateCount = count;
+    }
+
+    // helper function to save the current location of every primate
+    private void checkpoint() {
+        if (checkpointCount == checkpointEvents.length) {
+            checkpointEvents = Arrays.copyOf(checkpointEvents, checkpointCount * 2);
+        }
+        checkpointEvents[checkpointCount++] = size;
+        checkpointStates.add(Arrays.copyOf(currentLocation, primateCount));
+    }
+
+    // helper function to compute where a primate is after an event
+    private static byte apply(byte current, EventType type, int location) {
+        switch (type) {
+            case ENTERED_ISOLATION:
+                return (byte) (location + 1);
+            case ENTERED_ENCLOSURE:
+                return (byte) -(location + 1);
+            case LEFT_ISOLATION:
+            case LEFT_ENCLOSURE:
+                return NOWHERE;
+            default:
+                return current;
+        }
+    }
+
+    // get the current location code of a primate: 0 outside the sanctuary, cage + 1 in isolation, -(species + 1) in an enclosure
+    synchronized byte locationCode(int primateId) {
+        return primateId >= 0 && primateId < primateCount ? currentLocation[primateId] : NOWHERE;
+    }
+
+    // get the total number of recorded events
+    public synchronized int size() {
+        return size;
+    }
+
+    // get all events of one primate, oldest first
+    public synchronized List<Event> timeline(int primateId) {
+        List<Event> events = new ArrayList<>();
+        if (primateId < 0 || primateId >= primateCount) {
+            return events;
+        }
+        for (int i = lastEvent[primateId]; i >= 0; i = previous[i]) {
+            events.add(new Event(times[i], TYPES[types[i]], locations[i]));
+        }
+        Collections.reverse(events);
+        return events;
+    }
+
+    // get the IDs of every primate that lived in the enclosure of a species at the given time
+    public synchronized int[] enclosureResidentsAt(Primate.Species species, long time) {
+        byte[] state = stateAt(time);
+        byte code = (byte) -(species.ordinal() + 1);
+        int[] residents = new int[state.length];
+        int count = 0;
+        for (int id = 0; id < state.length; id++) {
+            if (state[id] == code) {
+                residents[count++] = id;
+            }
+        }
+        return Arrays.copyOf(residents, count);
+    }
+
+    // get the IDs of every primate that was in an isolation cage at the given time
+    public synchronized int[] isolationResidentsAt(long time) {
+        byte[] state = stateAt(time);
+        int[] residents = new int[state.length];
+        int count = 0;
+        for (int id = 0; id < state.length; id++) {
+            if (state[id] > 0) {
+                residents[count++] = id;
+            }
+        }
+        return Arrays.copyOf(residents, count);
+    }
+
+    // helper function to rebuild all locations at a point in time from the nearest earlier checkpoint
+    private byte[] stateAt(long time) {
+        int end = firstEventAfter(time);
+        // find the last checkpoint that does not include events after the requested time
+        int low = 0;
+        int high = checkpointCount - 1;
+        int checkpoint = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkpointEvents[mid] <= end) {
+                checkpoint = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int start = checkpoint < 0 ? 0 : checkpointEvents[checkpoint];
+        byte[] state = checkpoint < 0 ? new byte[primateCount] : Arrays.copyOf(checkpointStates.get(checkpoint), primateCount);
+        for (int i = start; i < end; i++) {
+            int id = primateIds[i];
+            state[id] = apply(state[id], TYPES[types[i]], locations[i]);
+        }
+        return state;
+    }
+
+    // helper function to find the index of the first event later than the given time
+    private int firstEventAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // get the median time primates spent in isolation, for every stay that ended in [from, to)
+    // returns null if no stay ended in that period
+    public synchronized Duration medianIsolationDuration(long from, long to) {
+        int start = firstEventAfter(from - 1);
+        int end = firstEventAfter(to - 1);
+        long[] durations = new long[Math.max(0, end - start)];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (types[i] != EventType.LEFT_ISOLATION.ordinal()) {
+                continue;
+            }
+            // walk back along this primate's own events to the matching intake
+            for (int j = previous[i]; j >= 0; j = previous[j]) {
+                if (types[j] == EventType.ENTERED_ISOLATION.ordinal()) {
+                    durations[count++] = times[i] - times[j];
+                    break;
+                }
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Arrays.sort(durations, 0, count);
+        long median = count % 2 == 1
+                ? durations[count / 2]
+                : (durations[count / 2 - 1] + durations[count / 2]) / 2;
+        return Duration.ofMillis(median);
+    }
+}
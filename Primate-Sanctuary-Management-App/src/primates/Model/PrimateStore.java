@@ -0,0 +1,47 @@
+package primates.Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// the PrimateStore interface would describe where the sanctuary keeps every primate it has ever taken in,
+// together with the housing each one currently lives in
+// a store used on its own hands out consecutive IDs from add(); a sanctuary gives out the IDs itself and only calls update(),
+// after every change, with the primate's location code (0 outside the sanctuary, cage + 1 in isolation,
+// -(species + 1) in an enclosure, as in PrimateHistory)
+// the sanctuary itself keeps working on the live primates in its housings and never reads them back from the store;
+// the store is the registry that can be queried by location and outlives the process
+// InMemoryPrimateStore keeps the primate objects themselves; BTreePrimateStore keeps them in a file,
+// so get() hands out a fresh copy rebuilt from disk
+public interface PrimateStore extends Closeable {
+    // store a new primate, give it the next ID and return that ID
+    int add(Primate primate);
+
+    // get the primate with the given ID, or null if there is none
+    Primate get(int id);
+
+    // save the current state and location code of a primate that has an ID, storing it first if the store does not have it yet
+    void update(Primate primate, int location);
+
+    // get the location code of a primate, or 0 if it is unknown
+    int getLocation(int id);
+
+    // get up to limit primates living at a location code, in ID order, starting at the given ID
+    List<Primate> residents(int location, int fromId, int limit);
+
+    // get the number of stored primates
+    int size();
+
+    // make room for the given number of primates in total
+    default void reserve(int primates) {
+    }
+
+    // write everything that is only buffered so far
+    default void flush() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+        flush();
+    }
+}
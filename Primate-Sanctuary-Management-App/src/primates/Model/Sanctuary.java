@@ -1,6 +1,20 @@
 package primates.Model;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,11 +25,81 @@ import java.util.List;
 public class Sanctuary {
     // set up an empty array for isolations and a hashmap for sanctuary
     private Isolation[] isolations;
-    private Map<String, Enclosure> enclosures;
+    // enclosure groups indexed by species ordinal; the first enclosure of a group is the species' main enclosure
+    // the outer array is replaced as a whole when an enclosure is added, so readers never see a half-built group
+    private volatile Enclosure[][] enclosures;
+    // the number of primates living in the enclosures of each species
+    private final AtomicIntegerArray enclosurePopulation = new AtomicIntegerArray(SPECIES.length);
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+    // every primate ever taken in, indexed by its ID: the live objects, for lookups by ID
+    // it only grows under registryLock; setting an element needs no lock (see register)
+    private volatile AtomicReferenceArray<Primate> registry = new AtomicReferenceArray<>(256);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Object registryLock = new Object();
+    // the persistent registry with the housing every primate lives in; it is written behind the events:
+    // every event queues the primate (at most once until it is written, linked through the primate itself, so nothing is allocated),
+    // and whichever thread finds no save running writes the queue out, so the store's lock is never waited for on an event
+    private final PrimateStore store;
+    private final AtomicReference<Primate> unsaved = new AtomicReference<>();
+    private final AtomicInteger saving = new AtomicInteger();
+    private static final AtomicIntegerFieldUpdater<Primate> SAVE_QUEUED = AtomicIntegerFieldUpdater.newUpdater(Primate.class, "saveQueued");
+    // the audit history of every movement and treatment
+    private final PrimateHistory history = new PrimateHistory();
+    // weight, size and treatment records over time
+    private final HealthRecords health = new HealthRecords();
+    private final Clock clock;
+    // the change feed for external subscribers
+    private final SanctuaryEventPublisher events = new SanctuaryEventPublisher();
+    // quarantine deadlines of newly taken in primates, in one-second ticks
+    private final TimingWheel<Primate> quarantine;
+    private volatile Duration quarantinePeriod = Duration.ZERO;
+    private volatile boolean autoMoveAfterQuarantine;
+    private static final long QUARANTINE_TICK_MILLIS = 1000;
+    // the scheduled task that advances the wheel every tick, so quarantines also end while nobody calls in (null if none)
+    private final AtomicReference<ScheduledFuture<?>> quarantineTicker = new AtomicReference<>();
+    // how often moveToEnclosure retries a transaction that lost a race
+    private static final int MAX_TRANSACTION_ATTEMPTS = 16;
+    // sorted indexes behind the paged listings: the census, the isolation cages, then one per species' enclosures
+    // they are only built when the first page is asked for, so a sanctuary nobody pages through never pays for them
+    private volatile ListingIndex[] listings;
+    private final Object listingLock = new Object();
+    private static final int CENSUS_LISTING = 0;
+    private static final int ISOLATION_LISTING = 1;
+    private static final int ENCLOSURE_LISTINGS = 2;
+    // the latest census snapshot; like the listings, snapshots are only kept up to date once the first one was asked for
+    // every change publishes the next version with a compare-and-set, so events never wait for each other;
+    // a batch (a move, a committed transaction) holds the census lock and only collects its primates,
+    // which are applied in one version when it ends, so readers never see a primate halfway through a move
+    private final AtomicReference<CensusSnapshot> census = new AtomicReference<>();
+    private volatile boolean censusEnabled;
+    private final ReentrantLock censusLock = new ReentrantLock();
+    private final List<Primate> censusBatch = new ArrayList<>();
+    private int censusBatchDepth;
+    // the rules a primate must pass to join the residents of an enclosure
+    private volatile PlacementRules placementRules = PlacementRules.NONE;
 
 
     // Sanctuary constructor
     public Sanctuary() {
+        this(Clock.systemUTC());
+    }
+
+    // Sanctuary constructor with the clock used to timestamp the history
+    public Sanctuary(Clock clock) {
+        this(clock, new InMemoryPrimateStore());
+    }
+
+    // Sanctuary constructor with the clock used to timestamp the history and the store that keeps every primate,
+    // e.g. a BTreePrimateStore to keep the registry in a file; the store must be empty
+    // the sanctuary still keeps every living primate on the heap, the store is a copy it writes behind every change
+    public Sanctuary(Clock clock, PrimateStore store) {
+        if (store.size() > 0) {
+            throw new IllegalArgumentException("A sanctuary must start with an empty primate store.");
+        }
+        this.clock = clock;
+        this.store = store;
+        this.quarantine = new TimingWheel<>(QUARANTINE_TICK_MILLIS, clock.millis());
+
         // Initialize the isolations array before using it
         isolations = new Isolation[20];
 
@@ -24,198 +108,791 @@ public class Sanctuary {
             isolations[i] = new Isolation(Integer.toString(i));
         }
 
-        // Initialize the enclosures map before using it
-        enclosures = new HashMap<>();
-
-        // Set up 8 enclosure spaces for each primate species
-        String[] species = {"DRILL", "GUEREZA", "HOWLER", "MANGABEY", "SAKI", "SPIDER", "SQUIRREL", "TAMARIN"};
-        for (String specie : species) {
-            Primate.Species primateSpecies = Primate.Species.valueOf(specie);
-            enclosures.put(specie, new Enclosure(specie, Integer.MAX_VALUE, primateSpecies));
+        // Set up 8 enclosure spaces, one for each primate species
+        enclosures = new Enclosure[SPECIES.length][];
+        for (Primate.Species species : SPECIES) {
+            enclosures[species.ordinal()] = new Enclosure[] {new Enclosure(species.toString(), Integer.MAX_VALUE, species)};
         }
     }
 
     // method to add a new primate to the sanctuary by first putting it in isolation
     public Primate addPrimateToSanctuary(String name, Primate.Species species, Primate.Sex sex, int size, int weight, int age, Primate.Food food) {
+        Outcome invalid = validate(name, species, sex, size, weight, age, food);
+        if (invalid != Outcome.ACCEPTED) {
+            throw invalid.toException();
+        }
+
+        Primate newPrimate = new Primate(name, species, sex, size, weight, age, food);
+        addPrimateToISO(newPrimate);
+        return newPrimate;
+    }
+
+    // fast intake path for bulk loads: the same rules as addPrimateToSanctuary, but rejections are returned instead of thrown
+    // and the primate is filled in from the arena, so an accepted intake allocates nothing once names and capacity are in place
+    // the accepted primate is available from arena.last()
+    public Outcome intake(PrimateArena arena, String name, Primate.Species species, Primate.Sex sex, int size, int weight, int age, Primate.Food food) {
+        Outcome invalid = validate(name, species, sex, size, weight, age, food);
+        if (invalid != Outcome.ACCEPTED) {
+            return invalid;
+        }
+
+        Primate newPrimate = arena.take();
+        newPrimate.fill(name, species, sex, size, weight, age, food);
+        int cage = placeInIsolation(newPrimate);
+        if (cage < 0) {
+            arena.giveBack(newPrimate);
+            return Outcome.ISOLATION_FULL;
+        }
+        admitToIsolation(newPrimate, cage);
+        arena.accepted(newPrimate);
+        return Outcome.ACCEPTED;
+    }
+
+    // make room for the given number of primates in total, so a bulk load does not grow the registry and history step by step
+    public void reserve(int primates) {
+        if (primates > 0) {
+            growRegistry(primates - 1);
+        }
+        store.reserve(primates);
+        // every primate passes through at least isolation, medical care and the move to its enclosure
+        history.reserve((int) Math.min(Integer.MAX_VALUE - 8, primates * 4L), primates);
+    }
+
+    // helper method to check the details of a new primate without allocating anything
+    private static Outcome validate(String name, Primate.Species species, Primate.Sex sex, int size, int weight, int age, Primate.Food food) {
         // Validate the primate's name
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Primate name cannot be empty.");
+        if (name == null || isBlank(name)) {
+            return Outcome.INVALID_NAME;
         }
 
         // Validate the primate's species
         if (species == null) {
-            throw new IllegalArgumentException("Primate species is not valid.");
+            return Outcome.INVALID_SPECIES;
         }
 
         // Validate the primate's sex
         if (sex == null) {
-            throw new IllegalArgumentException("Primate sex is not valid.");
+            return Outcome.INVALID_SEX;
         }
 
         // Validate the primate's size, weight, and age
         if (size <= 0 || weight <= 0 || age <= 0) {
-            throw new IllegalArgumentException("Primate size, weight, and age must be greater than zero.");
+            return Outcome.INVALID_MEASUREMENTS;
         }
 
         // Validate the primate's food preference
         if (food == null) {
-            throw new IllegalArgumentException("Primate food preference is not valid.");
+            return Outcome.INVALID_FOOD;
         }
+        return Outcome.ACCEPTED;
+    }
 
-        Primate newPrimate = new Primate(name, species, sex, size, weight, age, food);
-        addPrimateToISO(newPrimate);
-        return newPrimate;
+    // helper method to check whether a name holds nothing but the characters trim() removes, without creating the trimmed String
+    private static boolean isBlank(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 
     // provide medical care for a primate
     public void medicalCare(Primate primate){
         primate.medicate();
+        recordEvent(primate, PrimateHistory.EventType.MEDICATED, 0);
+        health.recordTreatment(primate.getSpecies(), clock.millis());
+        publish(SanctuaryEvent.Type.MEDICATED, primate, null);
     }
 
-    // add primates to isolation
-    public void addPrimateToISO(Primate primate){
-        // iterate the Isolations array to locate an empty isolation
-        boolean added = false;
-        for (Isolation isolation : isolations) {
-            if (isolation.getPrimates().size() < isolation.getCapacity()) {
-                isolation.addPrimate(primate);
-                added = true;
-                break;
+    // record a new weight or size measurement of a primate in the sanctuary, which also becomes its current value
+    // the intake values stay on the primate; its health record starts with the first measurement taken here
+    public void recordMeasurement(Primate primate, HealthRecords.Measure measure, int value) {
+        if (measure == HealthRecords.Measure.TREATMENT) {
+            throw new IllegalArgumentException("Treatments are recorded by medical care.");
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException("Primate size, weight, and age must be greater than zero.");
+        }
+        if (primate.id < 0) {
+            throw new IllegalArgumentException(Outcome.NOT_IN_SANCTUARY.getMessage());
+        }
+        // the species' enclosures stay locked while the value changes (in group order, which is their locking order),
+        // so a primate living in one of them is counted there again with its new value
+        // every move in or out of an enclosure is recorded before the enclosure is unlocked, so under these locks
+        // the history location code tells whether the primate lives in the group; only a group of several enclosures is searched
+        Primate.Species species = primate.getSpecies();
+        Enclosure[] group = enclosures[species.ordinal()];
+        for (Enclosure enclosure : group) {
+            enclosure.lock.lock();
+        }
+        try {
+            Enclosure home = null;
+            if (history.locationCode(primate.id) == -(species.ordinal() + 1)) {
+                home = group.length == 1 ? group[0] : residentEnclosure(group, primate);
+            }
+            if (home != null) {
+                home.account(primate, -1);
+            }
+            if (measure == HealthRecords.Measure.WEIGHT) {
+                primate.weight = value;
+            } else {
+                primate.size = value;
+            }
+            if (home != null) {
+                home.account(primate, 1);
+                // a transaction that planned with the old value must not commit
+                home.version++;
+            }
+        } finally {
+            for (int i = group.length - 1; i >= 0; i--) {
+                group[i].lock.unlock();
+            }
+        }
+        saveToStore(primate);
+        updateCensus(primate);
+        health.record(primate.id, primate.getSpecies(), measure, clock.millis(), value);
+    }
+
+    // helper method to find the enclosure of a group a primate lives in; the group must be locked
+    private static Enclosure residentEnclosure(Enclosure[] group, Primate primate) {
+        for (Enclosure enclosure : group) {
+            if (enclosure.primates.contains(primate)) {
+                return enclosure;
             }
         }
+        return null;
+    }
 
+    // get the weekly trend of a measure over every primate of a species during the given period up to now,
+    // e.g. getHealthTrend(Primate.Species.DRILL, HealthRecords.Measure.WEIGHT, Duration.ofDays(90))
+    public HealthRecords.Trend getHealthTrend(Primate.Species species, HealthRecords.Measure measure, Duration period) {
+        long now = clock.millis();
+        return health.trend(species, measure, now - period.toMillis(), now + 1);
+    }
+
+    // get the health records of the sanctuary
+    public HealthRecords getHealthRecords() {
+        return health;
+    }
+
+    // add primates to isolation
+    public void addPrimateToISO(Primate primate){
         // if the add fail, raise an IllegalStateException
-        if (!added) {
-            throw new IllegalStateException("No available isolation space.");
+        Outcome outcome = tryAddPrimateToISO(primate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
+
+    // add primates to isolation, reporting a full isolation instead of throwing
+    public Outcome tryAddPrimateToISO(Primate primate) {
+        int cage = placeInIsolation(primate);
+        if (cage < 0) {
+            return Outcome.ISOLATION_FULL;
         }
+        admitToIsolation(primate, cage);
+        return Outcome.ACCEPTED;
+    }
+
+    // add a new primate to the sanctuary, reporting rejections instead of throwing
+    public Outcome tryAddPrimateToSanctuary(String name, Primate.Species species, Primate.Sex sex, int size, int weight, int age, Primate.Food food) {
+        Outcome invalid = validate(name, species, sex, size, weight, age, food);
+        if (invalid != Outcome.ACCEPTED) {
+            return invalid;
+        }
+        return tryAddPrimateToISO(new Primate(name, species, sex, size, weight, age, food));
+    }
+
+    // helper method to put a primate into the first empty isolation cage; returns the cage index, or -1 if all are taken
+    private int placeInIsolation(Primate primate) {
+        // iterate the Isolations array to locate an empty isolation; cages are checked in place, nothing is copied
+        for (int i = 0; i < isolations.length; i++) {
+            if (isolations[i].addPrimate(primate)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
+    // helper method to update the records of a primate that just entered an isolation cage
+    private void admitToIsolation(Primate primate, int cage) {
         // Update the primate's isolation status if it was not already isolated
-        if (!primate.isolatedBefore()) {
+        boolean intake = !primate.isolatedBefore();
+        if (intake) {
             primate.setIsolated();
+            startQuarantine(primate);
         }
+        recordEvent(primate, PrimateHistory.EventType.ENTERED_ISOLATION, cage);
+        publish(intake ? SanctuaryEvent.Type.INTAKE : SanctuaryEvent.Type.MOVED, primate, isolations[cage]);
     }
 
 
     // remove primate from isolation
     public void removePrimateFromISO(Primate primate){
+        Outcome outcome = tryRemovePrimateFromISO(primate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
+
+    // remove primate from isolation, reporting why it cannot leave instead of throwing
+    public Outcome tryRemovePrimateFromISO(Primate primate) {
         // Check whether the target primate is in the isolations array
-        for (Isolation isolation : isolations) {
+        for (int i = 0; i < isolations.length; i++) {
             // Check if the primate is in the current isolation unit
-            if (isolation.getPrimates().contains(primate)) {
-                if (primate.medicatedBefore()){
-                    isolation.removePrimate(primate);
-                    return;
-                } else {
-                    throw new IllegalArgumentException("This primate has not been medicated yet.");
+            if (isolations[i].contains(primate)) {
+                if (!primate.medicatedBefore()) {
+                    return Outcome.NOT_MEDICATED;
                 }
+                advanceQuarantine();
+                if (primate.quarantined) {
+                    return Outcome.QUARANTINE_ACTIVE;
+                }
+                if (!isolations[i].removePrimate(primate)) {
+                    // it left the cage while we were looking
+                    break;
+                }
+                recordEvent(primate, PrimateHistory.EventType.LEFT_ISOLATION, i);
+                publish(SanctuaryEvent.Type.REMOVED, primate, isolations[i]);
+                return Outcome.ACCEPTED;
             }
         }
 
-        // If the loop completes without finding and removing the primate, throw an exception
-        throw new IllegalArgumentException("The target primate is not found in any isolation units.");
+        // If the loop completes without finding and removing the primate, report it
+        return Outcome.NOT_IN_ISOLATION;
     }
 
 
     // add primates to enclosures
     public void addPrimateToENC(Primate primate){
-        // if the primate has not been isolated/medicated, throw an IllegalArgumentException
-        if (!primate.isolatedBefore()) throw new IllegalArgumentException("This primate has not been isolated yet.");
-        if (!primate.medicatedBefore()) throw new IllegalArgumentException("This primate has not been medicated yet.");
+        // if the primate has not been isolated/medicated or its enclosure is full, throw an IllegalArgumentException
+        Outcome outcome = tryAddPrimateToENC(primate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
 
-        // get the correct enclosure based on the primate's species
-        String speciesString = primate.getSpecies().toString();
-        Enclosure targetEnclosure = enclosures.get(speciesString);
-        // if the target enclosure does not exist, throw an IllegalArgumentException
-        if (targetEnclosure == null) {
-            throw new IllegalArgumentException("No enclosure found for species: " + speciesString);
+    // add primates to enclosures, reporting why the primate cannot enter instead of throwing
+    public Outcome tryAddPrimateToENC(Primate primate) {
+        if (!primate.isolatedBefore()) return Outcome.NOT_ISOLATED;
+        if (!primate.medicatedBefore()) return Outcome.NOT_MEDICATED;
+        advanceQuarantine();
+        if (primate.quarantined) return Outcome.QUARANTINE_ACTIVE;
+        // advancing may have ended its quarantine and moved it on already
+        if (history.locationCode(primate.id) < 0) return Outcome.ALREADY_IN_ENCLOSURE;
+
+        // add the primate to the first enclosure of its species that has room and whose residents it may join
+        PlacementRules rules = placementRules;
+        Outcome outcome = Outcome.ENCLOSURE_FULL;
+        for (Enclosure targetEnclosure : enclosures[primate.getSpecies().ordinal()]) {
+            Outcome added;
+            // the history is written before the enclosure is unlocked, so it always agrees with the residents (see recordMeasurement)
+            targetEnclosure.lock.lock();
+            try {
+                added = targetEnclosure.tryAdd(primate, rules);
+                if (added.isAccepted()) {
+                    enclosurePopulation.incrementAndGet(primate.getSpecies().ordinal());
+                    recordEvent(primate, PrimateHistory.EventType.ENTERED_ENCLOSURE, primate.getSpecies().ordinal());
+                }
+            } finally {
+                targetEnclosure.lock.unlock();
+            }
+            if (added.isAccepted()) {
+                publish(SanctuaryEvent.Type.MOVED, primate, targetEnclosure);
+                return Outcome.ACCEPTED;
+            }
+            if (added == Outcome.INCOMPATIBLE_GROUP) {
+                outcome = added;
+            }
+        }
+        // there was room somewhere, but not under the placement rules
+        return outcome;
+    }
+
+    // move a primate from its isolation cage to its enclosure in one all-or-nothing step
+    // if the move is rejected, the primate stays in its isolation cage
+    public void moveToEnclosure(Primate primate) {
+        Outcome outcome = tryMoveToEnclosure(primate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
+
+    // move a primate from its isolation cage to its enclosure, reporting a rejection instead of throwing
+    // a move that keeps losing races to other changes is reported as CONFLICT
+    public Outcome tryMoveToEnclosure(Primate primate) {
+        Outcome outcome = Outcome.CONFLICT;
+        for (int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS && outcome == Outcome.CONFLICT; attempt++) {
+            SanctuaryTransaction transaction = beginTransaction();
+            outcome = transaction.tryMoveToEnclosure(primate);
+            if (outcome.isAccepted()) {
+                // another change may touch the same housings before the commit; then prepare the move again
+                outcome = transaction.tryCommit();
+            }
+        }
+        return outcome;
+    }
+
+    // move a whole cohort of treated primates from their isolation cages into enclosures, as far as the placement rules allow
+    // the places are planned for the cohort as a whole (see CohortPlanner), so more primates find one than when they are moved
+    // one by one in arrival order; the planned moves are committed as one transaction, which is planned again if it loses a race
+    // returns the outcome for every primate, in cohort order: ACCEPTED, the reason it stays in isolation, or CONFLICT
+    public Map<Primate, Outcome> placeCohort(Collection<Primate> cohort) {
+        advanceQuarantine();
+        Map<Primate, Outcome> outcomes = new LinkedHashMap<>();
+        List<Primate> eligible = new ArrayList<>();
+        for (Primate primate : cohort) {
+            if (primate == null) {
+                throw new IllegalArgumentException("A cohort cannot contain a missing primate.");
+            }
+            if (!outcomes.containsKey(primate)) {
+                Outcome outcome = eligibleForEnclosure(primate);
+                outcomes.put(primate, outcome);
+                if (outcome.isAccepted()) {
+                    eligible.add(primate);
+                }
+            }
+        }
+
+        List<Primate> staged = new ArrayList<>();
+        Outcome committed = Outcome.CONFLICT;
+        for (int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS && committed == Outcome.CONFLICT; attempt++) {
+            staged.clear();
+            SanctuaryTransaction transaction = beginTransaction();
+            for (Primate.Species species : SPECIES) {
+                stageCohort(transaction, species, eligible, outcomes, staged);
+            }
+            committed = staged.isEmpty() ? Outcome.ACCEPTED : transaction.tryCommit();
         }
-        // if the target enclosure is full, c
-        if (targetEnclosure.getPrimates().size() == targetEnclosure.getCapacity()) {
-            throw new IllegalArgumentException("The enclosure for this primate is currently full.");
+        for (Primate primate : staged) {
+            outcomes.put(primate, committed);
         }
+        return outcomes;
+    }
 
-        // otherwise, add the primate to its enclosure
-        targetEnclosure.addPrimate(primate);
+    // helper method to check whether a primate may leave isolation for an enclosure, as tryAddPrimateToENC does
+    private Outcome eligibleForEnclosure(Primate primate) {
+        if (!primate.isolatedBefore()) return Outcome.NOT_ISOLATED;
+        if (!primate.medicatedBefore()) return Outcome.NOT_MEDICATED;
+        if (primate.quarantined) return Outcome.QUARANTINE_ACTIVE;
+        if (!isPrimateInIsolation(primate)) return Outcome.NOT_IN_ISOLATION;
+        return Outcome.ACCEPTED;
+    }
+
+    // helper method to plan the primates of one species from a cohort and stage their moves
+    // every enclosure's version is taken before its profile is copied, so a change after that makes the commit a CONFLICT
+    private void stageCohort(SanctuaryTransaction transaction, Primate.Species species, List<Primate> eligible,
+                             Map<Primate, Outcome> outcomes, List<Primate> staged) {
+        List<Primate> members = new ArrayList<>();
+        for (Primate primate : eligible) {
+            if (primate.getSpecies() == species) {
+                members.add(primate);
+            }
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+        Enclosure[] group = enclosures[species.ordinal()];
+        EnclosureProfile[] profiles = new EnclosureProfile[group.length];
+        int[] room = new int[group.length];
+        boolean anyRoom = false;
+        for (int e = 0; e < group.length; e++) {
+            transaction.observe(group[e]);
+            group[e].lock.lock();
+            try {
+                profiles[e] = group[e].profile.copy();
+                room[e] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, (long) group[e].capacity - group[e].primates.size()));
+            } finally {
+                group[e].lock.unlock();
+            }
+            anyRoom |= room[e] > 0;
+        }
+
+        // the moves are staged in the planned order, since the commit checks the arrivals one by one in staging order
+        int[] order = new int[members.size()];
+        int[] plan = CohortPlanner.plan(members, profiles, room, placementRules, order);
+        for (int i = 0; i < members.size(); i++) {
+            if (plan[i] < 0) {
+                outcomes.put(members.get(i), anyRoom ? Outcome.INCOMPATIBLE_GROUP : Outcome.ENCLOSURE_FULL);
+            }
+        }
+        for (int i = 0; i < order.length && order[i] >= 0; i++) {
+            Primate primate = members.get(order[i]);
+            Outcome outcome = transaction.tryMove(primate, group[plan[order[i]]]);
+            if (outcome.isAccepted()) {
+                staged.add(primate);
+            }
+            outcomes.put(primate, outcome);
+        }
+    }
+
+    // start a transaction that moves several primates between housings at once
+    public SanctuaryTransaction beginTransaction() {
+        // quarantines that ended by now must not hold the transaction up
+        advanceQuarantine();
+        return new SanctuaryTransaction(this);
+    }
+
+    // set the minimum time a newly taken in primate spends in isolation; zero (the default) means no quarantine
+    // the period applies to primates taken in from now on
+    public void setQuarantinePeriod(Duration period) {
+        if (period == null || period.isNegative()) {
+            throw new IllegalArgumentException("The quarantine period cannot be negative.");
+        }
+        quarantinePeriod = period;
+    }
+
+    // get the minimum time a newly taken in primate spends in isolation
+    public Duration getQuarantinePeriod() {
+        return quarantinePeriod;
+    }
+
+    // choose whether a medicated primate moves to its enclosure by itself as soon as its quarantine ends
+    public void setAutoMoveAfterQuarantine(boolean autoMove) {
+        autoMoveAfterQuarantine = autoMove;
+    }
+
+    // advance the quarantine wheel on the given scheduler every tick (one second), so quarantines end and auto-moves happen
+    // on time even while nobody calls into the sanctuary; the times still come from the sanctuary's clock
+    // a second call replaces the previous ticker, and null stops it; the scheduler itself is left to the caller
+    public void setQuarantineTicker(ScheduledExecutorService scheduler) {
+        ScheduledFuture<?> ticker = scheduler == null ? null : scheduler.scheduleAtFixedRate(
+                this::tickQuarantine, QUARANTINE_TICK_MILLIS, QUARANTINE_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = quarantineTicker.getAndSet(ticker);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    // get the number of primates whose quarantine is still running
+    public int getQuarantineCount() {
+        return quarantine.size();
+    }
+
+    // end every quarantine whose deadline has passed, and move those primates on if auto-move is on
+    // expired deadlines come out of the timing wheel as one batch, so no cage is ever scanned;
+    // this runs before every check that depends on quarantine, and on every tick of the quarantine ticker if one is set
+    // returns the number of quarantines that ended
+    public int advanceQuarantine() {
+        List<Primate> released;
+        // the flags change under the wheel's lock, so a primate is flagged exactly while its timer is pending
+        synchronized (quarantine) {
+            released = quarantine.advanceTo(clock.millis());
+            for (Primate primate : released) {
+                primate.quarantined = false;
+            }
+        }
+        if (autoMoveAfterQuarantine) {
+            for (Primate primate : released) {
+                if (primate.medicatedBefore()) {
+                    // a primate that cannot move (e.g. a full enclosure) simply stays in isolation
+                    tryMoveToEnclosure(primate);
+                }
+            }
+        }
+        return released.size();
+    }
+
+    // helper method for the ticker: a failure is reported like an uncaught one, but must not end the schedule
+    private void tickQuarantine() {
+        try {
+            advanceQuarantine();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    // helper method to start the quarantine of a newly taken in primate
+    private void startQuarantine(Primate primate) {
+        long period = quarantinePeriod.toMillis();
+        if (period > 0) {
+            synchronized (quarantine) {
+                primate.quarantined = true;
+                quarantine.schedule(primate, clock.millis() + period);
+            }
+        }
     }
 
     // remove primate from enclosures
     public void removePrimateFromENC(Primate targetPrimate) {
-        for (Enclosure enclosure : enclosures.values()) {
-            if (enclosure.getPrimates().contains(targetPrimate)) {
-                // Remove the primate from the enclosure
-                enclosure.removePrimate(targetPrimate);
-                return; // Exit the method after removing the primate
+        // If the target primate can't be located, throw an exception
+        Outcome outcome = tryRemovePrimateFromENC(targetPrimate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
+
+    // remove primate from enclosures, reporting a missing primate instead of throwing
+    public Outcome tryRemovePrimateFromENC(Primate targetPrimate) {
+        // a primate can only live in an enclosure of its own species
+        for (Enclosure enclosure : enclosures[targetPrimate.getSpecies().ordinal()]) {
+            // Remove the primate from the enclosure it lives in, writing the history before the enclosure is unlocked
+            boolean removed;
+            enclosure.lock.lock();
+            try {
+                removed = enclosure.removePrimate(targetPrimate);
+                if (removed) {
+                    enclosurePopulation.decrementAndGet(targetPrimate.getSpecies().ordinal());
+                    recordEvent(targetPrimate, PrimateHistory.EventType.LEFT_ENCLOSURE, enclosure.getPrimateType().ordinal());
+                }
+            } finally {
+                enclosure.lock.unlock();
+            }
+            if (removed) {
+                publish(SanctuaryEvent.Type.REMOVED, targetPrimate, enclosure);
+                return Outcome.ACCEPTED;
             }
         }
-        // If the target primate can't be located, throw an exception
-        throw new IllegalArgumentException("The target primate has not been found in the enclosures.");
+        return Outcome.NOT_IN_ENCLOSURE;
     }
 
-    // get the enclosure list
+    // get the enclosure list, one entry per species, from the current census snapshot
     public List<String> getEnclosureList() {
-        List<String> enclosureList = new ArrayList<>();
-
-        // Iterate through each enclosure
-        for (Enclosure enclosure : enclosures.values()) {
-                StringBuilder enclosureString = new StringBuilder();
-                enclosureString.append("Enclosure for ").append(enclosure.getPrimateType()).append(":\n");
-
-                // Iterate through each primate in the enclosure
-                for (Primate primate : enclosure.getPrimates()) {
-                    String primateInfo = String.format(
-                            "Name: %s, Sex: %s, Favorite Food: %s",
-                            primate.getName(),
-                            primate.getSex(),
-                            primate.getFood()
-                    );
-                    enclosureString.append(primateInfo).append("\n");
+        return snapshot().getEnclosureList();
+    }
+
+    // get the all primate list, from the current census snapshot
+    public List<String> getAllNames() {
+        return snapshot().getAllNames();
+    }
+
+    // get a consistent, immutable view of every primate in the sanctuary as of the last change
+    // this is a volatile read, apart from the very first call, which builds the snapshot from the history;
+    // hold on to the result for as long as a report needs it, the sanctuary keeps changing without touching it
+    public CensusSnapshot snapshot() {
+        CensusSnapshot current = census.get();
+        if (current != null) {
+            return current;
+        }
+        List<HousingAbstract> housings = lockHousings();
+        try {
+            censusLock.lock();
+            try {
+                if (census.get() == null) {
+                    // enabled while no primate can move: an event recorded after that is applied on top of what we build,
+                    // and the move behind one recorded before it is already done
+                    censusEnabled = true;
+                    CensusSnapshot[] built = {CensusSnapshot.EMPTY};
+                    long now = clock.millis();
+                    forEachResident((primate, location) -> built[0] = built[0].with(primate, location, now));
+                    census.set(built[0]);
                 }
+                return census.get();
+            } finally {
+                censusLock.unlock();
+            }
+        } finally {
+            unlockHousings(housings);
+        }
+    }
+
+    // helper method to start a batch of changes that is published as one census version
+    void beginCensusBatch() {
+        censusLock.lock();
+        censusBatchDepth++;
+    }
 
-                enclosureList.add(enclosureString.toString());
+    // helper method to end a batch, publishing its primates in one version when the outermost batch ends
+    void endCensusBatch() {
+        try {
+            if (--censusBatchDepth == 0 && !censusBatch.isEmpty()) {
+                long now = clock.millis();
+                // changes published while the batch ran are kept: its primates are applied on top of the latest version
+                census.updateAndGet(current -> {
+                    CensusSnapshot next = current;
+                    for (Primate primate : censusBatch) {
+                        next = next.with(primate, history.locationCode(primate.id), now);
+                    }
+                    return next;
+                });
+                censusBatch.clear();
+            }
+        } finally {
+            censusLock.unlock();
         }
+    }
 
-        return enclosureList;
+    // helper method to bring the census up to date after a change to a primate; as for the listings,
+    // only the primate's current location and state matter, so a version built on a stale read is simply built again
+    private void updateCensus(Primate primate) {
+        if (!censusEnabled) {
+            return;
+        }
+        // the thread running a batch, and any change made while the first version is still being built, take the census lock
+        if (censusLock.isHeldByCurrentThread() || census.get() == null) {
+            censusLock.lock();
+            try {
+                if (censusBatchDepth > 0) {
+                    censusBatch.add(primate);
+                    return;
+                }
+            } finally {
+                censusLock.unlock();
+            }
+        }
+        long now = clock.millis();
+        census.updateAndGet(current -> current.with(primate, history.locationCode(primate.id), now));
     }
 
-    // get the all primate list
-    public List<String> getAllNames() {
-        // Set up an empty list to store information about all the primates
-        List<String> allPrimateDetails = new ArrayList<>();
+    // get one line of the sanctuary summary for a primate, as in getAllNames()
+    public static String getSummaryLine(Primate primate) {
+        return appendSummaryLine(new StringBuilder(64), primate).toString();
+    }
 
-        // Store the isolated primates
-        for (Isolation isolation : isolations) {
-            allPrimateDetails.addAll(getPrimateDetails(isolation.getPrimates()));
+    // get one line of an enclosure listing for a primate, as in getEnclosureList()
+    public static String getEnclosureLine(Primate primate) {
+        return primate.appendName(new StringBuilder(64).append("Name: "))
+                .append(", Sex: ").append(primate.getSex())
+                .append(", Favorite Food: ").append(primate.getFood()).toString();
+    }
+
+    // helper method to write a summary line
+    private static StringBuilder appendSummaryLine(StringBuilder detail, Primate pri) {
+        return pri.appendName(detail.append("Name: ")).append(", Age: ").append(pri.getAge())
+                .append(", Sex: ").append(pri.getSex()).append(", Food: ").append(pri.getFood());
+    }
+
+    // get a page of every primate in the sanctuary
+    // pass null as the cursor for the first page, then the page's next cursor for the page after it
+    // each call costs O(log n + pageSize); primates that arrive or leave between calls are simply seen or not, never repeated
+    public Page<Primate> getCensusPage(Page.Order order, int pageSize, String cursor) {
+        return page(CENSUS_LISTING, order, pageSize, cursor);
+    }
+
+    // get a page of the primates in the isolation cages
+    public Page<Primate> getIsolationPage(Page.Order order, int pageSize, String cursor) {
+        return page(ISOLATION_LISTING, order, pageSize, cursor);
+    }
+
+    // get a page of the primates in the enclosures of a species
+    public Page<Primate> getEnclosurePage(Primate.Species species, Page.Order order, int pageSize, String cursor) {
+        if (species == null) {
+            throw new IllegalArgumentException("Primate species is not valid.");
         }
+        return page(ENCLOSURE_LISTINGS + species.ordinal(), order, pageSize, cursor);
+    }
 
-        // Store the primates in enclosures
-        for (Enclosure enc : enclosures.values()) {
-            allPrimateDetails.addAll(getPrimateDetails(enc.getPrimates()));
+    // helper method to read a page of one listing
+    private Page<Primate> page(int listing, Page.Order order, int pageSize, String cursor) {
+        if (order == null) {
+            throw new IllegalArgumentException("No listing order given.");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than zero.");
+        }
+        int afterId = Page.parseCursor(order, cursor);
+        Primate after = afterId < 0 ? null : findPrimateById(afterId);
+        if (afterId >= 0 && after == null) {
+            throw new IllegalArgumentException("Invalid cursor for a listing in " + order + " order: " + cursor);
+        }
+        ListingIndex[] indexes = listings();
+        synchronized (listingLock) {
+            return indexes[listing].page(order, pageSize, after);
         }
+    }
 
-        // Sort the details list alphabetically by primate name
-        Collections.sort(allPrimateDetails);
+    // helper method to get the listing indexes, building them from the housings the first time
+    // the indexes are published before they are filled, while no primate can move and under the same lock every later change takes,
+    // so an event recorded while they are built is applied right after and nothing is missed
+    private ListingIndex[] listings() {
+        ListingIndex[] indexes = listings;
+        if (indexes != null) {
+            return indexes;
+        }
+        List<HousingAbstract> housings = lockHousings();
+        try {
+            synchronized (listingLock) {
+                if (listings == null) {
+                    ListingIndex[] building = new ListingIndex[ENCLOSURE_LISTINGS + SPECIES.length];
+                    for (int i = 0; i < building.length; i++) {
+                        building[i] = new ListingIndex();
+                    }
+                    listings = building;
+                    forEachResident((primate, location) -> placeInListings(building, primate, location));
+                }
+                return listings;
+            }
+        } finally {
+            unlockHousings(housings);
+        }
+    }
 
-        // Insert the header line at the beginning of the list
-        allPrimateDetails.add(0, "All Primates Currently in the Sanctuary (in alphabetical order):\n");
+    // helper method to bring a primate's listings up to date after an event; only the current location matters,
+    // so applying it twice or out of order is harmless
+    private void updateListings(Primate primate) {
+        ListingIndex[] indexes = listings;
+        if (indexes == null) {
+            return;
+        }
+        synchronized (listingLock) {
+            indexes[CENSUS_LISTING].remove(primate);
+            indexes[ISOLATION_LISTING].remove(primate);
+            indexes[ENCLOSURE_LISTINGS + primate.getSpecies().ordinal()].remove(primate);
+            placeInListings(indexes, primate, history.locationCode(primate.id));
+        }
+    }
 
-        return allPrimateDetails;
+    // helper method to add a primate to the listings of its history location code
+    private static void placeInListings(ListingIndex[] indexes, Primate primate, int location) {
+        if (location > 0) {
+            indexes[CENSUS_LISTING].add(primate);
+            indexes[ISOLATION_LISTING].add(primate);
+        } else if (location < 0) {
+            indexes[CENSUS_LISTING].add(primate);
+            indexes[ENCLOSURE_LISTINGS - location - 1].add(primate);
+        }
+    }
+
+    // helper method to lock every housing of the sanctuary in locking order, so no primate moves until unlockHousings()
+    // the housings must be locked before the census or listing lock, the order every committed move takes them in
+    private List<HousingAbstract> lockHousings() {
+        List<HousingAbstract> housings = new ArrayList<>(Arrays.asList(isolations));
+        housings.addAll(enclosures());
+        housings.sort(Comparator.comparingLong(h -> h.lockOrder));
+        for (HousingAbstract housing : housings) {
+            housing.lock.lock();
+        }
+        return housings;
+    }
+
+    // helper method to run an action while every housing is locked, e.g. to save the residents as they are at one moment
+    <T> T withHousingsLocked(Supplier<T> action) {
+        List<HousingAbstract> housings = lockHousings();
+        try {
+            return action.get();
+        } finally {
+            unlockHousings(housings);
+        }
     }
 
-    // helper method to get detailed information of a list of primates
-    private List<String> getPrimateDetails(List<Primate> primates) {
-        List<String> details = new ArrayList<>();
-        for (Primate pri : primates) {
-            String detail = String.format("Name: %s, Age: %d, Sex: %s, Food: %s",
-                    pri.getName(), pri.getAge(), pri.getSex(), pri.getFood());
-            details.add(detail);
+    // helper method to unlock the housings locked by lockHousings()
+    private static void unlockHousings(List<HousingAbstract> housings) {
+        for (int i = housings.size() - 1; i >= 0; i--) {
+            housings.get(i).lock.unlock();
+        }
+    }
+
+    // helper method to visit every primate living in the sanctuary with the history location code of its housing
+    // the housings must be locked; the primates are the live objects from the housings, never copies from the store
+    private void forEachResident(ObjIntConsumer<Primate> visitor) {
+        for (int cage = 0; cage < isolations.length; cage++) {
+            for (Primate primate : isolations[cage].primates) {
+                visitor.accept(primate, cage + 1);
+            }
+        }
+        for (Enclosure enclosure : enclosures()) {
+            for (Primate primate : enclosure.primates) {
+                visitor.accept(primate, -(enclosure.getPrimateType().ordinal() + 1));
+            }
         }
-        return details;
     }
 
     // Helper method to determine whether a primate is in isolation
     public boolean isPrimateInIsolation(Primate primate) {
         for (Isolation isolation : isolations) {
-            if (isolation.getPrimates().contains(primate)) {
+            if (isolation.contains(primate)) {
                 return true;
             }
         }
@@ -224,7 +901,61 @@ public class Sanctuary {
 
     // helper method to get the enclosure for a specific species
     public Enclosure getEnclosureForSpecies(Primate.Species species) {
-        return enclosures.get(species.toString());
+        return enclosures[species.ordinal()][0];
+    }
+
+    // get every enclosure of a species, the main enclosure first
+    public List<Enclosure> getEnclosureGroup(Primate.Species species) {
+        return Collections.unmodifiableList(Arrays.asList(enclosures[species.ordinal()]));
+    }
+
+    // add another enclosure for a species; primates fill a species' enclosures in the order they were added
+    public synchronized Enclosure addEnclosure(Primate.Species species, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The enclosure capacity must be greater than zero.");
+        }
+        Enclosure[][] updated = enclosures.clone();
+        Enclosure[] group = updated[species.ordinal()];
+        Enclosure added = new Enclosure(species + "-" + (group.length + 1), capacity, species);
+        group = Arrays.copyOf(group, group.length + 1);
+        group[group.length - 1] = added;
+        updated[species.ordinal()] = group;
+        enclosures = updated;
+        return added;
+    }
+
+    // set the rules a primate must pass to join the residents of an enclosure, e.g.
+    // PlacementRules.NONE.withMaxShare(Primate.Sex.MALE, 34, 1).withMaxFoods(2)
+    // they apply to every later placement; primates already living together are not moved
+    public void setPlacementRules(PlacementRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("No placement rules given.");
+        }
+        placementRules = rules;
+    }
+
+    // get the rules a primate must pass to join the residents of an enclosure
+    public PlacementRules getPlacementRules() {
+        return placementRules;
+    }
+
+    // get the number of primates living in the enclosures of a species
+    public int getEnclosurePopulation(Primate.Species species) {
+        return enclosurePopulation.get(species.ordinal());
+    }
+
+    // helper method to pick the enclosure a primate moves into: the first one of its species with room whose residents it may join,
+    // or the main one if there is none; each enclosure is checked under its own lock, but the answer is only a guess,
+    // the transaction checks it again at commit
+    Enclosure routeEnclosure(Primate primate) {
+        PlacementRules rules = placementRules;
+        Enclosure[] group = enclosures[primate.getSpecies().ordinal()];
+        for (Enclosure enclosure : group) {
+            if (rules.check(enclosure, primate).isAccepted()) {
+                return enclosure;
+            }
+        }
+        return group[0];
     }
 
     // helper method to get all the isolated primate details
@@ -236,13 +967,264 @@ public class Sanctuary {
         return isolatedPrimates;
     }
 
+    // helper method to find a primate living in one of the enclosures based on its name
+    public Primate findPrimateInEnclosures(String name) {
+        int nameId = name == null ? -1 : NameDictionary.SHARED.lookup(name);
+        if (nameId < 0) {
+            return null;
+        }
+        for (Enclosure enclosure : enclosures()) {
+            Primate primate = enclosure.findByNameId(nameId);
+            if (primate != null) {
+                return primate;
+            }
+        }
+        return null;
+    }
+
+    // helper method to find a primate based on its ID; this is the live primate whatever store the sanctuary uses
+    public Primate findPrimateById(int id) {
+        AtomicReferenceArray<Primate> primates = registry;
+        return id >= 0 && id < primates.length() ? primates.get(id) : null;
+    }
+
+    // helper method to give a primate the next ID and enter it in the registry
+    // a set that lands in an array being replaced is repeated on the replacement, so it is never lost
+    private void register(Primate primate) {
+        int id = nextId.getAndIncrement();
+        primate.id = id;
+        while (true) {
+            AtomicReferenceArray<Primate> primates = registry;
+            if (id >= primates.length()) {
+                primates = growRegistry(id);
+            }
+            primates.set(id, primate);
+            if (registry == primates) {
+                return;
+            }
+        }
+    }
+
+    // helper method to replace the registry with one that holds the given ID
+    private AtomicReferenceArray<Primate> growRegistry(int id) {
+        synchronized (registryLock) {
+            AtomicReferenceArray<Primate> primates = registry;
+            if (id < primates.length()) {
+                return primates;
+            }
+            AtomicReferenceArray<Primate> grown = new AtomicReferenceArray<>(Math.max(id + 1, primates.length() * 2));
+            for (int i = 0; i < primates.length(); i++) {
+                grown.set(i, primates.get(i));
+            }
+            registry = grown;
+            return grown;
+        }
+    }
+
+    // get the change feed of the sanctuary; subscribers are told about every intake, treatment, move and removal
+    public SanctuaryEventPublisher getEvents() {
+        return events;
+    }
+
+    // get the audit history of the sanctuary
+    public PrimateHistory getHistory() {
+        return history;
+    }
+
+    // get every primate that lived in the enclosure of a species at the given time
+    public List<Primate> getEnclosureResidentsAt(Primate.Species species, Instant time) {
+        List<Primate> residents = new ArrayList<>();
+        for (int id : history.enclosureResidentsAt(species, time.toEpochMilli())) {
+            residents.add(findPrimateById(id));
+        }
+        return residents;
+    }
+
+    // get the median time spent in isolation, for every stay that ended between the two points in time
+    // returns null if no stay ended in that period
+    public Duration getMedianIsolationDuration(Instant from, Instant to) {
+        return history.medianIsolationDuration(from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    // helper method to give a primate its ID the first time it is seen and record an event for it
+    private void recordEvent(Primate primate, PrimateHistory.EventType type, int location) {
+        if (primate.id < 0) {
+            register(primate);
+        }
+        history.record(clock.millis(), primate.id, type, location);
+        saveToStore(primate);
+        if (type != PrimateHistory.EventType.MEDICATED) {
+            updateListings(primate);
+        }
+        updateCensus(primate);
+    }
+
+    // helper method to queue a primate for the store and write the queue out unless another thread already does
+    // only one thread writes at a time and it reads the location when it writes, so a late save never overwrites a newer location;
+    // when the sanctuary is quiet, the store is up to date
+    private void saveToStore(Primate primate) {
+        // always a write, so the thread that takes the primate off the queue sees this change
+        if (SAVE_QUEUED.getAndSet(primate, 1) == 0) {
+            Primate head;
+            do {
+                head = unsaved.get();
+                primate.nextUnsaved = head;
+            } while (!unsaved.compareAndSet(head, primate));
+        }
+        if (saving.getAndIncrement() != 0) {
+            return;
+        }
+        RuntimeException failure = null;
+        int missed = 1;
+        do {
+            Primate next = unsaved.getAndSet(null);
+            while (next != null) {
+                Primate current = next;
+                next = current.nextUnsaved;
+                current.nextUnsaved = null;
+                // taken off the queue before it is read, so a change from now on queues it again
+                SAVE_QUEUED.getAndSet(current, 0);
+                try {
+                    store.update(current, history.locationCode(current.id));
+                } catch (RuntimeException e) {
+                    // keep writing the rest; the first failure is reported to this caller
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            missed = saving.addAndGet(-missed);
+        } while (missed != 0);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // get the store that keeps every primate the sanctuary has taken in
+    public PrimateStore getStore() {
+        return store;
+    }
+
+    // helper method to record a committed transaction move in the history
+    void recordMove(Primate primate, HousingAbstract from, HousingAbstract to) {
+        if (from instanceof Enclosure) {
+            enclosurePopulation.decrementAndGet(((Enclosure) from).getPrimateType().ordinal());
+        }
+        if (to instanceof Enclosure) {
+            enclosurePopulation.incrementAndGet(((Enclosure) to).getPrimateType().ordinal());
+        }
+        beginCensusBatch();
+        try {
+            recordEvent(primate, from instanceof Isolation ? PrimateHistory.EventType.LEFT_ISOLATION : PrimateHistory.EventType.LEFT_ENCLOSURE, locationOf(from));
+            recordEvent(primate, to instanceof Isolation ? PrimateHistory.EventType.ENTERED_ISOLATION : PrimateHistory.EventType.ENTERED_ENCLOSURE, locationOf(to));
+        } finally {
+            endCensusBatch();
+        }
+        publish(SanctuaryEvent.Type.MOVED, primate, to);
+    }
+
+    // helper method to tell the change-feed subscribers about a change; nothing is built while nobody listens
+    private void publish(SanctuaryEvent.Type type, Primate primate, HousingAbstract housing) {
+        if (events.hasSubscribers()) {
+            events.publish(new SanctuaryEvent(type, primate, housing == null ? null : housing.getID(), clock.millis()));
+        }
+    }
+
+    // helper method to check whether a housing is one of this sanctuary's isolation cages or enclosures
+    boolean owns(HousingAbstract housing) {
+        if (housing instanceof Enclosure) {
+            for (Enclosure enclosure : enclosures[((Enclosure) housing).getPrimateType().ordinal()]) {
+                if (enclosure == housing) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Isolation isolation : isolations) {
+            if (isolation == housing) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // helper method to get the history location of a housing: the cage index or the enclosure's species ordinal
+    private int locationOf(HousingAbstract housing) {
+        if (housing instanceof Enclosure) {
+            return ((Enclosure) housing).getPrimateType().ordinal();
+        }
+        for (int i = 0; i < isolations.length; i++) {
+            if (isolations[i] == housing) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The housing " + housing.getID() + " does not belong to this sanctuary.");
+    }
+
+    // helper method to record a primate restored from a snapshot as arriving in its cage or enclosure now
+    void recordRestored(Primate primate, boolean isolated, int location) {
+        recordEvent(primate, isolated ? PrimateHistory.EventType.ENTERED_ISOLATION : PrimateHistory.EventType.ENTERED_ENCLOSURE, location);
+    }
+
+    // helper method to get an isolation cage by its index
+    public Isolation getIsolation(int index) {
+        return isolations[index];
+    }
+
+    // helper method to get the number of isolation cages
+    int isolationCount() {
+        return isolations.length;
+    }
+
+    // helper method to get all the enclosures, in species order
+    List<Enclosure> enclosures() {
+        List<Enclosure> all = new ArrayList<>(SPECIES.length);
+        for (Enclosure[] group : enclosures) {
+            Collections.addAll(all, group);
+        }
+        return all;
+    }
+
+    // helper method to get the enclosure groups, indexed by species ordinal; the arrays must not be changed
+    Enclosure[][] enclosureGroups() {
+        return enclosures;
+    }
+
+    // helper method to refill a species' enclosures in one step, e.g. when loading a snapshot
+    // residents holds the primates of every enclosure of the group, in the group's order
+    void restoreEnclosures(Primate.Species species, List<List<Primate>> residents) {
+        Enclosure[] group = enclosures[species.ordinal()];
+        if (residents.size() != group.length) {
+            throw new IllegalStateException("Expected residents for " + group.length + " enclosures of " + species + ".");
+        }
+        int placed = 0;
+        for (int index = 0; index < group.length; index++) {
+            Enclosure enclosure = group[index];
+            List<Primate> restored = residents.get(index);
+            if (restored.size() > (long) enclosure.getCapacity() - enclosure.primates.size()) {
+                throw new IllegalStateException("The enclosure " + enclosure.getID() + " cannot hold all restored primates.");
+            }
+            for (Primate primate : restored) {
+                enclosure.primates.add(primate);
+                enclosure.account(primate, 1);
+            }
+            enclosure.version++;
+            placed += restored.size();
+        }
+        enclosurePopulation.addAndGet(species.ordinal(), placed);
+    }
+
     // helper method to find a primate based on its name
     public Primate findPrimateByName(String name) {
+        // names are compared by their dictionary IDs; a name that was never interned cannot match
+        int nameId = name == null ? -1 : NameDictionary.SHARED.lookup(name);
+        if (nameId < 0) {
+            return null;
+        }
         for (Isolation isolation : isolations) {
-            for (Primate primate : isolation.getPrimates()) {
-                if (primate.getName().equals(name)) {
-                    return primate;
-                }
+            Primate primate = isolation.findByNameId(nameId);
+            if (primate != null) {
+                return primate;
             }
         }
         return null;
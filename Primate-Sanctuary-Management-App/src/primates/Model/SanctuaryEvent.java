@@ -0,0 +1,36 @@
+package primates.Model;
+
+// the SanctuaryEvent class would describe one change in the sanctuary, as delivered to change-feed subscribers
+// events are immutable; the primate itself is passed by reference, so its current details can always be read from it
+public final class SanctuaryEvent {
+    // the kinds of changes subscribers are told about
+    public enum Type {INTAKE, MEDICATED, MOVED, REMOVED}
+
+    private final Type type;
+    private final Primate primate;
+    private final String housingID;
+    private final long time;
+
+    // constructor
+    SanctuaryEvent(Type type, Primate primate, String housingID, long time) {
+        this.type = type;
+        this.primate = primate;
+        this.housingID = housingID;
+        this.time = time;
+    }
+
+    public Type getType() {return type;}
+
+    public Primate getPrimate() {return primate;}
+
+    // the housing the primate entered (intake, moved) or left (removed); null for medical care
+    public String getHousingID() {return housingID;}
+
+    // the time of the change in epoch milliseconds
+    public long getTime() {return time;}
+
+    @Override
+    public String toString() {
+        return type + " " + primate.getName() + " @ " + housingID;
+    }
+}
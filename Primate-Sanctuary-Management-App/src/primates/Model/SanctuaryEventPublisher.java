@@ -0,0 +1,259 @@
+package primates.Model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// the SanctuaryEventPublisher class would publish every change of the sanctuary to external subscribers through java.util.concurrent.Flow
+// each subscriber gets its own bounded buffer and is served on an executor, never on the thread that changed the sanctuary
+// subscribers pull events with request(n); while a subscriber is behind, its buffer fills up instead of slowing the sanctuary down
+// when a buffer is full, a burst is merged: the new event replaces the newest waiting event of the same primate and type,
+// and only if there is none the oldest waiting event is dropped
+// every signal to a subscriber, onSubscribe and the terminal onComplete or onError included, comes from the one drain loop,
+// so a subscriber is never called from two threads at once and hears nothing before onSubscribe
+public class SanctuaryEventPublisher implements Flow.Publisher<SanctuaryEvent> {
+    // the default number of events buffered per subscriber
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final Executor executor;
+    private final int bufferSize;
+    // copy-on-write array of the current subscriptions, so publishing never takes a lock on the publisher
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // constructor using the common pool and the default buffer size
+    public SanctuaryEventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_SIZE);
+    }
+
+    // constructor with the executor that delivers events and the per-subscriber buffer size
+    public SanctuaryEventPublisher(Executor executor, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be at least 1.");
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SanctuaryEvent> subscriber) {
+        // a missing subscriber cannot be told about its error, so it is refused right here
+        Objects.requireNonNull(subscriber);
+        Subscription subscription = new Subscription(subscriber);
+        synchronized (this) {
+            Subscription[] current = subscriptions;
+            Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            subscriptions = updated;
+        }
+        subscription.signal();
+    }
+
+    // check whether anyone is listening, so callers can skip building events entirely
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    // get the number of subscribers
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    // get the number of events that replaced an older waiting event of the same primate and type
+    public long getMergedCount() {
+        return merged.get();
+    }
+
+    // get the number of events dropped because a subscriber was too far behind
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // hand an event to every subscriber; never blocks on a subscriber
+    void publish(SanctuaryEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    // tell every subscriber that no more events will come
+    public void close() {
+        Subscription[] current;
+        synchronized (this) {
+            current = subscriptions;
+            subscriptions = new Subscription[0];
+        }
+        for (Subscription subscription : current) {
+            subscription.complete();
+        }
+    }
+
+    // helper function to forget a subscription
+    private synchronized void remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    // one subscriber's buffer and demand; events are delivered by at most one drain task at a time
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super SanctuaryEvent> subscriber;
+        private final ArrayDeque<SanctuaryEvent> buffer = new ArrayDeque<>();
+        private long demand;
+        private boolean cancelled;
+        private boolean completed;
+        // the error to end the subscription with, e.g. for a bad request(n)
+        private Throwable failure;
+        // only read and written by the drain loop
+        private boolean started;
+        // number of pending drain requests; only the caller that raises it from 0 schedules a drain task
+        private final AtomicInteger work = new AtomicInteger();
+
+        Subscription(Flow.Subscriber<? super SanctuaryEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(SanctuaryEvent event) {
+            synchronized (this) {
+                if (cancelled || completed || failure != null) {
+                    return;
+                }
+                if (buffer.size() == bufferSize && !mergeInto(event)) {
+                    buffer.pollFirst();
+                    dropped.incrementAndGet();
+                    buffer.addLast(event);
+                } else if (buffer.size() < bufferSize) {
+                    buffer.addLast(event);
+                }
+            }
+            signal();
+        }
+
+        // helper function to replace the newest waiting event of the same primate and type, keeping the buffer size
+        private boolean mergeInto(SanctuaryEvent event) {
+            Iterator<SanctuaryEvent> waiting = buffer.descendingIterator();
+            while (waiting.hasNext()) {
+                SanctuaryEvent older = waiting.next();
+                if (older.getPrimate() == event.getPrimate() && older.getType() == event.getType()) {
+                    waiting.remove();
+                    buffer.addLast(event);
+                    merged.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void complete() {
+            synchronized (this) {
+                completed = true;
+            }
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = new IllegalArgumentException("request(n) needs n > 0, got " + n);
+                    }
+                    buffer.clear();
+                }
+                remove(this);
+                signal();
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            remove(this);
+        }
+
+        // helper function to make sure a drain task runs after this call
+        private void signal() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // call onSubscribe the first time, then deliver as many buffered events as the subscriber asked for,
+        // and the terminal signal once there is one
+        private void drain() {
+            int missed = 1;
+            if (!started) {
+                started = true;
+                try {
+                    subscriber.onSubscribe(this);
+                } catch (RuntimeException e) {
+                    cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+            }
+            do {
+                while (true) {
+                    SanctuaryEvent next;
+                    Throwable error;
+                    boolean finish;
+                    synchronized (this) {
+                        if (cancelled) {
+                            return;
+                        }
+                        error = failure;
+                        next = error == null && demand > 0 ? buffer.pollFirst() : null;
+                        if (next != null) {
+                            demand--;
+                        }
+                        finish = error != null || next == null && completed && buffer.isEmpty();
+                        if (finish) {
+                            cancelled = true;
+                        }
+                    }
+                    if (finish) {
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(next);
+                    } catch (RuntimeException e) {
+                        cancel();
+                        subscriber.onError(e);
+                        return;
+                    }
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package primates.Model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the SanctuarySnapshot class would save and load a whole Sanctuary in a compact binary format
+// every snapshot starts with a magic number and a format version, followed by the enclosures of every species
+// (how many there are and the capacity of each one added after the main enclosure) and a table of all the distinct primate names
+// each primate is then written as one record: its name index, enum ordinals as single bytes and varint-encoded ints,
+// plus the isolation cage, or the index of the enclosure in its species' group, it currently lives in
+// both directions stream through a fixed-size buffer on a FileChannel, so the whole sanctuary never has to sit in one byte array
+public final class SanctuarySnapshot {
+    // "PSNP" in ASCII
+    static final int MAGIC = 0x50534E50;
+    static final byte VERSION = 2;
+
+    // where a primate record lives
+    static final byte IN_ISOLATION = 0;
+    static final byte IN_ENCLOSURE = 1;
+
+    // bits of the record flag byte
+    static final byte FLAG_ISOLATED = 1;
+    static final byte FLAG_MEDICATED = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // the largest fixed part of a record: 4 varints of up to 5 bytes plus 6 single bytes
+    private static final int MAX_RECORD_SIZE = 32;
+
+    private SanctuarySnapshot() {
+    }
+
+    // write every primate of the sanctuary into the target file, replacing it if it exists
+    public static void write(Sanctuary sanctuary, Path file) throws IOException {
+        // first pass: collect the residents and build the name table
+        // the housings stay locked while they are read, so no primate moves and the file shows one moment of the sanctuary
+        List<Primate> residents = new ArrayList<>();
+        List<Integer> locations = new ArrayList<>();
+        int[] enclosureStart = new int[1];
+        Enclosure[][] groups = sanctuary.withHousingsLocked(() -> {
+            for (int cage = 0; cage < sanctuary.isolationCount(); cage++) {
+                for (Primate primate : sanctuary.getIsolation(cage).primates) {
+                    residents.add(primate);
+                    locations.add(cage);
+                }
+            }
+            enclosureStart[0] = residents.size();
+            Enclosure[][] locked = sanctuary.enclosureGroups();
+            for (Enclosure[] group : locked) {
+                for (int index = 0; index < group.length; index++) {
+                    for (Primate primate : group[index].primates) {
+                        residents.add(primate);
+                        locations.add(index);
+                    }
+                }
+            }
+            return locked;
+        });
+
+        // names are already interned, so the table maps dictionary IDs to positions in the file
+        NameDictionary dictionary = NameDictionary.SHARED;
+        int[] nameIndex = new int[dictionary.size()];
+        Arrays.fill(nameIndex, -1);
+        int[] names = new int[16];
+        int nameCount = 0;
+        for (Primate primate : residents) {
+            if (primate.nameId < 0) {
+                throw new IOException("Cannot save a primate without a name.");
+            }
+            if (nameIndex[primate.nameId] < 0) {
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, nameCount * 2);
+                }
+                nameIndex[primate.nameId] = nameCount;
+                names[nameCount++] = primate.nameId;
+            }
+        }
+
+        // second pass: stream the header, the name table and the records
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.ensure(MAX_RECORD_SIZE);
+            out.buffer.putInt(MAGIC);
+            out.buffer.put(VERSION);
+            out.putVarInt(sanctuary.isolationCount());
+            // the main enclosure of every species is created by the Sanctuary itself, only the added ones are listed
+            out.putVarInt(groups.length);
+            for (Enclosure[] group : groups) {
+                out.putVarInt(group.length);
+                for (int index = 1; index < group.length; index++) {
+                    out.putVarInt(group[index].getCapacity());
+                }
+            }
+
+            out.putVarInt(nameCount);
+            for (int i = 0; i < nameCount; i++) {
+                out.putBytes(dictionary.utf8(names[i]));
+            }
+
+            out.putVarInt(residents.size());
+            for (int i = 0; i < residents.size(); i++) {
+                Primate primate = residents.get(i);
+                out.ensure(MAX_RECORD_SIZE);
+                out.putVarInt(nameIndex[primate.nameId]);
+                out.buffer.put((byte) primate.species.ordinal());
+                out.buffer.put((byte) primate.sex.ordinal());
+                out.buffer.put((byte) primate.food.ordinal());
+                out.buffer.put((byte) ((primate.isolated ? FLAG_ISOLATED : 0) | (primate.medicated ? FLAG_MEDICATED : 0)));
+                out.putVarInt(primate.size);
+                out.putVarInt(primate.weight);
+                out.putVarInt(primate.age);
+                if (i < enclosureStart[0]) {
+                    out.buffer.put(IN_ISOLATION);
+                    out.putVarInt(locations.get(i));
+                } else {
+                    out.buffer.put(IN_ENCLOSURE);
+                    out.putVarInt(locations.get(i));
+                }
+            }
+            out.flush();
+        }
+    }
+
+    // read a snapshot file and rebuild a new sanctuary from it
+    public static Sanctuary read(Path file) throws IOException {
+        Primate.Species[] species = Primate.Species.values();
+        Primate.Sex[] sexes = Primate.Sex.values();
+        Primate.Food[] foods = Primate.Food.values();
+
+        Sanctuary sanctuary = new Sanctuary();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            in.require(5);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a sanctuary snapshot: " + file);
+            }
+            byte version = in.buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            int cages = in.getVarInt();
+            if (cages != sanctuary.isolationCount()) {
+                throw new IOException("Snapshot has " + cages + " isolation cages, expected " + sanctuary.isolationCount());
+            }
+            if (in.getVarInt() != species.length) {
+                throw new IOException("Snapshot has a different number of species: " + file);
+            }
+            // free places per enclosure, counted down while the records are decoded
+            long[][] room = new long[species.length][];
+            List<List<List<Primate>>> residents = new ArrayList<>(species.length);
+            for (Primate.Species s : species) {
+                int enclosures = in.getVarInt();
+                if (enclosures < 1) {
+                    throw new IOException("Corrupt enclosure table in snapshot: " + s);
+                }
+                room[s.ordinal()] = new long[enclosures];
+                room[s.ordinal()][0] = sanctuary.getEnclosureForSpecies(s).getCapacity();
+                List<List<Primate>> group = new ArrayList<>(enclosures);
+                group.add(new ArrayList<>());
+                for (int index = 1; index < enclosures; index++) {
+                    int capacity = in.getVarInt();
+                    if (capacity <= 0) {
+                        throw new IOException("Invalid enclosure capacity in snapshot: " + capacity);
+                    }
+                    sanctuary.addEnclosure(s, capacity);
+                    room[s.ordinal()][index] = capacity;
+                    group.add(new ArrayList<>());
+                }
+                residents.add(group);
+            }
+
+            // intern every distinct name once; the records then only carry the resulting IDs
+            int[] nameIds = new int[in.getCount("names")];
+            for (int i = 0; i < nameIds.length; i++) {
+                nameIds[i] = NameDictionary.SHARED.intern(in.getString());
+            }
+
+            // decode the records sequentially, grouping enclosure residents by their enclosure
+            int count = in.getCount("primate records");
+            for (int i = 0; i < count; i++) {
+                in.require(MAX_RECORD_SIZE);
+                int nameId = nameIds[in.getVarInt()];
+                Primate primate = new Primate(null, species[in.buffer.get()], sexes[in.buffer.get()], 0, 0, 0, foods[in.buffer.get()]);
+                primate.nameId = nameId;
+                byte flags = in.buffer.get();
+                primate.isolated = (flags & FLAG_ISOLATED) != 0;
+                primate.medicated = (flags & FLAG_MEDICATED) != 0;
+                primate.size = in.getVarInt();
+                primate.weight = in.getVarInt();
+                primate.age = in.getVarInt();
+                byte where = in.buffer.get();
+                int slot = in.getVarInt();
+                if (where == IN_ISOLATION) {
+                    if (slot < 0 || slot >= cages || !sanctuary.getIsolation(slot).addPrimate(primate)) {
+                        throw new IOException("Invalid isolation cage in snapshot: " + slot);
+                    }
+                } else if (where == IN_ENCLOSURE && slot >= 0 && slot < room[primate.species.ordinal()].length) {
+                    if (room[primate.species.ordinal()][slot]-- <= 0) {
+                        throw new IOException("Too many primates for enclosure " + slot + " of " + primate.species + " in snapshot.");
+                    }
+                    residents.get(primate.species.ordinal()).get(slot).add(primate);
+                } else {
+                    throw new IOException("Corrupt snapshot record: " + i);
+                }
+                sanctuary.recordRestored(primate, where == IN_ISOLATION, where == IN_ISOLATION ? slot : primate.species.ordinal());
+            }
+
+            // the enclosures are independent of each other, so they are rebuilt in parallel
+            Arrays.stream(species).parallel()
+                    .forEach(s -> sanctuary.restoreEnclosures(s, residents.get(s.ordinal())));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Truncated or corrupt snapshot: " + file, e);
+        }
+        return sanctuary;
+    }
+
+    // helper class to buffer writes and flush them to the channel
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // make sure at least n bytes fit into the buffer
+        void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void putVarInt(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            putVarInt(bytes.length);
+            if (bytes.length <= buffer.capacity()) {
+                ensure(bytes.length);
+                buffer.put(bytes);
+            } else {
+                // very long names bypass the buffer
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            }
+        }
+    }
+
+    // helper class to read buffered data from the channel
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        // try to have at least n bytes buffered; fewer are only left at the end of the file
+        void require(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n && channel.read(buffer) > 0) {
+                // keep reading until enough bytes are buffered or the file ends
+            }
+            buffer.flip();
+        }
+
+        int getVarInt() throws IOException {
+            require(5);
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in snapshot.");
+        }
+
+        // read a count of items that take at least one byte each, so it cannot be negative or exceed the rest of the file
+        int getCount(String what) throws IOException {
+            int count = getVarInt();
+            if (count < 0 || count > buffer.remaining() + channel.size() - channel.position()) {
+                throw new IOException("Corrupt number of " + what + " in snapshot: " + count);
+            }
+            return count;
+        }
+
+        String getString() throws IOException {
+            int length = getCount("name bytes");
+            byte[] bytes = new byte[length];
+            int read = 0;
+            while (read < length) {
+                require(Math.min(length - read, BUFFER_SIZE));
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("Truncated name in snapshot.");
+                }
+                int chunk = Math.min(length - read, buffer.remaining());
+                buffer.get(bytes, read, chunk);
+                read += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
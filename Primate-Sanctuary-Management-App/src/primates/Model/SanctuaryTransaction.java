@@ -0,0 +1,239 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// the SanctuaryTransaction class would move any number of primates between housings as one all-or-nothing step
+// moves are first collected; for every housing involved, the version it had when it was first looked at is remembered
+// commit() then locks only those housings (always in the same global order), checks that none of them changed in the meantime,
+// checks every rule for the whole set of moves, and only then applies all of them
+// transactions over different housings never wait for each other; a transaction that lost a race throws a ConcurrentModificationException
+// and changes nothing, so it can simply be prepared again and retried
+// the try* methods report rejections and lost races as an Outcome instead of throwing
+public class SanctuaryTransaction {
+    private final Sanctuary sanctuary;
+    private final List<Move> moves = new ArrayList<>();
+    // the version of every housing involved, as seen when it was first read
+    private final Map<HousingAbstract, Long> readVersions = new IdentityHashMap<>();
+    private boolean finished;
+
+    // one staged move
+    private static final class Move {
+        private final Primate primate;
+        private final HousingAbstract from;
+        private final HousingAbstract to;
+
+        Move(Primate primate, HousingAbstract from, HousingAbstract to) {
+            this.primate = primate;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // transactions are started by Sanctuary.beginTransaction()
+    SanctuaryTransaction(Sanctuary sanctuary) {
+        this.sanctuary = sanctuary;
+    }
+
+    // stage moving a primate from its isolation cage to the enclosure for its species
+    public SanctuaryTransaction moveToEnclosure(Primate primate) {
+        Outcome outcome = tryMoveToEnclosure(primate);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+        return this;
+    }
+
+    // stage moving a primate from its isolation cage to the enclosure for its species, or report why it cannot be staged
+    public Outcome tryMoveToEnclosure(Primate primate) {
+        Outcome outcome = tryMove(primate, sanctuary.routeEnclosure(primate));
+        if (outcome.isAccepted() && !(moves.get(moves.size() - 1).from instanceof Isolation)) {
+            moves.remove(moves.size() - 1);
+            return Outcome.NOT_IN_ISOLATION;
+        }
+        return outcome;
+    }
+
+    // stage moving a primate from wherever it currently lives to the target housing
+    public SanctuaryTransaction move(Primate primate, HousingAbstract target) {
+        Outcome outcome = tryMove(primate, target);
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+        return this;
+    }
+
+    // stage moving a primate from wherever it currently lives to the target housing, or report why it cannot be staged
+    // misusing the transaction itself (staging after commit, no target, moving a primate twice) still throws
+    public Outcome tryMove(Primate primate, HousingAbstract target) {
+        if (finished) {
+            throw new IllegalStateException("This transaction has already been committed.");
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("No target housing given.");
+        }
+        for (Move move : moves) {
+            if (move.primate == primate) {
+                throw new IllegalArgumentException("A primate can only be moved once per transaction.");
+            }
+        }
+        // checked before anything is staged: commit could not record a move into another sanctuary's housing
+        if (!sanctuary.owns(target)) {
+            return Outcome.FOREIGN_HOUSING;
+        }
+        observe(target);
+        HousingAbstract source = locate(primate);
+        if (source == null) {
+            return Outcome.NOT_IN_SANCTUARY;
+        }
+        moves.add(new Move(primate, source, target));
+        return Outcome.ACCEPTED;
+    }
+
+    // helper function to remember a housing's version the first time the transaction reads it
+    // the version is read before the housing's contents, so any later change is noticed at commit
+    void observe(HousingAbstract housing) {
+        readVersions.putIfAbsent(housing, housing.version);
+    }
+
+    // helper function to find the housing a primate lives in, remembering the version it had before it was searched
+    private HousingAbstract locate(Primate primate) {
+        List<HousingAbstract> candidates = new ArrayList<>(sanctuary.isolationCount() + 2);
+        for (int i = 0; i < sanctuary.isolationCount(); i++) {
+            candidates.add(sanctuary.getIsolation(i));
+        }
+        candidates.addAll(sanctuary.getEnclosureGroup(primate.getSpecies()));
+        for (HousingAbstract housing : candidates) {
+            long version = housing.version;
+            if (housing.contains(primate)) {
+                readVersions.putIfAbsent(housing, version);
+                return housing;
+            }
+        }
+        return null;
+    }
+
+    // get the number of staged moves
+    public int size() {
+        return moves.size();
+    }
+
+    // apply every staged move, or none of them
+    // throws IllegalArgumentException/IllegalStateException if a move breaks the sanctuary's rules,
+    // and ConcurrentModificationException if another change touched one of the housings since it was read
+    public void commit() {
+        Outcome outcome = tryCommit();
+        if (!outcome.isAccepted()) {
+            throw outcome.toException();
+        }
+    }
+
+    // apply every staged move, or none of them, and report the outcome; a lost race is reported as CONFLICT
+    public Outcome tryCommit() {
+        if (finished) {
+            throw new IllegalStateException("This transaction has already been committed.");
+        }
+        finished = true;
+
+        List<HousingAbstract> housings = new ArrayList<>(readVersions.keySet());
+        housings.sort(Comparator.comparingLong(h -> h.lockOrder));
+        int locked = 0;
+        try {
+            for (HousingAbstract housing : housings) {
+                housing.lock.lock();
+                locked++;
+            }
+            for (HousingAbstract housing : housings) {
+                if (housing.version != readVersions.get(housing)) {
+                    return Outcome.CONFLICT;
+                }
+            }
+            Outcome outcome = validate();
+            if (!outcome.isAccepted()) {
+                return outcome;
+            }
+
+            // all removals first, so primates can swap places between full housings
+            for (Move move : moves) {
+                move.from.primates.remove(move.primate);
+                move.from.account(move.primate, -1);
+            }
+            for (Move move : moves) {
+                move.to.primates.add(move.primate);
+                move.to.account(move.primate, 1);
+            }
+            for (HousingAbstract housing : housings) {
+                housing.version++;
+            }
+            // the whole transaction becomes one census version
+            sanctuary.beginCensusBatch();
+            try {
+                for (Move move : moves) {
+                    sanctuary.recordMove(move.primate, move.from, move.to);
+                }
+            } finally {
+                sanctuary.endCensusBatch();
+            }
+            return Outcome.ACCEPTED;
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                housings.get(i).lock.unlock();
+            }
+        }
+    }
+
+    // helper function to check the rules for the whole set of moves while all housings are locked
+    private Outcome validate() {
+        Map<HousingAbstract, Integer> occupancy = new IdentityHashMap<>();
+        for (Move move : moves) {
+            occupancy.merge(move.from, -1, Integer::sum);
+            occupancy.merge(move.to, 1, Integer::sum);
+            if (move.to instanceof Enclosure) {
+                Enclosure enclosure = (Enclosure) move.to;
+                if (enclosure.getPrimateType() != move.primate.getSpecies()) {
+                    return Outcome.WRONG_ENCLOSURE;
+                }
+                if (!move.primate.isolatedBefore()) {
+                    return Outcome.NOT_ISOLATED;
+                }
+                if (!move.primate.medicatedBefore()) {
+                    return Outcome.NOT_MEDICATED;
+                }
+                if (move.primate.quarantined) {
+                    return Outcome.QUARANTINE_ACTIVE;
+                }
+            }
+        }
+        for (Map.Entry<HousingAbstract, Integer> change : occupancy.entrySet()) {
+            HousingAbstract housing = change.getKey();
+            if ((long) housing.primates.size() + change.getValue() > housing.capacity) {
+                return housing instanceof Isolation ? Outcome.ISOLATION_FULL : Outcome.ENCLOSURE_FULL;
+            }
+        }
+
+        // the placement rules see every enclosure as it will be: the leaving primates gone, then the arriving ones one by one
+        PlacementRules rules = sanctuary.getPlacementRules();
+        if (rules != PlacementRules.NONE) {
+            Map<HousingAbstract, EnclosureProfile> profiles = new IdentityHashMap<>();
+            for (Move move : moves) {
+                if (move.from instanceof Enclosure) {
+                    profiles.computeIfAbsent(move.from, housing -> ((Enclosure) housing).profile.copy()).account(move.primate, -1);
+                }
+            }
+            for (Move move : moves) {
+                if (move.to instanceof Enclosure) {
+                    EnclosureProfile profile = profiles.computeIfAbsent(move.to, housing -> ((Enclosure) housing).profile.copy());
+                    Outcome outcome = rules.check(profile, move.primate);
+                    if (!outcome.isAccepted()) {
+                        return outcome;
+                    }
+                    profile.account(move.primate, 1);
+                }
+            }
+        }
+        return Outcome.ACCEPTED;
+    }
+}
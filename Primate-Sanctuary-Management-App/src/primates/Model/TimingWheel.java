@@ -0,0 +1,196 @@
+package primates.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// the TimingWheel class would keep any number of timers and hand out the expired ones without ever looking at the others
+// time is counted in ticks; the wheel has 5 levels of 64 slots, level 0 holds one tick per slot and every higher level
+// holds slots 64 times as wide as the level below, so 64^5 ticks ahead can be scheduled directly
+// every slot is a doubly linked list of timers, so scheduling and cancelling a timer are O(1);
+// when time reaches the start of a wider slot its timers are spread over the finer level below ("cascading"),
+// and a stretch of time without timers in the finer levels is skipped in one step
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 5;
+
+    // one scheduled timer; it is also the node of its slot's list
+    public static final class Timer<T> {
+        private final T item;
+        private final long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T getItem() {return item;}
+
+        // check whether the timer has neither expired nor been cancelled
+        public boolean isPending() {return level >= 0;}
+    }
+
+    private final long tickMillis;
+    private final Timer<T>[][] slots;
+    private final int[] levelCounts = new int[LEVELS];
+    // the last tick that has been processed
+    private long current;
+    private int size;
+
+    // constructor with the length of a tick and the time the wheel starts at
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("The tick length must be positive.");
+        }
+        this.tickMillis = tickMillis;
+        this.current = Math.floorDiv(startMillis, tickMillis);
+        this.slots = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+    }
+
+    // schedule an item to expire at the given time; it expires with the first tick at or after that time
+    public synchronized Timer<T> schedule(T item, long deadlineMillis) {
+        // round up, so a timer never expires early
+        Timer<T> timer = new Timer<>(item, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        place(timer, Math.max(timer.deadline, current + 1));
+        size++;
+        return timer;
+    }
+
+    // cancel a pending timer; returns false if it already expired or was cancelled
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (!timer.isPending()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    // get the number of pending timers
+    public synchronized int size() {
+        return size;
+    }
+
+    // move the wheel forward to the given time and return the items of every timer that expired on the way, tick by tick
+    public synchronized List<T> advanceTo(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        List<T> expired = Collections.emptyList();
+        while (current < target) {
+            if (size == 0) {
+                current = target;
+                break;
+            }
+            // nothing can happen before the next slot boundary of the finest level that holds timers
+            int level = 0;
+            while (levelCounts[level] == 0) {
+                level++;
+            }
+            long width = 1L << (SLOT_BITS * level);
+            long boundary = (current / width + 1) * width;
+            if (level == 0) {
+                // find the next occupied slot before the boundary
+                long tick = current + 1;
+                while (tick < boundary && slots[0][(int) (tick & (SLOTS - 1))] == null) {
+                    tick++;
+                }
+                boundary = tick;
+            }
+            if (boundary > target) {
+                current = target;
+                break;
+            }
+            current = boundary - 1;
+            expired = tick(expired);
+        }
+        return expired;
+    }
+
+    // helper function to process one tick: cascade the wider slots that start now, then expire the level 0 slot
+    private List<T> tick(List<T> expired) {
+        current++;
+        int top = 0;
+        while (top + 1 < LEVELS && (current & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Timer<T> timer = detach(level, (int) ((current >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                place(timer, Math.max(timer.deadline, current));
+                timer = next;
+            }
+        }
+        Timer<T> timer = detach(0, (int) (current & (SLOTS - 1)));
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            if (timer.deadline <= current) {
+                if (expired.isEmpty()) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(timer.item);
+                size--;
+            } else {
+                // a timer further ahead than the wheel reaches comes around again until it is in range
+                place(timer, timer.deadline);
+            }
+            timer = next;
+        }
+        return expired;
+    }
+
+    // helper function to put a timer into the slot for the given tick
+    private void place(Timer<T> timer, long tick) {
+        long delta = tick - current;
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // out of range: park it in the widest slot that comes around last
+            tick = current;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        timer.level = level;
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[level][slot] = timer;
+        levelCounts[level]++;
+    }
+
+    // helper function to take a single timer out of its slot
+    private void unlink(Timer<T> timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        levelCounts[timer.level]--;
+        timer.level = -1;
+        timer.previous = null;
+        timer.next = null;
+    }
+
+    // helper function to empty a slot, returning its timers as a list linked through next
+    private Timer<T> detach(int level, int slot) {
+        Timer<T> head = slots[level][slot];
+        slots[level][slot] = null;
+        for (Timer<T> timer = head; timer != null; timer = timer.next) {
+            timer.level = -1;
+            levelCounts[level]--;
+        }
+        return head;
+    }
+}
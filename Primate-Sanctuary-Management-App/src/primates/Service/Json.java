@@ -0,0 +1,81 @@
+package primates.Service;
+
+import primates.Model.CensusSnapshot;
+import primates.Model.Primate;
+
+/**
+ * Small helpers to write JSON without pulling in a JSON library.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted and escaped JSON string.
+     */
+    static StringBuilder string(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends a primate as a JSON object.
+     *
+     * @param location Where the primate lives, "isolation" or "enclosure".
+     */
+    static StringBuilder primate(StringBuilder out, Primate primate, String location) {
+        out.append("{\"id\":").append(primate.getId()).append(",\"name\":");
+        string(out, primate.getName());
+        out.append(",\"species\":\"").append(primate.getSpecies())
+                .append("\",\"sex\":\"").append(primate.getSex())
+                .append("\",\"size\":").append(primate.getSize())
+                .append(",\"weight\":").append(primate.getWeight())
+                .append(",\"age\":").append(primate.getAge())
+                .append(",\"food\":\"").append(primate.getFood())
+                .append("\",\"medicated\":").append(primate.medicatedBefore())
+                .append(",\"location\":\"").append(location).append("\"}");
+        return out;
+    }
+
+    /**
+     * Appends a primate of a census snapshot as a JSON object, in the same shape as {@link #primate}.
+     *
+     * @param location Where the primate lives, "isolation" or "enclosure".
+     */
+    static StringBuilder resident(StringBuilder out, CensusSnapshot.Resident resident, String location) {
+        out.append("{\"id\":").append(resident.getId()).append(",\"name\":");
+        string(out, resident.getName());
+        out.append(",\"species\":\"").append(resident.getSpecies())
+                .append("\",\"sex\":\"").append(resident.getSex())
+                .append("\",\"size\":").append(resident.getSize())
+                .append(",\"weight\":").append(resident.getWeight())
+                .append(",\"age\":").append(resident.getAge())
+                .append(",\"food\":\"").append(resident.getFood())
+                .append("\",\"medicated\":").append(resident.medicatedBefore())
+                .append(",\"location\":\"").append(location).append("\"}");
+        return out;
+    }
+
+    /**
+     * Builds an error object.
+     */
+    static String error(String message) {
+        return string(new StringBuilder("{\"error\":"), message == null ? "unknown error" : message).append('}').toString();
+    }
+}
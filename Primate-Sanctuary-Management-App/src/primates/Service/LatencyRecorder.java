@@ -0,0 +1,93 @@
+package primates.Service;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples in nanoseconds and reports percentiles over them.
+ * A recorder is not thread-safe: give every worker thread its own recorder and merge them at the end.
+ */
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int count;
+    private boolean sorted = true;
+
+    /**
+     * Adds one latency sample.
+     *
+     * @param nanos The measured latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        sorted = false;
+    }
+
+    /**
+     * Adds all samples of another recorder to this one.
+     *
+     * @param other The recorder to copy the samples from.
+     */
+    public void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(count + other.count, samples.length * 2));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        sorted = false;
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     *
+     * @return The sample count.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the latency below which the given share of samples fall.
+     *
+     * @param percentile The percentile between 0 and 100, e.g. 99 for p99.
+     * @return The latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return samples[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * Formats the usual percentiles in milliseconds, e.g. for a report line.
+     *
+     * @return A summary of p50, p90, p99 and the maximum.
+     */
+    public String summary() {
+        return String.format("p50=%.3f ms, p90=%.3f ms, p99=%.3f ms, max=%.3f ms",
+                percentile(50) / 1e6, percentile(90) / 1e6, percentile(99) / 1e6, percentile(100) / 1e6);
+    }
+}
@@ -0,0 +1,175 @@
+package primates.Service;
+
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A load generator for the sanctuary HTTP service.
+ * Every worker repeatedly takes a primate through intake, medical care, the move to its enclosure and a lookup,
+ * and occasionally asks for the census. It reports throughput and latency percentiles per request.
+ * <pre>
+ * java primates.Service.LoadGenerator [--url http://localhost:8080] [--workers 16] [--cycles 500] [--batch 0]
+ * </pre>
+ * Without --url an embedded service on a free localhost port is started and stopped again.
+ * With --batch N each worker sends N intake cycles per POST /batch instead of one request per operation.
+ */
+public class LoadGenerator {
+    // ask for the census once every this many cycles
+    private static final int CENSUS_EVERY = 100;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a load generator against a running service.
+     *
+     * @param baseUrl The service URL, e.g. http://localhost:8080.
+     */
+    public LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+        // the client keeps connections alive and reuses them across requests
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Runs the workload and returns the merged latencies of all requests.
+     *
+     * @param workers   The number of concurrent workers, each on its own virtual thread.
+     * @param cycles    The number of intake cycles per worker.
+     * @param batchSize The number of cycles per batch request, or 0 to send one request per operation.
+     * @return The latency of every request sent.
+     */
+    public LatencyRecorder run(int workers, int cycles, int batchSize) throws Exception {
+        List<Future<LatencyRecorder>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                results.add(executor.submit(() -> batchSize > 0 ? runBatched(worker, cycles, batchSize) : runSingle(worker, cycles)));
+            }
+        }
+        LatencyRecorder all = new LatencyRecorder();
+        for (Future<LatencyRecorder> result : results) {
+            all.merge(result.get());
+        }
+        return all;
+    }
+
+    /**
+     * Returns the number of requests that did not succeed.
+     *
+     * @return The failed request count.
+     */
+    public long failures() {
+        return failures.get();
+    }
+
+    // one request per operation
+    private LatencyRecorder runSingle(int worker, int cycles) throws IOException, InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        Primate.Species[] species = Primate.Species.values();
+        for (int i = 0; i < cycles; i++) {
+            String name = encode("lg-" + worker + "-" + i);
+            String kind = species[(worker + i) % species.length].name();
+            send(latencies, "POST", "/intake?name=" + name + "&species=" + kind + "&sex=FEMALE&size=50&weight=20&age=4&food=FRUITS", null);
+            send(latencies, "POST", "/medicate?name=" + name, null);
+            send(latencies, "POST", "/move?name=" + name, null);
+            send(latencies, "GET", "/primates?name=" + name, null);
+            if (i % CENSUS_EVERY == CENSUS_EVERY - 1) {
+                send(latencies, "GET", "/census", null);
+            }
+        }
+        return latencies;
+    }
+
+    // several intake cycles per batch request
+    private LatencyRecorder runBatched(int worker, int cycles, int batchSize) throws IOException, InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        Primate.Species[] species = Primate.Species.values();
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < cycles; i++) {
+            String name = "lg-" + worker + "-" + i;
+            script.append("add ").append(name).append(' ').append(species[(worker + i) % species.length])
+                    .append(" FEMALE 50 20 4 FRUITS\n")
+                    .append("medicate ").append(name).append('\n')
+                    .append("move ").append(name).append('\n');
+            if ((i + 1) % batchSize == 0 || i == cycles - 1) {
+                send(latencies, "POST", "/batch", script.toString());
+                script.setLength(0);
+            }
+        }
+        return latencies;
+    }
+
+    // helper function to send one request and record its latency
+    private void send(LatencyRecorder latencies, String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        latencies.record(System.nanoTime() - start);
+        if (response.statusCode() >= 300) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs the load generator from the command line and prints the report.
+     *
+     * @param args The options described in the class comment.
+     */
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int workers = 16;
+        int cycles = 500;
+        int batch = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--workers": workers = Integer.parseInt(args[i + 1]); break;
+                case "--cycles": cycles = Integer.parseInt(args[i + 1]); break;
+                case "--batch": batch = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        SanctuaryHttpService embedded = null;
+        if (url == null) {
+            embedded = new SanctuaryHttpService(new Sanctuary(), 0);
+            embedded.start();
+            url = "http://localhost:" + embedded.getPort();
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(url);
+            long start = System.nanoTime();
+            LatencyRecorder latencies = generator.run(workers, cycles, batch);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d requests in %.2f s (%.0f req/s), %d failed%n",
+                    latencies.count(), seconds, latencies.count() / seconds, generator.failures());
+            System.out.println(latencies.summary());
+        } finally {
+            if (embedded != null) {
+                embedded.stop(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package primates.Service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import primates.Controller.BatchController;
+import primates.Model.CensusSnapshot;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An embedded HTTP/JSON service over a Sanctuary, bound to localhost.
+ * Every exchange runs on its own virtual thread; the JDK server keeps HTTP/1.1 connections alive between requests.
+ * Small responses on kept-alive connections wait for Nagle's algorithm unless the application starts the JVM with
+ * {@code -Dsun.net.httpserver.nodelay=true}; the service leaves that process-wide setting alone.
+ * <pre>
+ * POST /intake?name=&amp;species=&amp;sex=&amp;size=&amp;weight=&amp;age=&amp;food=   take in a new primate
+ * POST /medicate?name=                                              apply medical care to an isolated primate
+ * POST /move?name=                                                  move a medicated primate to its enclosure
+ * GET  /primates?name=                                              look up a primate by name
+ * GET  /census                                                      list every primate, streamed as a JSON array
+ * POST /batch                                                       run the command script in the body (see BatchController)
+ * </pre>
+ * Batches may only use the commands that work on the served sanctuary; 'save' and 'load' touch the server's files and are refused.
+ * The service takes no lock of its own: every call relies on the sanctuary's per-housing locking, so exchanges about
+ * different housings run side by side, and the commands of a batch are applied one by one like single requests.
+ */
+public class SanctuaryHttpService {
+    // flush streamed listings to the client in chunks of this many characters
+    private static final int STREAM_CHUNK = 8192;
+    // the batch commands a client may send
+    private static final Set<String> BATCH_COMMANDS = new HashSet<>(Arrays.asList(
+            "add", "medicate", "move", "remove", "isolation", "enclosures", "census"));
+
+    private final Sanctuary model;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the service; it does not accept requests before {@link #start()} is called.
+     *
+     * @param model The sanctuary to serve.
+     * @param port  The localhost port to listen on, or 0 to pick a free one.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SanctuaryHttpService(Sanctuary model, int port) throws IOException {
+        this.model = model;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/intake", post(this::intake));
+        server.createContext("/medicate", post(this::medicate));
+        server.createContext("/move", post(this::move));
+        server.createContext("/primates", get(this::lookup));
+        server.createContext("/census", get(this::census));
+        server.createContext("/batch", post(this::batch));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the service, waiting at most the given number of seconds for running exchanges.
+     *
+     * @param delaySeconds How long to wait for running exchanges to finish.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the service listens on.
+     *
+     * @return The bound localhost port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // endpoints
+
+    private void intake(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String name = params.get("name");
+        Primate.Species species = parseEnum(Primate.Species.class, params.get("species"));
+        Primate.Sex sex = parseEnum(Primate.Sex.class, params.get("sex"));
+        Primate.Food food = parseEnum(Primate.Food.class, params.get("food"));
+        int size = parseInt(params.get("size"));
+        int weight = parseInt(params.get("weight"));
+        int age = parseInt(params.get("age"));
+        Primate primate = model.addPrimateToSanctuary(name, species, sex, size, weight, age, food);
+        send(exchange, 201, Json.primate(new StringBuilder(), primate, "isolation").toString());
+    }
+
+    private void medicate(HttpExchange exchange, Map<String, String> params) throws IOException {
+        Primate primate = requireIsolated(params.get("name"));
+        model.medicalCare(primate);
+        send(exchange, 200, Json.primate(new StringBuilder(), primate, "isolation").toString());
+    }
+
+    private void move(HttpExchange exchange, Map<String, String> params) throws IOException {
+        Primate primate = requireIsolated(params.get("name"));
+        model.moveToEnclosure(primate);
+        send(exchange, 200, Json.primate(new StringBuilder(), primate, "enclosure").toString());
+    }
+
+    private void lookup(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String name = params.get("name");
+        String location = "isolation";
+        Primate primate = model.findPrimateByName(name);
+        if (primate == null) {
+            primate = model.findPrimateInEnclosures(name);
+            location = "enclosure";
+        }
+        if (primate == null) {
+            send(exchange, 404, Json.error("No primate named " + name + "."));
+        } else {
+            send(exchange, 200, Json.primate(new StringBuilder(), primate, location).toString());
+        }
+    }
+
+    // the census is streamed from an immutable snapshot of the sanctuary, so it shows one point in time without any lock
+    private void census(HttpExchange exchange, Map<String, String> params) throws IOException {
+        CensusSnapshot snapshot = model.snapshot();
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        // once the headers are out a failure can no longer become an error response, so it must not reach dispatch:
+        // the exchange is closed instead and the client is left with a cut-off array
+        Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+        try {
+            StringBuilder chunk = new StringBuilder(STREAM_CHUNK + 256);
+            chunk.append('[');
+            boolean first = true;
+            for (CensusSnapshot.Resident resident : snapshot.getIsolated()) {
+                first = appendStreamed(out, chunk, resident, "isolation", first);
+            }
+            for (Primate.Species species : Primate.Species.values()) {
+                for (CensusSnapshot.Resident resident : snapshot.getEnclosureResidents(species)) {
+                    first = appendStreamed(out, chunk, resident, "enclosure", first);
+                }
+            }
+            chunk.append(']');
+            out.append(chunk);
+            out.close();
+        } catch (RuntimeException e) {
+            exchange.close();
+        }
+    }
+
+    // helper function to add one primate to a streamed listing, flushing full chunks
+    private static boolean appendStreamed(Writer out, StringBuilder chunk, CensusSnapshot.Resident resident, String location, boolean first) throws IOException {
+        if (!first) {
+            chunk.append(',');
+        }
+        Json.resident(chunk, resident, location);
+        if (chunk.length() >= STREAM_CHUNK) {
+            out.append(chunk);
+            chunk.setLength(0);
+        }
+        return false;
+    }
+
+    // runs a command script on the exchange's own thread, after checking that it only uses the allowed commands
+    private void batch(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String script = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        for (String command : BatchController.commandNames(new StringReader(script))) {
+            if (!BATCH_COMMANDS.contains(command)) {
+                throw new IllegalArgumentException("The command '" + command + "' is not allowed in a batch.");
+            }
+        }
+        StringWriter output = new StringWriter();
+        StringWriter errors = new StringWriter();
+        int failures = new BatchController(model, new PrintWriter(output), new PrintWriter(errors)).runInline(new StringReader(script));
+        StringBuilder json = new StringBuilder("{\"failures\":").append(failures).append(",\"output\":");
+        Json.string(json, output.toString()).append(",\"errors\":");
+        Json.string(json, errors.toString()).append('}');
+        send(exchange, failures == 0 ? 200 : 207, json.toString());
+    }
+
+    // helper function to find a primate in isolation by its name
+    private Primate requireIsolated(String name) {
+        Primate primate = model.findPrimateByName(name);
+        if (primate == null) {
+            throw new NotFoundException("No primate named " + name + " in isolation.");
+        }
+        return primate;
+    }
+
+    // request plumbing
+
+    /**
+     * An endpoint body, given the exchange and its decoded query parameters.
+     */
+    private interface Endpoint {
+        void handle(HttpExchange exchange, Map<String, String> params) throws IOException;
+    }
+
+    private HttpHandler post(Endpoint endpoint) {
+        return exchange -> dispatch(exchange, "POST", endpoint);
+    }
+
+    private HttpHandler get(Endpoint endpoint) {
+        return exchange -> dispatch(exchange, "GET", endpoint);
+    }
+
+    // runs an endpoint and turns the model's exceptions into HTTP status codes
+    private static void dispatch(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                send(exchange, 405, Json.error("Use " + method + " for this endpoint."));
+                return;
+            }
+            endpoint.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (NotFoundException e) {
+            send(exchange, 404, Json.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            send(exchange, 409, Json.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            send(exchange, 500, Json.error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // helper function to send a complete JSON response; the request body is drained first so the connection can be reused
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        return value == null ? null : Enum.valueOf(type, value.toUpperCase());
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Primate size, weight, and age must be greater than zero.");
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * Signals that the requested primate does not exist; mapped to 404.
+     */
+    private static class NotFoundException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Starts the service on the given port (default 8080) until the process is stopped.
+     *
+     * @param args Optional port number.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        SanctuaryHttpService service = new SanctuaryHttpService(new Sanctuary(), port);
+        service.start();
+        System.out.println("Sanctuary service listening on http://localhost:" + service.getPort());
+    }
+}
@@ -0,0 +1,202 @@
+package primates.Simulation;
+
+import primates.Model.Primate;
+
+import java.util.Arrays;
+
+/**
+ * A reproducible sanctuary workload: the random seed, how many operations to run on how many threads,
+ * the mix of operations, and the species and food distributions of new primates.
+ * The defaults describe a busy day: mostly intake, treatment and transfers, some departures and a few reports.
+ * Setters return the scenario, so a scenario can be written in one expression.
+ */
+public class Scenario {
+    /**
+     * The kinds of operations the simulator performs.
+     */
+    public enum Operation {
+        /** Take in a new primate. */
+        INTAKE,
+        /** Treat a primate waiting in isolation. */
+        MEDICATE,
+        /** Move a treated primate to its enclosure. */
+        TRANSFER,
+        /** Let a primate leave its enclosure. */
+        REMOVE,
+        /** Produce the census or the enclosure listing. */
+        REPORT
+    }
+
+    private long seed = 1;
+    private int operations = 100_000;
+    private int threads = 1;
+    private long sampleMillis = 100;
+    private final int[] mix = {30, 25, 25, 15, 5};
+    private final int[] species = new int[Primate.Species.values().length];
+    private final int[] food = new int[Primate.Food.values().length];
+
+    /**
+     * Creates the default scenario, with every species and food equally likely.
+     */
+    public Scenario() {
+        Arrays.fill(species, 1);
+        Arrays.fill(food, 1);
+    }
+
+    /**
+     * Sets the seed every random choice is derived from.
+     *
+     * @param seed The random seed.
+     * @return This scenario.
+     */
+    public Scenario seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the total number of operations, shared evenly by the threads.
+     *
+     * @param operations The number of operations.
+     * @return This scenario.
+     */
+    public Scenario operations(int operations) {
+        if (operations < 0) {
+            throw new IllegalArgumentException("The number of operations cannot be negative.");
+        }
+        this.operations = operations;
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads; 1 runs the whole workload on the calling thread.
+     *
+     * @param threads The number of threads.
+     * @return This scenario.
+     */
+    public Scenario threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed.");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets how often the heap usage is sampled while the workload runs.
+     *
+     * @param millis The sampling interval in milliseconds.
+     * @return This scenario.
+     */
+    public Scenario sampleEvery(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("The sampling interval must be positive.");
+        }
+        this.sampleMillis = millis;
+        return this;
+    }
+
+    /**
+     * Sets the relative weight of an operation in the mix.
+     *
+     * @param operation The operation.
+     * @param weight    Its weight; 0 leaves the operation out.
+     * @return This scenario.
+     */
+    public Scenario weight(Operation operation, int weight) {
+        mix[operation.ordinal()] = checkWeight(weight);
+        return this;
+    }
+
+    /**
+     * Sets the relative frequency of a species among new primates.
+     *
+     * @param kind   The species.
+     * @param weight Its weight; 0 means the species is never taken in.
+     * @return This scenario.
+     */
+    public Scenario weight(Primate.Species kind, int weight) {
+        species[kind.ordinal()] = checkWeight(weight);
+        return this;
+    }
+
+    /**
+     * Sets the relative frequency of a favorite food among new primates.
+     *
+     * @param kind   The food.
+     * @param weight Its weight; 0 means no new primate prefers it.
+     * @return This scenario.
+     */
+    public Scenario weight(Primate.Food kind, int weight) {
+        food[kind.ordinal()] = checkWeight(weight);
+        return this;
+    }
+
+    /**
+     * Reads weights written as {@code NAME=weight,NAME=weight}, where every name is an operation, a species or a food.
+     *
+     * @param weights The weights to apply.
+     * @return This scenario.
+     */
+    public Scenario weights(String weights) {
+        for (String pair : weights.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Weights are written as NAME=weight, got: " + pair);
+            }
+            String name = parts[0].trim().toUpperCase();
+            int weight = Integer.parseInt(parts[1].trim());
+            if (isConstant(Operation.class, name)) {
+                weight(Operation.valueOf(name), weight);
+            } else if (isConstant(Primate.Species.class, name)) {
+                weight(Primate.Species.valueOf(name), weight);
+            } else if (isConstant(Primate.Food.class, name)) {
+                weight(Primate.Food.valueOf(name), weight);
+            } else {
+                throw new IllegalArgumentException("Unknown operation, species or food: " + parts[0]);
+            }
+        }
+        return this;
+    }
+
+    public long getSeed() {return seed;}
+
+    public int getOperations() {return operations;}
+
+    public int getThreads() {return threads;}
+
+    public long getSampleMillis() {return sampleMillis;}
+
+    // the weights are handed to the simulator as copies, so a running simulation is not affected by later changes
+    int[] operationWeights() {return mix.clone();}
+
+    int[] speciesWeights() {return species.clone();}
+
+    int[] foodWeights() {return food.clone();}
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("seed=").append(seed).append(", operations=").append(operations)
+                .append(", threads=").append(threads).append(", mix=");
+        for (Operation operation : Operation.values()) {
+            text.append(operation == Operation.INTAKE ? "" : "/").append(operation).append(':').append(mix[operation.ordinal()]);
+        }
+        return text.toString();
+    }
+
+    private static int checkWeight(int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weights cannot be negative.");
+        }
+        return weight;
+    }
+
+    private static <E extends Enum<E>> boolean isConstant(Class<E> type, String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package primates.Simulation;
+
+import primates.Service.LatencyRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of one simulation run: operation counts and outcomes, latency percentiles per operation,
+ * overall throughput, and the heap usage sampled while the workload ran.
+ */
+public class SimulationReport {
+    /**
+     * The heap usage at one moment of the run.
+     */
+    public static final class HeapSample {
+        private final long elapsedMillis;
+        private final long usedBytes;
+
+        HeapSample(long elapsedMillis, long usedBytes) {
+            this.elapsedMillis = elapsedMillis;
+            this.usedBytes = usedBytes;
+        }
+
+        /** @return The time since the run started, in milliseconds. */
+        public long getElapsedMillis() {return elapsedMillis;}
+
+        /** @return The used heap in bytes. */
+        public long getUsedBytes() {return usedBytes;}
+    }
+
+    private final Scenario scenario;
+    private final long elapsedNanos;
+    private final LatencyRecorder[] latencies;
+    private final long[] accepted;
+    private final long[] rejected;
+    private final long[] skipped;
+    private final List<HeapSample> heap;
+
+    SimulationReport(Scenario scenario, long elapsedNanos, LatencyRecorder[] latencies,
+                     long[] accepted, long[] rejected, long[] skipped, List<HeapSample> heap) {
+        this.scenario = scenario;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.skipped = skipped;
+        this.heap = new ArrayList<>(heap);
+    }
+
+    /**
+     * Returns the number of operations of a kind that went through.
+     *
+     * @param operation The operation.
+     * @return The accepted count.
+     */
+    public long accepted(Scenario.Operation operation) {
+        return accepted[operation.ordinal()];
+    }
+
+    /**
+     * Returns the number of operations of a kind the sanctuary rejected, e.g. intakes into a full isolation.
+     *
+     * @param operation The operation.
+     * @return The rejected count.
+     */
+    public long rejected(Scenario.Operation operation) {
+        return rejected[operation.ordinal()];
+    }
+
+    /**
+     * Returns the number of times an operation was drawn but had nothing to work on, e.g. no primate waiting for treatment.
+     * Skipped operations are not timed.
+     *
+     * @param operation The operation.
+     * @return The skipped count.
+     */
+    public long skipped(Scenario.Operation operation) {
+        return skipped[operation.ordinal()];
+    }
+
+    /**
+     * Returns the latencies of one kind of operation.
+     *
+     * @param operation The operation.
+     * @return The recorded latencies.
+     */
+    public LatencyRecorder latency(Scenario.Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Returns the number of operations performed, accepted or rejected.
+     *
+     * @return The operation count.
+     */
+    public long performed() {
+        long total = 0;
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            total += accepted(operation) + rejected(operation);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the performed operations per second of wall-clock time.
+     *
+     * @return The throughput.
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : performed() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Returns the heap samples in the order they were taken.
+     *
+     * @return The heap usage over time.
+     */
+    public List<HeapSample> heap() {
+        return Collections.unmodifiableList(heap);
+    }
+
+    /**
+     * Formats the report as a few lines of text.
+     *
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(scenario).append('\n');
+        text.append(String.format("%,d operations in %.2f s, %,.0f ops/s%n", performed(), elapsedNanos / 1e9, throughput()));
+        text.append(String.format("%-9s %10s %10s %10s %10s %10s %10s%n", "operation", "accepted", "rejected", "skipped", "p50 us", "p99 us", "max us"));
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            LatencyRecorder latency = latency(operation);
+            text.append(String.format("%-9s %,10d %,10d %,10d %10.1f %10.1f %10.1f%n", operation,
+                    accepted(operation), rejected(operation), skipped(operation),
+                    latency.percentile(50) / 1e3, latency.percentile(99) / 1e3, latency.percentile(100) / 1e3));
+        }
+        text.append("heap (ms: MB):");
+        // at most 20 evenly spread samples keep the line readable
+        int step = Math.max(1, heap.size() / 20);
+        for (int i = 0; i < heap.size(); i += step) {
+            HeapSample sample = heap.get(i);
+            text.append(String.format(" %d: %.1f", sample.getElapsedMillis(), sample.getUsedBytes() / 1048576.0));
+        }
+        return text.append('\n').toString();
+    }
+}
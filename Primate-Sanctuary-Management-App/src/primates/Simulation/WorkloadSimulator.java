@@ -0,0 +1,321 @@
+package primates.Simulation;
+
+import primates.Model.Outcome;
+import primates.Model.Primate;
+import primates.Model.PrimateArena;
+import primates.Model.Sanctuary;
+import primates.Service.LatencyRecorder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Drives a Sanctuary with a seeded mix of intake, treatment, transfers, departures and reports.
+ * Every worker draws its operations from its own random generator derived from the scenario seed and only works on
+ * the primates it took in itself, so a worker's sequence of operations is the same in every run of a scenario.
+ * With one thread the whole run, including the final state of the sanctuary, is reproducible; with more threads the
+ * workers share the isolation cages and enclosures, so which intakes find a free cage depends on timing.
+ * Expected rejections (a full isolation, a lost race) go through the try* methods and are counted, not thrown.
+ * <pre>
+ * java primates.Simulation.WorkloadSimulator [--seed 1] [--operations 100000] [--threads 1] [--sample-ms 100]
+ *                                            [--weights INTAKE=30,MEDICATE=25,TRANSFER=25,REMOVE=15,REPORT=5,DRILL=3,NUTS=2]
+ * </pre>
+ */
+public class WorkloadSimulator {
+    private static final Scenario.Operation[] OPERATIONS = Scenario.Operation.values();
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+    private static final Primate.Food[] FOODS = Primate.Food.values();
+    private static final Primate.Sex[] SEXES = Primate.Sex.values();
+    // primate objects are taken from arenas of this size
+    private static final int ARENA_SIZE = 1024;
+
+    private final Scenario scenario;
+
+    /**
+     * Creates a simulator for a scenario.
+     *
+     * @param scenario The workload to run.
+     */
+    public WorkloadSimulator(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Runs the scenario against a sanctuary and reports what happened.
+     *
+     * @param sanctuary The sanctuary to drive, usually a new one.
+     * @return The report of the run.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the workers.
+     */
+    public SimulationReport run(Sanctuary sanctuary) throws InterruptedException {
+        int threads = scenario.getThreads();
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            // spread the operations evenly; the first workers take the remainder
+            int operations = scenario.getOperations() / threads + (i < scenario.getOperations() % threads ? 1 : 0);
+            workers[i] = new Worker(sanctuary, i, operations);
+        }
+
+        HeapSampler sampler = new HeapSampler(scenario.getSampleMillis());
+        long start = System.nanoTime();
+        sampler.start();
+        if (threads == 1) {
+            workers[0].run();
+        } else {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Thread> running = new ArrayList<>();
+            for (Worker worker : workers) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        ready.await();
+                        worker.run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "simulation-" + worker.index);
+                thread.start();
+                running.add(thread);
+            }
+            ready.countDown();
+            for (Thread thread : running) {
+                thread.join();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        List<SimulationReport.HeapSample> heap = sampler.finish();
+
+        LatencyRecorder[] latencies = new LatencyRecorder[OPERATIONS.length];
+        long[] accepted = new long[OPERATIONS.length];
+        long[] rejected = new long[OPERATIONS.length];
+        long[] skipped = new long[OPERATIONS.length];
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            latencies[op] = new LatencyRecorder();
+            for (Worker worker : workers) {
+                latencies[op].merge(worker.latencies[op]);
+                accepted[op] += worker.accepted[op];
+                rejected[op] += worker.rejected[op];
+                skipped[op] += worker.skipped[op];
+            }
+        }
+        return new SimulationReport(scenario, elapsed, latencies, accepted, rejected, skipped, heap);
+    }
+
+    /**
+     * One thread's share of the workload, with the primates it is looking after.
+     */
+    private final class Worker implements Runnable {
+        private final Sanctuary sanctuary;
+        private final int index;
+        private final int operations;
+        private final SplittableRandom random;
+        private final int[] operationWeights = cumulative(scenario.operationWeights());
+        private final int[] speciesWeights = cumulative(scenario.speciesWeights());
+        private final int[] foodWeights = cumulative(scenario.foodWeights());
+
+        // primates waiting for treatment, treated and waiting for their enclosure, and living in an enclosure
+        private final ArrayDeque<Primate> waiting = new ArrayDeque<>();
+        private final ArrayDeque<Primate> treated = new ArrayDeque<>();
+        private final List<Primate> housed = new ArrayList<>();
+        private PrimateArena arena = new PrimateArena(ARENA_SIZE);
+        private int taken;
+        private long sink;
+
+        private final LatencyRecorder[] latencies = new LatencyRecorder[OPERATIONS.length];
+        private final long[] accepted = new long[OPERATIONS.length];
+        private final long[] rejected = new long[OPERATIONS.length];
+        private final long[] skipped = new long[OPERATIONS.length];
+
+        Worker(Sanctuary sanctuary, int index, int operations) {
+            this.sanctuary = sanctuary;
+            this.index = index;
+            this.operations = operations;
+            // a fixed odd multiplier gives every worker an unrelated stream
+            this.random = new SplittableRandom(scenario.getSeed() + 0x9E3779B97F4A7C15L * (index + 1));
+            for (int op = 0; op < OPERATIONS.length; op++) {
+                latencies[op] = new LatencyRecorder();
+            }
+            if (operationWeights[operationWeights.length - 1] == 0) {
+                throw new IllegalArgumentException("At least one operation needs a positive weight.");
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < operations; i++) {
+                Scenario.Operation operation = OPERATIONS[pick(operationWeights)];
+                long start = System.nanoTime();
+                Boolean done = perform(operation);
+                long latency = System.nanoTime() - start;
+                int op = operation.ordinal();
+                if (done == null) {
+                    skipped[op]++;
+                } else {
+                    latencies[op].record(latency);
+                    if (done) {
+                        accepted[op]++;
+                    } else {
+                        rejected[op]++;
+                    }
+                }
+            }
+        }
+
+        // perform one operation; returns whether it went through, or null if there was nothing to do
+        private Boolean perform(Scenario.Operation operation) {
+            switch (operation) {
+                case INTAKE:
+                    return intake();
+                case MEDICATE: {
+                    Primate primate = waiting.poll();
+                    if (primate == null) {
+                        return null;
+                    }
+                    sanctuary.medicalCare(primate);
+                    treated.add(primate);
+                    return true;
+                }
+                case TRANSFER: {
+                    Primate primate = treated.poll();
+                    if (primate == null) {
+                        return null;
+                    }
+                    if (sanctuary.tryMoveToEnclosure(primate) == Outcome.ACCEPTED) {
+                        housed.add(primate);
+                        return true;
+                    }
+                    // e.g. the quarantine is still running or another transfer won the race; try again later
+                    treated.add(primate);
+                    return false;
+                }
+                case REMOVE: {
+                    if (housed.isEmpty()) {
+                        return null;
+                    }
+                    // swap the chosen primate to the end, so removing it from the list is O(1)
+                    int chosen = random.nextInt(housed.size());
+                    Primate primate = housed.get(chosen);
+                    housed.set(chosen, housed.get(housed.size() - 1));
+                    housed.remove(housed.size() - 1);
+                    return sanctuary.tryRemovePrimateFromENC(primate) == Outcome.ACCEPTED;
+                }
+                case REPORT:
+                    sink += random.nextBoolean() ? sanctuary.getAllNames().size() : sanctuary.getEnclosureList().size();
+                    return true;
+                default:
+                    throw new IllegalStateException("Unknown operation: " + operation);
+            }
+        }
+
+        private boolean intake() {
+            // draw everything first, so the random stream does not depend on whether the intake is accepted
+            String name = "s" + scenario.getSeed() + "-w" + index + "-" + taken++;
+            Primate.Species species = SPECIES[pick(speciesWeights)];
+            Primate.Food food = FOODS[pick(foodWeights)];
+            Primate.Sex sex = SEXES[random.nextInt(SEXES.length)];
+            int size = 10 + random.nextInt(90);
+            int weight = 1 + random.nextInt(40);
+            int age = 1 + random.nextInt(30);
+            if (arena.remaining() == 0) {
+                arena = new PrimateArena(ARENA_SIZE);
+            }
+            if (sanctuary.intake(arena, name, species, sex, size, weight, age, food) != Outcome.ACCEPTED) {
+                return false;
+            }
+            waiting.add(arena.last());
+            return true;
+        }
+
+        // helper function to draw an index with probability proportional to its weight
+        private int pick(int[] cumulative) {
+            int total = cumulative[cumulative.length - 1];
+            if (total == 0) {
+                throw new IllegalArgumentException("At least one weight of every distribution must be positive.");
+            }
+            int draw = random.nextInt(total);
+            int i = 0;
+            while (cumulative[i] <= draw) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    // helper function to turn weights into running totals
+    private static int[] cumulative(int[] weights) {
+        int[] totals = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            totals[i] = sum;
+        }
+        return totals;
+    }
+
+    /**
+     * Samples the used heap on a background thread until the run is over.
+     */
+    private static final class HeapSampler extends Thread {
+        private final long intervalMillis;
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final List<SimulationReport.HeapSample> samples = new ArrayList<>();
+        private final long start = System.nanoTime();
+        private volatile boolean finished;
+
+        HeapSampler(long intervalMillis) {
+            super("simulation-heap-sampler");
+            this.intervalMillis = intervalMillis;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!finished) {
+                sample();
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void sample() {
+            samples.add(new SimulationReport.HeapSample((System.nanoTime() - start) / 1_000_000, memory.getHeapMemoryUsage().getUsed()));
+        }
+
+        List<SimulationReport.HeapSample> finish() throws InterruptedException {
+            finished = true;
+            interrupt();
+            join();
+            sample();
+            synchronized (this) {
+                return new ArrayList<>(samples);
+            }
+        }
+    }
+
+    /**
+     * Runs a scenario from the command line on a new sanctuary and prints the report.
+     *
+     * @param args The options described in the class comment.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Scenario scenario = new Scenario();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--seed": scenario.seed(Long.parseLong(args[i + 1])); break;
+                case "--operations": scenario.operations(Integer.parseInt(args[i + 1])); break;
+                case "--threads": scenario.threads(Integer.parseInt(args[i + 1])); break;
+                case "--sample-ms": scenario.sampleEvery(Long.parseLong(args[i + 1])); break;
+                case "--weights": scenario.weights(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        System.out.print(new WorkloadSimulator(scenario).run(new Sanctuary()));
+    }
+}
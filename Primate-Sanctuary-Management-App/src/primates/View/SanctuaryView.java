@@ -14,6 +14,7 @@ import java.util.List;
 public class SanctuaryView {
     private JFrame frame;
     private JTextArea isolationListTextArea, enclosureListTextArea, summaryListTextArea;
+    private JScrollPane enclosureScrollPane, summaryScrollPane;
     private JTextField nameField, ageField, sizeField, weightField;
     private JComboBox<Primate.Species> speciesBox;
     private JComboBox<Primate.Sex> sexBox;
@@ -148,8 +149,8 @@ public class SanctuaryView {
         enclosureListTextArea.setEditable(false);
         enclosureListTextArea.setLineWrap(true);
         enclosureListTextArea.setWrapStyleWord(true);
-        JScrollPane scrollPane = new JScrollPane(enclosureListTextArea);
-        panel.add(scrollPane);
+        enclosureScrollPane = new JScrollPane(enclosureListTextArea);
+        panel.add(enclosureScrollPane);
 
         // return the result panel
         return panel;
@@ -172,8 +173,8 @@ public class SanctuaryView {
         summaryListTextArea.setEditable(false);
         summaryListTextArea.setLineWrap(true);
         summaryListTextArea.setWrapStyleWord(true);
-        JScrollPane scrollPane = new JScrollPane(summaryListTextArea);
-        panel.add(scrollPane);
+        summaryScrollPane = new JScrollPane(summaryListTextArea);
+        panel.add(summaryScrollPane);
 
         // return the result panel
         return panel;
@@ -257,6 +258,22 @@ public class SanctuaryView {
     }
 
 
+    /**
+     * Enables or disables every button, e.g. while the sanctuary is still loading in the background.
+     * While disabled, the summary area shows a loading notice.
+     *
+     * @param enabled Whether the user may interact with the buttons.
+     */
+    public void setControlsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled);
+        medicalCareButton.setEnabled(enabled);
+        moveToENCButton.setEnabled(enabled);
+        if (!enabled) {
+            summaryListTextArea.setText("Loading the sanctuary...");
+        }
+    }
+
+
     // add button listeners
     /**
      * Adds an ActionListener to the 'Add Primate' button.
@@ -288,6 +305,34 @@ public class SanctuaryView {
         moveToENCButton.addActionListener(listener);
     }
 
+    /**
+     * Adds an action to run when the enclosure list is scrolled near its end, so the next page can be loaded.
+     *
+     * @param nearEnd The action to run.
+     */
+    public void addEnclosureScrollListener(Runnable nearEnd) {
+        addNearEndListener(enclosureScrollPane, nearEnd);
+    }
+
+    /**
+     * Adds an action to run when the sanctuary summary is scrolled near its end, so the next page can be loaded.
+     *
+     * @param nearEnd The action to run.
+     */
+    public void addSummaryScrollListener(Runnable nearEnd) {
+        addNearEndListener(summaryScrollPane, nearEnd);
+    }
+
+    // helper function to run an action whenever less than one screen of text is left below the visible part
+    private static void addNearEndListener(JScrollPane pane, Runnable nearEnd) {
+        JScrollBar bar = pane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting() && bar.getValue() + 2 * bar.getVisibleAmount() >= bar.getMaximum()) {
+                nearEnd.run();
+            }
+        });
+    }
+
     /**
      * Displays a list of primate details in the isolation list text area.
      * Each detail is separated by a newline.
@@ -322,6 +367,33 @@ public class SanctuaryView {
         summaryListTextArea.setText(detailsText);
     }
 
+    /**
+     * Appends the next page of lines to the enclosure list text area, keeping the scroll position.
+     *
+     * @param lines The lines to append, one per primate or enclosure header.
+     */
+    public void appendEnclosurePrimates(List<String> lines) {
+        appendLines(enclosureListTextArea, lines);
+    }
+
+    /**
+     * Appends the next page of lines to the sanctuary summary text area, keeping the scroll position.
+     *
+     * @param lines The lines to append, one per primate.
+     */
+    public void appendSummary(List<String> lines) {
+        appendLines(summaryListTextArea, lines);
+    }
+
+    // helper function to append lines after the existing text of a text area
+    private static void appendLines(JTextArea area, List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        String text = String.join("\n", lines);
+        area.append(area.getDocument().getLength() == 0 ? text : "\n" + text);
+    }
+
     // notifications
     /**
      * Displays a success notification with a custom message.
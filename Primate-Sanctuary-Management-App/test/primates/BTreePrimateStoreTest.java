@@ -0,0 +1,191 @@
+package primates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.BTreePrimateStore;
+import primates.Model.Outcome;
+import primates.Model.Page;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BTreePrimateStoreTest {
+
+    private Path file;
+
+    // create a scratch file for every test
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("primates", ".store");
+    }
+
+    // remove the scratch file again
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // helper function to make a primate whose fields follow from its number
+    private static Primate numbered(int i) {
+        return new Primate("P" + i, Primate.Species.values()[i % 8], Primate.Sex.values()[i % 2],
+                10 + i % 90, 1 + i % 40, 1 + i % 30, Primate.Food.values()[i % 7]);
+    }
+
+    // check that many primates survive page splits and a small cache, and are still there after reopening the file
+    @Test
+    public void testPrimatesSurviveSplitsEvictionAndReopen() throws IOException {
+        int count = 20_000;
+        try (BTreePrimateStore store = new BTreePrimateStore(file, 16)) {
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, store.add(numbered(i)));
+            }
+            // a name too long for the record goes to overflow pages
+            String longName = "Long".repeat(2000);
+            int id = store.add(new Primate(longName, Primate.Species.SAKI, Primate.Sex.MALE, 5, 5, 5, Primate.Food.NUTS));
+            assertEquals(longName, store.get(id).getName());
+            assertTrue(store.getPagesWritten() > 0);
+        }
+
+        try (BTreePrimateStore store = new BTreePrimateStore(file, 16)) {
+            assertEquals(count + 1, store.size());
+            for (int i = 0; i < count; i += 997) {
+                Primate expected = numbered(i);
+                Primate found = store.get(i);
+                assertEquals(i, found.getId());
+                assertEquals(expected.getName(), found.getName());
+                assertEquals(expected.getSpecies(), found.getSpecies());
+                assertEquals(expected.getFood(), found.getFood());
+                assertEquals(expected.getWeight(), found.getWeight());
+            }
+            assertNull(store.get(count + 1));
+        }
+    }
+
+    // check that membership follows every update and is listed in ID order
+    @Test
+    public void testResidentsFollowUpdates() throws IOException {
+        try (BTreePrimateStore store = new BTreePrimateStore(file, 8)) {
+            Primate[] primates = new Primate[3000];
+            for (int i = 0; i < primates.length; i++) {
+                // the copies handed out by the store carry their IDs, as the sanctuary's own primates do
+                primates[i] = store.get(store.add(numbered(i)));
+                // even IDs live in cage 0, odd IDs in the DRILL enclosure
+                store.update(primates[i], i % 2 == 0 ? 1 : -1);
+            }
+            for (int i = 0; i < primates.length; i += 3) {
+                store.update(primates[i], 0);
+            }
+
+            List<Primate> cage = store.residents(1, 0, Integer.MAX_VALUE);
+            int expected = 0;
+            for (int i = 0; i < primates.length; i++) {
+                if (i % 2 == 0 && i % 3 != 0) {
+                    assertEquals(i, cage.get(expected++).getId());
+                }
+            }
+            assertEquals(expected, cage.size());
+
+            List<Primate> page = store.residents(-1, 1500, 10);
+            assertEquals(10, page.size());
+            assertEquals(1501, page.get(0).getId());
+            assertEquals(0, store.getLocation(0));
+            assertEquals(-1, store.getLocation(1));
+        }
+    }
+
+    // check that a sanctuary keeps its registry and locations in the on-disk store
+    @Test
+    public void testSanctuaryUsesStore() throws IOException {
+        try (BTreePrimateStore store = new BTreePrimateStore(file)) {
+            Sanctuary sanctuary = new Sanctuary(Clock.systemUTC(), store);
+            Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+            sanctuary.medicalCare(leo);
+            sanctuary.moveToEnclosure(leo);
+
+            // the sanctuary hands out the live primate, the store a copy read back from the file
+            assertSame(leo, sanctuary.findPrimateById(leo.getId()));
+            Primate stored = store.get(leo.getId());
+            assertNotSame(leo, stored);
+            assertEquals("Leo", stored.getName());
+            assertTrue(stored.medicatedBefore());
+            assertEquals(-(Primate.Species.DRILL.ordinal() + 1), store.getLocation(leo.getId()));
+            assertEquals(1, store.residents(-(Primate.Species.DRILL.ordinal() + 1), 0, 10).size());
+        }
+    }
+
+    // check that the pages of a sanctuary over the on-disk store hand out the living primates, not copies read back from disk
+    @Test
+    public void testSanctuaryPagesShowLivePrimates() throws IOException {
+        try (BTreePrimateStore store = new BTreePrimateStore(file)) {
+            Sanctuary sanctuary = new Sanctuary(Clock.systemUTC(), store);
+            Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+            Primate ann = sanctuary.addPrimateToSanctuary("Ann", Primate.Species.SAKI, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+
+            // the listings are built on the first page, after both primates arrived
+            Page<Primate> first = sanctuary.getIsolationPage(Page.Order.BY_NAME, 1, null);
+            assertSame(ann, first.getItems().get(0));
+            Page<Primate> second = sanctuary.getIsolationPage(Page.Order.BY_NAME, 1, first.getNextCursor());
+            Primate item = second.getItems().get(0);
+            assertSame(leo, item);
+
+            sanctuary.medicalCare(leo);
+            assertTrue(sanctuary.getIsolationPage(Page.Order.BY_NAME, 1, first.getNextCursor()).getItems().get(0).medicatedBefore());
+            assertEquals(Outcome.ACCEPTED, sanctuary.tryMoveToEnclosure(item));
+            assertSame(leo, sanctuary.getEnclosurePage(Primate.Species.DRILL, Page.Order.BY_ID, 10, null).getItems().get(0));
+            assertEquals(1, sanctuary.getIsolationPage(Page.Order.BY_ID, 10, null).getItems().size());
+            assertEquals(1, sanctuary.snapshot().getEnclosurePopulation(Primate.Species.DRILL));
+        }
+    }
+
+    // check that lookups by ID behave the same with the on-disk store, and that concurrent intakes all reach the file
+    @Test
+    public void testSanctuaryWritesBehindConcurrentIntakes() throws Exception {
+        try (BTreePrimateStore store = new BTreePrimateStore(file)) {
+            Sanctuary sanctuary = new Sanctuary(Clock.systemUTC(), store);
+            int threads = 4;
+            int perThread = 200;
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int worker = t;
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Primate primate = sanctuary.addPrimateToSanctuary("W" + worker + "-" + i, Primate.Species.HOWLER,
+                                Primate.Sex.FEMALE, 30, 10, 3, Primate.Food.LEAVES);
+                        sanctuary.medicalCare(primate);
+                        sanctuary.moveToEnclosure(primate);
+                    }
+                }));
+            }
+            for (Thread thread : workers) {
+                thread.start();
+            }
+            for (Thread thread : workers) {
+                thread.join();
+            }
+
+            int enclosure = -(Primate.Species.HOWLER.ordinal() + 1);
+            assertEquals(threads * perThread, store.size());
+            assertEquals(threads * perThread, store.residents(enclosure, 0, Integer.MAX_VALUE).size());
+            for (int id = 0; id < threads * perThread; id++) {
+                Primate live = sanctuary.findPrimateById(id);
+                assertEquals(id, live.getId());
+                assertEquals(enclosure, store.getLocation(id));
+                assertTrue(store.get(id).medicatedBefore());
+            }
+
+            Primate first = sanctuary.getEnclosureResidentsAt(Primate.Species.HOWLER, Instant.now()).get(0);
+            assertSame(first, sanctuary.findPrimateById(first.getId()));
+            assertTrue(sanctuary.getEnclosureForSpecies(Primate.Species.HOWLER).getPrimates().contains(first));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package primates;
+
+import org.junit.Test;
+import primates.Controller.BatchController;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class BatchControllerTest {
+
+    // check whether a script can take a primate from intake to its enclosure
+    @Test
+    public void testScriptMovesPrimateToEnclosure() throws IOException {
+        Sanctuary sanctuary = new Sanctuary();
+        StringWriter out = new StringWriter();
+        StringWriter err = new StringWriter();
+        BatchController controller = new BatchController(sanctuary, new PrintWriter(out), new PrintWriter(err));
+
+        int failures = controller.run(new StringReader(
+                "# intake\n"
+                        + "add \"Big Al\" saki female 60 20 7 leaves\n"
+                        + "medicate \"Big Al\"\n"
+                        + "move \"Big Al\"\n"
+                        + "census\n"));
+
+        assertEquals("", err.toString());
+        assertEquals(0, failures);
+        assertEquals(1, sanctuary.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().size());
+        assertTrue(out.toString().contains("Name: Big Al, Age: 7"));
+    }
+
+    // check whether failing commands are reported with their line number and do not stop the script
+    @Test
+    public void testFailuresAreReportedAndSkipped() throws IOException {
+        StringWriter err = new StringWriter();
+        BatchController controller = new BatchController(new Sanctuary(), new PrintWriter(new StringWriter()), new PrintWriter(err));
+
+        int failures = controller.run(new StringReader("add Leo DRILL MALE 80 25 5 FRUITS\nmove Leo\nfly Leo\nmedicate Leo\n"));
+
+        assertEquals(2, failures);
+        assertTrue(err.toString().contains("line 2: This primate has not been medicated yet."));
+        assertTrue(err.toString().contains("line 3: Unknown command: fly"));
+    }
+
+    // check whether a script run on the calling thread reports the same way as one with a parser thread
+    @Test
+    public void testInlineRunMatchesThreadedRun() throws IOException {
+        String script = "add Leo DRILL MALE 80 25 5 FRUITS\nmove Leo\nfly Leo\nmedicate Leo\nmove Leo\n";
+        StringWriter threadedErr = new StringWriter();
+        StringWriter inlineErr = new StringWriter();
+        Sanctuary sanctuary = new Sanctuary();
+
+        int threaded = new BatchController(new Sanctuary(), new PrintWriter(new StringWriter()), new PrintWriter(threadedErr)).run(new StringReader(script));
+        int inline = new BatchController(sanctuary, new PrintWriter(new StringWriter()), new PrintWriter(inlineErr)).runInline(new StringReader(script));
+
+        assertEquals(2, inline);
+        assertEquals(threaded, inline);
+        assertEquals(threadedErr.toString(), inlineErr.toString());
+        assertEquals(1, sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().size());
+    }
+}
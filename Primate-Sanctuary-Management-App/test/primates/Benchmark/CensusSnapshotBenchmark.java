@@ -0,0 +1,101 @@
+package primates.Benchmark;
+
+import primates.Model.CensusSnapshot;
+import primates.Model.Outcome;
+import primates.Model.Primate;
+import primates.Model.PrimateArena;
+import primates.Model.Sanctuary;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures intake while census reports run at the same time.
+ * The sanctuary is filled with the given number of enclosure residents; then one thread keeps taking primates in,
+ * treating and releasing them, first alone and then while another thread builds full census reports from snapshots.
+ * Also reports what taking a snapshot and publishing a new version cost.
+ * <pre>
+ * java primates.Benchmark.CensusSnapshotBenchmark [residents] [seconds]
+ * </pre>
+ */
+public class CensusSnapshotBenchmark {
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+
+    public static void main(String[] args) throws InterruptedException {
+        int residents = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+
+        Sanctuary sanctuary = new Sanctuary();
+        PrimateArena arena = new PrimateArena(residents);
+        for (int i = 0; i < residents; i++) {
+            sanctuary.intake(arena, "R" + i, SPECIES[i & 7], Primate.Sex.MALE, 10, 5, 1 + i % 30, Primate.Food.SEEDS);
+            Primate primate = arena.last();
+            sanctuary.medicalCare(primate);
+            sanctuary.removePrimateFromISO(primate);
+            sanctuary.addPrimateToENC(primate);
+        }
+        long start = System.nanoTime();
+        CensusSnapshot first = sanctuary.snapshot();
+        System.out.printf("first snapshot of %,d residents: %.1f ms%n", first.size(), (System.nanoTime() - start) / 1e6);
+
+        int snapshots = 1_000_000;
+        start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < snapshots; i++) {
+            sink += sanctuary.snapshot().getVersion();
+        }
+        System.out.printf("snapshot(): %.1f ns%n", (System.nanoTime() - start) / (double) snapshots);
+
+        // warm up, then intake alone and intake next to a reporting thread
+        intakeFor(sanctuary, seconds / 3, null);
+        double alone = intakeFor(sanctuary, seconds, null);
+        AtomicInteger reports = new AtomicInteger();
+        double withReports = intakeFor(sanctuary, seconds, reports);
+        System.out.printf("intake alone:        %,.0f cycles/s%n", alone);
+        System.out.printf("intake with reports: %,.0f cycles/s (%,d full census reports of %,d lines ran meanwhile)%n",
+                withReports, reports.get(), sanctuary.getAllNames().size() - 1);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    // run intake cycles for the given time, with a reporting thread if a counter is given; returns cycles per second
+    private static double intakeFor(Sanctuary sanctuary, double seconds, AtomicInteger reports) throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = null;
+        if (reports != null) {
+            reader = new Thread(() -> {
+                while (!done.get()) {
+                    // a report works on one version, however long it takes
+                    CensusSnapshot snapshot = sanctuary.snapshot();
+                    if (snapshot.getAllNames().size() != snapshot.size() + 1) {
+                        throw new IllegalStateException("inconsistent report");
+                    }
+                    reports.incrementAndGet();
+                }
+            });
+            reader.start();
+        }
+        PrimateArena arena = new PrimateArena(0);
+        long cycles = 0;
+        long start = System.nanoTime();
+        long end = start + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 1000; i++) {
+                if (sanctuary.intake(arena, "Name" + (i & 1023), SPECIES[i & 7], Primate.Sex.FEMALE, 10, 5, 2, Primate.Food.FRUITS) != Outcome.ACCEPTED) {
+                    throw new IllegalStateException("intake rejected");
+                }
+                Primate primate = arena.last();
+                sanctuary.medicalCare(primate);
+                sanctuary.removePrimateFromISO(primate);
+            }
+            cycles += 1000;
+        }
+        double rate = cycles / ((System.nanoTime() - start) / 1e9);
+        done.set(true);
+        if (reader != null) {
+            reader.join();
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,71 @@
+package primates.Benchmark;
+
+import primates.Model.Enclosure;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares ways of finding the enclosure for a primate's species: the old String-keyed HashMap
+ * (species.toString() and a String hash on every lookup), an EnumMap, and the species-ordinal array
+ * Sanctuary.getEnclosureForSpecies uses now.
+ * <pre>
+ * java primates.Benchmark.EnclosureRoutingBenchmark [lookups]
+ * </pre>
+ */
+public class EnclosureRoutingBenchmark {
+    // keeps the JIT from dropping the lookups
+    private static long sink;
+
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        Sanctuary sanctuary = new Sanctuary();
+        Map<String, Enclosure> byName = new HashMap<>();
+        Map<Primate.Species, Enclosure> byEnum = new EnumMap<>(Primate.Species.class);
+        for (Primate.Species species : Primate.Species.values()) {
+            byName.put(species.toString(), sanctuary.getEnclosureForSpecies(species));
+            byEnum.put(species, sanctuary.getEnclosureForSpecies(species));
+        }
+
+        // a random stream of species, as primates arrive in no particular order
+        Primate.Species[] stream = new Primate.Species[4096];
+        Random random = new Random(1);
+        for (int i = 0; i < stream.length; i++) {
+            stream[i] = Primate.Species.values()[random.nextInt(Primate.Species.values().length)];
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long hashMap = time(() -> {
+                for (int i = 0; i < lookups; i++) {
+                    sink += byName.get(stream[i & 4095].toString()).getCapacity();
+                }
+            });
+            long enumMap = time(() -> {
+                for (int i = 0; i < lookups; i++) {
+                    sink += byEnum.get(stream[i & 4095]).getCapacity();
+                }
+            });
+            long array = time(() -> {
+                for (int i = 0; i < lookups; i++) {
+                    sink += sanctuary.getEnclosureForSpecies(stream[i & 4095]).getCapacity();
+                }
+            });
+            if (round == 2) {
+                System.out.printf("HashMap<String>: %.2f ns/lookup%n", hashMap / (double) lookups);
+                System.out.printf("EnumMap:         %.2f ns/lookup%n", enumMap / (double) lookups);
+                System.out.printf("ordinal array:   %.2f ns/lookup%n", array / (double) lookups);
+                System.out.println("(checksum " + sink + ")");
+            }
+        }
+    }
+
+    private static long time(Runnable body) {
+        long start = System.nanoTime();
+        body.run();
+        return System.nanoTime() - start;
+    }
+}
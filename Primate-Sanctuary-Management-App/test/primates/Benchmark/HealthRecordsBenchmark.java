@@ -0,0 +1,120 @@
+package primates.Benchmark;
+
+import primates.Model.HealthRecords;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the health records with years of daily weighings across a large population.
+ * Reports the heap used per stored sample and the time of a 90-day species trend, which is compared against
+ * decoding the same period from the raw samples of every primate.
+ * <pre>
+ * java primates.Benchmark.HealthRecordsBenchmark [primates] [days]
+ * </pre>
+ */
+public class HealthRecordsBenchmark {
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+
+    // a clock moved forward by hand, so years pass in seconds
+    private static final class SteppedClock extends Clock {
+        private long now = Instant.parse("2021-01-01T07:00:00Z").toEpochMilli();
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return now;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now);
+        }
+    }
+
+    public static void main(String[] args) {
+        int primates = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 3 * 365;
+
+        SteppedClock clock = new SteppedClock();
+        Sanctuary sanctuary = new Sanctuary(clock);
+        Primate[] population = new Primate[primates];
+        for (int i = 0; i < primates; i++) {
+            // only the IDs are needed, so the primates are registered by passing through isolation
+            population[i] = new Primate("P" + i, SPECIES[i % SPECIES.length], Primate.Sex.FEMALE, 50, 20, 5, Primate.Food.FRUITS);
+            sanctuary.addPrimateToISO(population[i]);
+            sanctuary.medicalCare(population[i]);
+            sanctuary.removePrimateFromISO(population[i]);
+        }
+
+        long before = usedHeap();
+        SplittableRandom random = new SplittableRandom(3);
+        long start = System.nanoTime();
+        for (int day = 0; day < days; day++) {
+            for (Primate primate : population) {
+                int weight = Math.max(1, primate.getWeight() + random.nextInt(-1, 2));
+                sanctuary.recordMeasurement(primate, HealthRecords.Measure.WEIGHT, weight);
+            }
+            clock.now += Duration.ofDays(1).toMillis();
+        }
+        long recorded = System.nanoTime() - start;
+        long samples = (long) primates * days;
+        long after = usedHeap();
+        System.out.printf("%,d samples recorded at %.0f ns each, %.2f heap bytes per sample%n",
+                samples, (double) recorded / samples, (double) (after - before) / samples);
+
+        long from = clock.millis() - Duration.ofDays(90).toMillis();
+        long to = clock.millis() + 1;
+        HealthRecords records = sanctuary.getHealthRecords();
+        double sink = 0;
+        for (int round = 0; round < 50; round++) {
+            long trendStart = System.nanoTime();
+            HealthRecords.Trend trend = sanctuary.getHealthTrend(Primate.Species.DRILL, HealthRecords.Measure.WEIGHT, Duration.ofDays(90));
+            long trendTime = System.nanoTime() - trendStart;
+            sink += trend.getMean(trend.size() - 1);
+
+            long rawStart = System.nanoTime();
+            long sum = 0;
+            for (Primate primate : population) {
+                if (primate.getSpecies() == Primate.Species.DRILL) {
+                    HealthRecords.Samples raw = records.samples(primate.getId(), HealthRecords.Measure.WEIGHT, from, to);
+                    for (int i = 0; i < raw.size(); i++) {
+                        sum += raw.getValue(i);
+                    }
+                }
+            }
+            long rawTime = System.nanoTime() - rawStart;
+            sink += sum;
+            if (round == 49) {
+                System.out.printf("90-day DRILL weight trend: %.2f ms from rollups, %.2f ms decoding raw samples (%d weekly buckets)%n",
+                        trendTime / 1e6, rawTime / 1e6, trend.size());
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
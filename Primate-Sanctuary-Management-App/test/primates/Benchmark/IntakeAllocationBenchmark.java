@@ -0,0 +1,98 @@
+package primates.Benchmark;
+
+import primates.Model.Outcome;
+import primates.Model.Primate;
+import primates.Model.PrimateArena;
+import primates.Model.Sanctuary;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap allocated per intake, with the thread allocation counter of the running JVM.
+ * Each cycle takes a primate in, treats it and releases its cage again, so the isolation cages never run full.
+ * The fast path (Sanctuary.intake with a PrimateArena and reserved capacity) is compared to addPrimateToSanctuary,
+ * and rejected intakes are measured with every cage taken.
+ * <pre>
+ * java primates.Benchmark.IntakeAllocationBenchmark [cycles]
+ * </pre>
+ */
+public class IntakeAllocationBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+    // intake names are taken from a fixed set, as in a sanctuary where the same names come back
+    private static final String[] NAMES = new String[1024];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            NAMES[i] = "Name" + i;
+        }
+    }
+
+    public static void main(String[] args) {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // warm up both paths so the measured rounds run compiled code
+        long[] fast = new long[2];
+        long[] throwing = new long[2];
+        for (int round = 0; round < 3; round++) {
+            runFastPath(Math.min(cycles, 200_000), fast);
+            runThrowingPath(Math.min(cycles, 200_000), throwing);
+        }
+        runFastPath(cycles, fast);
+        runThrowingPath(cycles, throwing);
+
+        Sanctuary full = new Sanctuary();
+        PrimateArena arena = new PrimateArena(20);
+        for (int i = 0; i < 20; i++) {
+            full.intake(arena, NAMES[i], Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        int rejected = 0;
+        for (int i = 0; i < cycles; i++) {
+            if (full.intake(arena, NAMES[i & 1023], Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS) == Outcome.ISOLATION_FULL) {
+                rejected++;
+            }
+        }
+        long rejectedBytes = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("fast path:     %,d cycles, %.1f bytes/cycle, %.0f ns/cycle (arena and reserve excluded)%n",
+                cycles, fast[1] / (double) cycles, fast[0] / (double) cycles);
+        System.out.printf("throwing path: %,d cycles, %.1f bytes/cycle, %.0f ns/cycle%n",
+                cycles, throwing[1] / (double) cycles, throwing[0] / (double) cycles);
+        System.out.printf("rejected:      %,d intakes, %.1f bytes/intake%n", rejected, rejectedBytes / (double) rejected);
+        System.out.println("(the fast path figure includes what is kept for good: the history checkpoints and the encoded treatment of every cycle)");
+    }
+
+    // intake, treatment and release through the allocation-free path; stores the time and bytes spent in the cycles
+    private static void runFastPath(int cycles, long[] result) {
+        Sanctuary sanctuary = new Sanctuary();
+        sanctuary.reserve(cycles);
+        PrimateArena arena = new PrimateArena(cycles);
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            if (sanctuary.intake(arena, NAMES[i & 1023], SPECIES[i & 7], Primate.Sex.FEMALE, 10, 5, 2, Primate.Food.FRUITS) != Outcome.ACCEPTED) {
+                throw new IllegalStateException("intake rejected");
+            }
+            Primate primate = arena.last();
+            sanctuary.medicalCare(primate);
+            sanctuary.removePrimateFromISO(primate);
+        }
+        result[0] = System.nanoTime() - start;
+        result[1] = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+    }
+
+    // the same cycle through addPrimateToSanctuary
+    private static void runThrowingPath(int cycles, long[] result) {
+        Sanctuary sanctuary = new Sanctuary();
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            Primate primate = sanctuary.addPrimateToSanctuary(NAMES[i & 1023], SPECIES[i & 7], Primate.Sex.FEMALE, 10, 5, 2, Primate.Food.FRUITS);
+            sanctuary.medicalCare(primate);
+            sanctuary.removePrimateFromISO(primate);
+        }
+        result[0] = System.nanoTime() - start;
+        result[1] = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+    }
+}
@@ -0,0 +1,130 @@
+package primates.Benchmark;
+
+import primates.Model.Enclosure;
+import primates.Model.Outcome;
+import primates.Model.PlacementRules;
+import primates.Model.Primate;
+import primates.Model.PrimateArena;
+import primates.Model.Sanctuary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the placement rules engine.
+ * First the time of one placement decision against enclosures of growing size, which should stay flat,
+ * then how many primates of random intake cohorts find a place when moved one by one in arrival order
+ * compared to Sanctuary.placeCohort, under a set of sex, food and weight rules.
+ * <pre>
+ * java primates.Benchmark.PlacementBenchmark [cohorts]
+ * </pre>
+ */
+public class PlacementBenchmark {
+    private static final PlacementRules RULES = PlacementRules.NONE
+            .withSeparatedAges(0, 1, 15, 31)
+            .withWeightSpread(1)
+            .withMaxFoods(2)
+            .withMaxShare(Primate.Sex.MALE, 50, 1);
+    private static final Primate.Food[] FOODS = Primate.Food.values();
+
+    public static void main(String[] args) {
+        int cohorts = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        for (int residents : new int[]{10, 1_000, 100_000}) {
+            Sanctuary sanctuary = new Sanctuary();
+            sanctuary.setPlacementRules(RULES);
+            PrimateArena arena = new PrimateArena(residents);
+            for (int i = 0; i < residents; i++) {
+                sanctuary.intake(arena, "R" + i, Primate.Species.SAKI, i % 2 == 0 ? Primate.Sex.FEMALE : Primate.Sex.MALE,
+                        30, 8 + i % 8, 3 + i % 8, FOODS[i % 2]);
+                Primate primate = arena.last();
+                sanctuary.medicalCare(primate);
+                sanctuary.removePrimateFromISO(primate);
+                if (sanctuary.tryAddPrimateToENC(primate) != Outcome.ACCEPTED) {
+                    throw new IllegalStateException("resident rejected");
+                }
+            }
+            Enclosure enclosure = sanctuary.getEnclosureForSpecies(Primate.Species.SAKI);
+            Primate[] candidates = {
+                    new Primate("Fits", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 12, 5, Primate.Food.EGGS),
+                    new Primate("Heavy", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 40, 5, Primate.Food.EGGS),
+                    new Primate("Infant", Primate.Species.SAKI, Primate.Sex.MALE, 30, 10, 1, Primate.Food.EGGS),
+                    new Primate("Food", Primate.Species.SAKI, Primate.Sex.MALE, 30, 10, 5, Primate.Food.SEEDS)};
+            int decisions = 2_000_000;
+            int accepted = 0;
+            for (int round = 0; round < 2; round++) {
+                accepted = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < decisions; i++) {
+                    if (RULES.check(enclosure, candidates[i & 3]).isAccepted()) {
+                        accepted++;
+                    }
+                }
+                if (round == 1) {
+                    System.out.printf("%,7d residents: %.1f ns/decision (%d of 4 candidates fit)%n",
+                            residents, (System.nanoTime() - start) / (double) decisions, accepted * 4 / decisions);
+                }
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(11);
+        long oneByOne = 0;
+        long together = 0;
+        long offered = 0;
+        long planNanos = 0;
+        for (int c = 0; c < cohorts; c++) {
+            long seed = random.nextLong();
+            Sanctuary arrival = cohortSanctuary();
+            for (Primate primate : cohort(arrival, seed)) {
+                if (arrival.tryMoveToEnclosure(primate) == Outcome.ACCEPTED) {
+                    oneByOne++;
+                }
+            }
+            Sanctuary planned = cohortSanctuary();
+            List<Primate> cohort = cohort(planned, seed);
+            offered += cohort.size();
+            long start = System.nanoTime();
+            Map<Primate, Outcome> outcomes = planned.placeCohort(cohort);
+            planNanos += System.nanoTime() - start;
+            for (Outcome outcome : outcomes.values()) {
+                if (outcome == Outcome.ACCEPTED) {
+                    together++;
+                }
+            }
+        }
+        System.out.printf("%,d cohorts of %d into 3 enclosures of 8: arrival order placed %.1f%%, placeCohort %.1f%% (%.0f us/cohort)%n",
+                cohorts, offered / cohorts, 100.0 * oneByOne / offered, 100.0 * together / offered, planNanos / 1e3 / cohorts);
+    }
+
+    // a sanctuary with the rules and three small enclosures for SAKI
+    private static Sanctuary cohortSanctuary() {
+        Sanctuary sanctuary = new Sanctuary();
+        sanctuary.setPlacementRules(RULES);
+        sanctuary.addEnclosure(Primate.Species.SAKI, 8);
+        sanctuary.addEnclosure(Primate.Species.SAKI, 8);
+        // the main enclosure is unbounded; fill it with primates no newcomer can join
+        Primate blocker = sanctuary.addPrimateToSanctuary("Blocker", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 1000, 20, Primate.Food.TREE_SAP);
+        sanctuary.medicalCare(blocker);
+        sanctuary.moveToEnclosure(blocker);
+        Primate other = sanctuary.addPrimateToSanctuary("Other", Primate.Species.SAKI, Primate.Sex.MALE, 30, 1000, 20, Primate.Food.INSECTS);
+        sanctuary.medicalCare(other);
+        sanctuary.moveToEnclosure(other);
+        return sanctuary;
+    }
+
+    // a cohort of 20 treated primates in isolation, the same for the same seed
+    private static List<Primate> cohort(Sanctuary sanctuary, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Primate> cohort = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Primate primate = sanctuary.addPrimateToSanctuary("C" + i, Primate.Species.SAKI,
+                    random.nextInt(3) == 0 ? Primate.Sex.FEMALE : Primate.Sex.MALE,
+                    30, 6 + random.nextInt(30), 2 + random.nextInt(12), FOODS[random.nextInt(3)]);
+            sanctuary.medicalCare(primate);
+            cohort.add(primate);
+        }
+        return cohort;
+    }
+}
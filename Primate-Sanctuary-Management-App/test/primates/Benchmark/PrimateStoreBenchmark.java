@@ -0,0 +1,73 @@
+package primates.Benchmark;
+
+import primates.Model.BTreePrimateStore;
+import primates.Model.InMemoryPrimateStore;
+import primates.Model.Primate;
+import primates.Model.PrimateStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the in-memory primate store with the on-disk B-tree store.
+ * Loads the given number of primates, then reports random lookup latency percentiles, a range scan of one location,
+ * the cache hit ratio and the file size. The B-tree store gets a cache of 1024 pages (4 MB), far less than its file.
+ * <pre>
+ * java primates.Benchmark.PrimateStoreBenchmark [primates]
+ * </pre>
+ */
+public class PrimateStoreBenchmark {
+    private static final Primate.Species[] SPECIES = Primate.Species.values();
+
+    public static void main(String[] args) throws IOException {
+        int primates = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        run("in-memory", new InMemoryPrimateStore(), primates, null);
+        Path file = Files.createTempFile("primates", ".store");
+        try {
+            try (BTreePrimateStore store = new BTreePrimateStore(file, 1024)) {
+                run("b-tree", store, primates, store);
+            }
+            System.out.printf("b-tree file: %.1f MB%n", Files.size(file) / 1e6);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(String label, PrimateStore store, int primates, BTreePrimateStore tree) {
+        long start = System.nanoTime();
+        for (int i = 0; i < primates; i++) {
+            Primate primate = new Primate("P" + i, SPECIES[i % SPECIES.length], Primate.Sex.FEMALE, 50, 20, 5, Primate.Food.FRUITS);
+            store.add(primate);
+            // a tenth of the primates still live in an enclosure
+            if (i % 10 == 0) {
+                store.update(primate, -(primate.getSpecies().ordinal() + 1));
+            }
+        }
+        double load = (System.nanoTime() - start) / 1e9;
+
+        SplittableRandom random = new SplittableRandom(5);
+        int lookups = 200_000;
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int id = random.nextInt(primates);
+            long lookupStart = System.nanoTime();
+            if (store.get(id) == null) {
+                throw new AssertionError("missing primate " + id);
+            }
+            latencies[i] = System.nanoTime() - lookupStart;
+        }
+        Arrays.sort(latencies);
+
+        long scanStart = System.nanoTime();
+        int scanned = store.residents(-(Primate.Species.DRILL.ordinal() + 1), 0, 10_000).size();
+        double scan = (System.nanoTime() - scanStart) / 1e6;
+
+        System.out.printf("%-9s load %.2f s, lookup p50 %.1f us, p99 %.1f us, p99.9 %.1f us, scan of %d residents %.1f ms%s%n",
+                label, load, latencies[lookups / 2] / 1e3, latencies[lookups * 99 / 100] / 1e3,
+                latencies[lookups * 999 / 1000] / 1e3, scanned, scan,
+                tree == null ? "" : String.format(", cache hits %.1f%%", tree.getCacheHitRatio() * 100));
+    }
+}
@@ -0,0 +1,60 @@
+package primates.Benchmark;
+
+import primates.Model.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the quarantine timing wheel with many concurrent quarantines.
+ * Timers get random deadlines over the next few weeks, some are cancelled, and time then moves forward in steps of one
+ * minute, as if the sanctuary checked its quarantines once a minute.
+ * <pre>
+ * java primates.Benchmark.QuarantineBenchmark [timers]
+ * </pre>
+ */
+public class QuarantineBenchmark {
+    private static final long SECOND = 1000;
+    private static final long DAY = 24 * 3600 * SECOND;
+
+    public static void main(String[] args) {
+        int timers = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        for (int round = 0; round < 3; round++) {
+            run(timers, round == 2);
+        }
+    }
+
+    private static void run(int timers, boolean report) {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(SECOND, 0);
+        List<TimingWheel.Timer<Integer>> handles = new ArrayList<>(timers);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < timers; i++) {
+            handles.add(wheel.schedule(i, 7 * DAY + (long) (random.nextDouble() * 21 * DAY)));
+        }
+        long scheduled = System.nanoTime();
+        int cancelled = 0;
+        for (int i = 0; i < timers; i += 20) {
+            if (wheel.cancel(handles.get(i))) {
+                cancelled++;
+            }
+        }
+        long cancelledAt = System.nanoTime();
+        long expired = 0;
+        long steps = 0;
+        for (long now = 0; wheel.size() > 0; now += 60 * SECOND) {
+            expired += wheel.advanceTo(now).size();
+            steps++;
+        }
+        long end = System.nanoTime();
+
+        if (report) {
+            System.out.printf("schedule: %,d timers, %.0f ns/timer%n", timers, (scheduled - start) / (double) timers);
+            System.out.printf("cancel:   %,d timers, %.0f ns/timer%n", cancelled, (cancelledAt - scheduled) / (double) cancelled);
+            System.out.printf("expire:   %,d timers over %,d one-minute steps, %.0f ns/timer (%.1f ms total)%n",
+                    expired, steps, (end - cancelledAt) / (double) expired, (end - cancelledAt) / 1e6);
+        }
+    }
+}
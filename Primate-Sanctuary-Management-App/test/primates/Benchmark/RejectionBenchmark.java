@@ -0,0 +1,86 @@
+package primates.Benchmark;
+
+import primates.Model.Outcome;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+/**
+ * Compares the throwing Sanctuary methods with their try* counterparts on workloads where almost every request is rejected:
+ * intakes into a full isolation, and moves of primates that have not been medicated yet.
+ * <pre>
+ * java primates.Benchmark.RejectionBenchmark [operations]
+ * </pre>
+ */
+public class RejectionBenchmark {
+    // keeps the JIT from dropping the measured calls
+    private static long sink;
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Sanctuary full = new Sanctuary();
+        for (int i = 0; i < 20; i++) {
+            full.addPrimateToSanctuary("Resident" + i, Primate.Species.SAKI, Primate.Sex.FEMALE, 10, 5, 2, Primate.Food.NUTS);
+        }
+        Primate unmedicated = full.findPrimateByName("Resident0");
+
+        for (int round = 0; round < 3; round++) {
+            int warmup = Math.min(operations, 200_000);
+            intakeThrowing(full, warmup);
+            intakeTry(full, warmup);
+            moveThrowing(full, unmedicated, warmup);
+            moveTry(full, unmedicated, warmup);
+        }
+
+        report("intake, full isolation, throwing", intakeThrowing(full, operations), operations);
+        report("intake, full isolation, try*    ", intakeTry(full, operations), operations);
+        report("move, not medicated, throwing   ", moveThrowing(full, unmedicated, operations), operations);
+        report("move, not medicated, try*       ", moveTry(full, unmedicated, operations), operations);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long intakeThrowing(Sanctuary sanctuary, int operations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            try {
+                sanctuary.addPrimateToSanctuary("Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+            } catch (IllegalStateException e) {
+                sink += e.getMessage().length();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long intakeTry(Sanctuary sanctuary, int operations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            Outcome outcome = sanctuary.tryAddPrimateToSanctuary("Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+            sink += outcome.getMessage().length();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long moveThrowing(Sanctuary sanctuary, Primate primate, int operations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            try {
+                sanctuary.moveToEnclosure(primate);
+            } catch (IllegalArgumentException e) {
+                sink += e.getMessage().length();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long moveTry(Sanctuary sanctuary, Primate primate, int operations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink += sanctuary.tryMoveToEnclosure(primate).getMessage().length();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String scenario, long nanos, int operations) {
+        System.out.printf("%s %,8.0f ns/op  %,12.0f ops/s%n", scenario, nanos / (double) operations, operations / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,101 @@
+package primates.Benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures cold start of the application by launching fresh JVMs.
+ * Each run starts primates.Main with --startup-time --exit-when-ready and collects the milestones it prints:
+ * "gui first frame" and "gui interactive" for the Swing path (time to first interactive frame), and "headless ready".
+ * <pre>
+ * java -cp &lt;classpath&gt; primates.Benchmark.StartupBenchmark [runs] [extra JVM options...]
+ * </pre>
+ * Pass e.g. -XX:SharedArchiveFile=primates.jsa as an extra option to compare against an AppCDS archive,
+ * or --load=&lt;snapshot&gt; to start from a saved sanctuary.
+ */
+public class StartupBenchmark {
+    private static final Pattern MILESTONE = Pattern.compile("startup \\((.+)\\): (\\d+) ms");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        List<String> jvmOptions = new ArrayList<>();
+        List<String> appOptions = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--load=")) {
+                appOptions.add("--load");
+                appOptions.add(args[i].substring("--load=".length()));
+            } else {
+                jvmOptions.add(args[i]);
+            }
+        }
+
+        report("headless", runs, jvmOptions, appOptions, true);
+        report("gui", runs, jvmOptions, appOptions, false);
+    }
+
+    // start the application several times and print the median and best time of every milestone
+    private static void report(String mode, int runs, List<String> jvmOptions, List<String> appOptions, boolean headless)
+            throws IOException, InterruptedException {
+        List<String> milestones = new ArrayList<>();
+        List<long[]> times = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.javaBinary());
+            command.addAll(jvmOptions);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add("primates.Main");
+            if (headless) {
+                command.add("--headless");
+            }
+            command.addAll(appOptions);
+            command.add("--startup-time");
+            command.add("--exit-when-ready");
+
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            process.getOutputStream().close();
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    Matcher matcher = MILESTONE.matcher(line);
+                    if (!matcher.find()) {
+                        continue;
+                    }
+                    int index = milestones.indexOf(matcher.group(1));
+                    if (index < 0) {
+                        milestones.add(matcher.group(1));
+                        times.add(new long[runs]);
+                        index = milestones.size() - 1;
+                    }
+                    times.get(index)[run] = Long.parseLong(matcher.group(2));
+                }
+            }
+            if (process.waitFor() != 0) {
+                System.out.println(mode + ": run " + run + " failed (no display available?)");
+                return;
+            }
+        }
+        if (milestones.isEmpty()) {
+            System.out.println(mode + ": no startup milestones reported (no display available?)");
+        }
+        for (int i = 0; i < milestones.size(); i++) {
+            long[] sorted = times.get(i).clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-20s median %5d ms, best %5d ms over %d runs%n", milestones.get(i), sorted[runs / 2], sorted[0], runs);
+        }
+    }
+
+    // helper to locate the java launcher of the running JVM
+    private static final class Paths {
+        static String javaBinary() {
+            return java.nio.file.Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package primates.Benchmark;
+
+import primates.Model.HousingAbstract;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.SanctuaryTransaction;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures transaction throughput and conflict rate for concurrent transfers.
+ * Every thread owns a few isolation cages with primates in them and keeps rotating the primates between its cages
+ * (one transaction moves all of them at once). In the "disjoint" scenario no two threads share a cage, so no transfer
+ * may ever conflict; in the "shared" scenario all threads rotate through the same cages and conflicts are expected.
+ * <pre>
+ * java primates.Benchmark.TransferConflictBenchmark [threads] [seconds]
+ * </pre>
+ */
+public class TransferConflictBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        run("disjoint", threads, seconds, false);
+        run("shared", threads, seconds, true);
+    }
+
+    private static void run(String scenario, int threads, int seconds, boolean shared) throws InterruptedException {
+        Sanctuary sanctuary = new Sanctuary();
+        // 20 cages: every thread gets cagesPerThread cages, one of them kept empty so primates can rotate
+        int cagesPerThread = shared ? 20 : Math.max(2, 20 / threads);
+        int usableThreads = shared ? threads : Math.min(threads, 20 / cagesPerThread);
+        for (int i = 0; i < 20; i++) {
+            boolean keepEmpty = shared ? i == 19 : i % cagesPerThread == cagesPerThread - 1;
+            Primate primate = sanctuary.addPrimateToSanctuary("P" + i, Primate.Species.SAKI, Primate.Sex.FEMALE, 50, 20, 4, Primate.Food.FRUITS);
+            sanctuary.medicalCare(primate);
+            if (keepEmpty) {
+                sanctuary.removePrimateFromISO(primate);
+                sanctuary.addPrimateToENC(primate);
+            }
+        }
+        AtomicLong commits = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(usableThreads);
+        for (int t = 0; t < usableThreads; t++) {
+            int first = shared ? 0 : t * cagesPerThread;
+            int last = shared ? 20 : first + cagesPerThread;
+            new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        rotate(sanctuary, first, last);
+                        commits.incrementAndGet();
+                    } catch (ConcurrentModificationException e) {
+                        conflicts.incrementAndGet();
+                    } catch (IllegalStateException | IllegalArgumentException e) {
+                        // another thread moved a primate between reading and staging; counts as a conflict as well
+                        conflicts.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        long attempts = commits.get() + conflicts.get();
+        System.out.printf("%-8s threads=%d commits=%d (%.0f/s) conflicts=%d (%.2f%%)%n", scenario, usableThreads, commits.get(),
+                commits.get() / (double) seconds, conflicts.get(), attempts == 0 ? 0 : 100.0 * conflicts.get() / attempts);
+    }
+
+    // move every primate of the cages [first, last) one cage further, as one transaction
+    private static void rotate(Sanctuary sanctuary, int first, int last) {
+        List<Primate> residents = new ArrayList<>();
+        List<HousingAbstract> targets = new ArrayList<>();
+        for (int i = first; i < last; i++) {
+            List<Primate> inCage = sanctuary.getIsolation(i).getPrimates();
+            if (!inCage.isEmpty()) {
+                residents.add(inCage.get(0));
+                targets.add(sanctuary.getIsolation(first + (i + 1 - first) % (last - first)));
+            }
+        }
+        SanctuaryTransaction transaction = sanctuary.beginTransaction();
+        for (int i = 0; i < residents.size(); i++) {
+            transaction.move(residents.get(i), targets.get(i));
+        }
+        transaction.commit();
+    }
+}
@@ -0,0 +1,172 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.CensusSnapshot;
+import primates.Model.HealthRecords;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class CensusSnapshotTest {
+    private Sanctuary sanctuary;
+
+    @Before
+    public void setUp() {
+        sanctuary = new Sanctuary();
+    }
+
+    // a snapshot keeps showing the sanctuary as it was, while later ones follow every change
+    @Test
+    public void testSnapshotsStayFrozen() {
+        Primate ana = sanctuary.addPrimateToSanctuary("Ana", Primate.Species.HOWLER, Primate.Sex.FEMALE, 40, 8, 4, Primate.Food.LEAVES);
+        Primate bo = sanctuary.addPrimateToSanctuary("Bo", Primate.Species.DRILL, Primate.Sex.MALE, 60, 20, 9, Primate.Food.NUTS);
+        CensusSnapshot before = sanctuary.snapshot();
+        assertEquals(2, before.size());
+        assertEquals(2, before.getIsolated().size());
+        assertSame(before, sanctuary.snapshot());
+
+        sanctuary.medicalCare(ana);
+        sanctuary.moveToEnclosure(ana);
+        sanctuary.medicalCare(bo);
+        sanctuary.removePrimateFromISO(bo);
+
+        CensusSnapshot after = sanctuary.snapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(1, after.size());
+        assertEquals(0, after.getIsolated().size());
+        assertEquals(1, after.getEnclosurePopulation(Primate.Species.HOWLER));
+        CensusSnapshot.Resident resident = after.find(ana.getId());
+        assertEquals("Ana", resident.getName());
+        assertTrue(resident.medicatedBefore());
+        assertFalse(resident.isIsolated());
+        assertNull(after.find(bo.getId()));
+
+        // the first snapshot has not changed
+        assertEquals(2, before.size());
+        assertFalse(before.find(ana.getId()).medicatedBefore());
+        assertTrue(before.find(ana.getId()).isIsolated());
+        assertEquals(0, before.getEnclosurePopulation(Primate.Species.HOWLER));
+        assertNotNull(before.find(bo.getId()));
+    }
+
+    // the reports read from the snapshot agree with the housings themselves
+    @Test
+    public void testReportsMatchTheHousings() {
+        List<Primate> primates = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Primate primate = new Primate("P" + (i * 7919 % 300), Primate.Species.values()[i % 8], Primate.Sex.MALE, 10, 5, 1 + i % 20, Primate.Food.SEEDS);
+            sanctuary.addPrimateToISO(primate);
+            sanctuary.medicalCare(primate);
+            sanctuary.removePrimateFromISO(primate);
+            sanctuary.addPrimateToENC(primate);
+            primates.add(primate);
+        }
+        sanctuary.snapshot();
+        // every third leaves again after the snapshots were switched on
+        for (int i = 0; i < primates.size(); i += 3) {
+            sanctuary.removePrimateFromENC(primates.get(i));
+        }
+
+        CensusSnapshot snapshot = sanctuary.snapshot();
+        assertEquals(200, snapshot.size());
+        for (Primate.Species species : Primate.Species.values()) {
+            List<CensusSnapshot.Resident> residents = snapshot.getEnclosureResidents(species);
+            List<Primate> housed = sanctuary.getEnclosureForSpecies(species).getPrimates();
+            assertEquals(housed.size(), residents.size());
+            for (int i = 1; i < residents.size(); i++) {
+                assertTrue(residents.get(i - 1).getId() < residents.get(i).getId());
+            }
+            for (CensusSnapshot.Resident resident : residents) {
+                assertTrue(housed.contains(sanctuary.findPrimateById(resident.getId())));
+            }
+        }
+        List<String> names = sanctuary.getAllNames();
+        assertEquals(201, names.size());
+        assertTrue(names.get(1).compareTo(names.get(2)) <= 0);
+        assertTrue(sanctuary.getEnclosureList().get(2).startsWith("Enclosure for HOWLER:\n"));
+    }
+
+    // a reader never sees a primate halfway through a move, while another thread keeps moving it back and forth
+    @Test
+    public void testMovesArePublishedWhole() throws InterruptedException {
+        Primate saki = sanctuary.addPrimateToSanctuary("Saki", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 3, 2, Primate.Food.FRUITS);
+        sanctuary.medicalCare(saki);
+        sanctuary.snapshot();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long version = -1;
+            while (!done.get() && failure.get() == null) {
+                CensusSnapshot snapshot = sanctuary.snapshot();
+                if (snapshot.getVersion() < version) {
+                    failure.set("version went back from " + version + " to " + snapshot.getVersion());
+                }
+                version = snapshot.getVersion();
+                if (snapshot.size() != 1) {
+                    failure.set("saw " + snapshot.size() + " primates at version " + version);
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 2000 && failure.get() == null; i++) {
+                sanctuary.moveToEnclosure(saki);
+                sanctuary.beginTransaction().move(saki, sanctuary.getIsolation(i % 20)).commit();
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertTrue(sanctuary.snapshot().find(saki.getId()).isIsolated());
+    }
+
+    // changes published side by side by several threads, single events and moves alike, all end up in the census
+    @Test
+    public void testConcurrentChangesAreAllPublished() throws InterruptedException {
+        sanctuary.snapshot();
+        List<Primate> moved = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 250; i++) {
+                        Primate primate = sanctuary.addPrimateToSanctuary("T" + thread + "-" + i, Primate.Species.values()[i % 8],
+                                Primate.Sex.FEMALE, 30, 3, 2, Primate.Food.FRUITS);
+                        sanctuary.medicalCare(primate);
+                        sanctuary.moveToEnclosure(primate);
+                        sanctuary.recordMeasurement(primate, HealthRecords.Measure.WEIGHT, 4 + i);
+                        moved.add(primate);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        CensusSnapshot census = sanctuary.snapshot();
+        assertEquals(1000, census.size());
+        for (Primate primate : moved) {
+            CensusSnapshot.Resident resident = census.find(primate.getId());
+            assertFalse(resident.isIsolated());
+            assertTrue(resident.medicatedBefore());
+            assertEquals(primate.getWeight(), resident.getWeight());
+        }
+    }
+}
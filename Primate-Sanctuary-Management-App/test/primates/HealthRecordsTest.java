@@ -0,0 +1,155 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Enclosure;
+import primates.Model.HealthRecords;
+import primates.Model.Outcome;
+import primates.Model.PlacementRules;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.SanctuaryTransaction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HealthRecordsTest {
+
+    private ManualClock clock;
+    private Sanctuary sanctuary;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock(Instant.parse("2024-01-01T08:00:00Z"));
+        sanctuary = new Sanctuary(clock);
+    }
+
+    @Test
+    public void testSamplesSurviveDeltaEncoding() {
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        Random random = new Random(7);
+        int days = 700;
+        long[] times = new long[days];
+        int[] weights = new int[days];
+        for (int day = 0; day < days; day++) {
+            times[day] = clock.millis();
+            // weights wander up and down, including large jumps, to exercise negative deltas and long varints
+            weights[day] = day % 97 == 0 ? 1 + random.nextInt(1_000_000) : 20 + random.nextInt(10);
+            sanctuary.recordMeasurement(leo, HealthRecords.Measure.WEIGHT, weights[day]);
+            clock.advance(Duration.ofDays(1).plusMinutes(random.nextInt(120)));
+        }
+        assertEquals(weights[days - 1], leo.getWeight());
+
+        HealthRecords records = sanctuary.getHealthRecords();
+        HealthRecords.Samples all = records.samples(leo.getId(), HealthRecords.Measure.WEIGHT, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(days, all.size());
+        for (int i = 0; i < days; i++) {
+            assertEquals(times[i], all.getTime(i));
+            assertEquals(weights[i], all.getValue(i));
+        }
+
+        // a range spanning a chunk boundary returns exactly the samples inside it
+        HealthRecords.Samples range = records.samples(leo.getId(), HealthRecords.Measure.WEIGHT, times[250], times[300]);
+        assertEquals(50, range.size());
+        assertEquals(weights[250], range.getValue(0));
+        assertEquals(weights[299], range.getValue(49));
+        assertEquals(0, records.samples(leo.getId(), HealthRecords.Measure.SIZE, Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testTrendMatchesRawSamples() {
+        Primate[] drills = new Primate[5];
+        for (int i = 0; i < drills.length; i++) {
+            drills[i] = sanctuary.addPrimateToSanctuary("Drill" + i, Primate.Species.DRILL, Primate.Sex.FEMALE, 60, 20, 4, Primate.Food.NUTS);
+        }
+        Primate howler = sanctuary.addPrimateToSanctuary("Hana", Primate.Species.HOWLER, Primate.Sex.FEMALE, 60, 9, 4, Primate.Food.LEAVES);
+        Random random = new Random(11);
+        for (int day = 0; day < 200; day++) {
+            for (Primate drill : drills) {
+                sanctuary.recordMeasurement(drill, HealthRecords.Measure.WEIGHT, 15 + random.nextInt(10));
+            }
+            sanctuary.recordMeasurement(howler, HealthRecords.Measure.WEIGHT, 1000);
+            clock.advance(Duration.ofHours(13));
+        }
+
+        HealthRecords.Trend trend = sanctuary.getHealthTrend(Primate.Species.DRILL, HealthRecords.Measure.WEIGHT, Duration.ofDays(90));
+        long now = clock.millis();
+        long from = now - Duration.ofDays(90).toMillis();
+        int total = 0;
+        for (int bucket = 0; bucket < trend.size(); bucket++) {
+            long start = Math.max(from, trend.getBucketStart(bucket));
+            long end = Math.min(now + 1, trend.getBucketStart(bucket) + HealthRecords.ROLLUP_MILLIS);
+            // recompute the bucket from the raw samples
+            int count = 0;
+            long sum = 0;
+            int max = Integer.MIN_VALUE;
+            for (Primate drill : drills) {
+                HealthRecords.Samples samples = sanctuary.getHealthRecords().samples(drill.getId(), HealthRecords.Measure.WEIGHT, start, end);
+                for (int i = 0; i < samples.size(); i++) {
+                    count++;
+                    sum += samples.getValue(i);
+                    max = Math.max(max, samples.getValue(i));
+                }
+            }
+            assertEquals(count, trend.getCount(bucket));
+            if (count > 0) {
+                assertEquals((double) sum / count, trend.getMean(bucket), 1e-9);
+                assertEquals(max, trend.getMax(bucket));
+            }
+            total += count;
+        }
+        // the last sample was taken 13 hours ago, then one every 13 hours for five drills; the howler does not count
+        assertEquals(5 * (90 * 24 / 13), total);
+    }
+
+    @Test
+    public void testMedicalCareIsRecordedAsTreatment() {
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.medicalCare(leo);
+        clock.advance(Duration.ofDays(3));
+        sanctuary.medicalCare(leo);
+
+        HealthRecords.Trend trend = sanctuary.getHealthTrend(Primate.Species.DRILL, HealthRecords.Measure.TREATMENT, Duration.ofDays(30));
+        int treatments = 0;
+        for (int bucket = 0; bucket < trend.size(); bucket++) {
+            treatments += trend.getCount(bucket);
+        }
+        assertEquals(2, treatments);
+        // treatments are counted per species; another species has none
+        HealthRecords.Trend other = sanctuary.getHealthTrend(Primate.Species.SAKI, HealthRecords.Measure.TREATMENT, Duration.ofDays(30));
+        for (int bucket = 0; bucket < other.size(); bucket++) {
+            assertEquals(0, other.getCount(bucket));
+        }
+    }
+
+    @Test
+    public void testMeasurementUpdatesTheHomeEnclosure() {
+        Enclosure overflow = sanctuary.addEnclosure(Primate.Species.DRILL, 5);
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        Primate max = sanctuary.addPrimateToSanctuary("Max", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.medicalCare(leo);
+        sanctuary.medicalCare(max);
+        sanctuary.beginTransaction().move(leo, overflow).commit();
+
+        // a transaction planned before the measurement must not commit on top of it
+        SanctuaryTransaction planned = sanctuary.beginTransaction().move(max, overflow);
+        sanctuary.recordMeasurement(leo, HealthRecords.Measure.WEIGHT, 100);
+        assertEquals(Outcome.CONFLICT, planned.tryCommit());
+
+        // the overflow enclosure now counts Leo with his new weight
+        sanctuary.setPlacementRules(PlacementRules.NONE.withWeightSpread(0));
+        Primate heavy = new Primate("Heavy", Primate.Species.DRILL, Primate.Sex.MALE, 80, 100, 5, Primate.Food.FRUITS);
+        Primate light = new Primate("Light", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        assertEquals(Outcome.ACCEPTED, sanctuary.getPlacementRules().check(overflow, heavy));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, sanctuary.getPlacementRules().check(overflow, light));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMeasurementMustBePositive() {
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.recordMeasurement(leo, HealthRecords.Measure.SIZE, 0);
+    }
+}
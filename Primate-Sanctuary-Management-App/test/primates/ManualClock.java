@@ -0,0 +1,41 @@
+package primates;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// a clock the tests can move forward by hand
+class ManualClock extends Clock {
+    private volatile Instant now;
+
+    // a clock starting at midnight on 1 April 2024 (UTC)
+    ManualClock() {
+        this(Instant.parse("2024-04-01T00:00:00Z"));
+    }
+
+    // a clock starting at the given time
+    ManualClock(Instant start) {
+        this.now = start;
+    }
+
+    void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
@@ -0,0 +1,116 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Enclosure;
+import primates.Model.HealthRecords;
+import primates.Model.Outcome;
+import primates.Model.PlacementRules;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PlacementRulesTest {
+    private Sanctuary sanctuary;
+
+    @Before
+    public void setUp() {
+        sanctuary = new Sanctuary();
+    }
+
+    // helper to take in a treated primate waiting in isolation
+    private Primate treated(String name, Primate.Sex sex, int weight, int age, Primate.Food food) {
+        Primate primate = sanctuary.addPrimateToSanctuary(name, Primate.Species.SAKI, sex, 30, weight, age, food);
+        sanctuary.medicalCare(primate);
+        return primate;
+    }
+
+    // helper to move a primate from its cage into an enclosure, the way the GUI does
+    private Outcome place(Primate primate) {
+        Outcome outcome = sanctuary.tryRemovePrimateFromISO(primate);
+        assertEquals(Outcome.ACCEPTED, outcome);
+        outcome = sanctuary.tryAddPrimateToENC(primate);
+        if (!outcome.isAccepted()) {
+            sanctuary.addPrimateToISO(primate);
+        }
+        return outcome;
+    }
+
+    @Test
+    public void testSeparatedAgesAndWeights() {
+        sanctuary.setPlacementRules(PlacementRules.NONE.withSeparatedAges(0, 1, 12, 31).withWeightSpread(1));
+        Primate old = treated("Old", Primate.Sex.FEMALE, 10, 15, Primate.Food.FRUITS);
+        assertEquals(Outcome.ACCEPTED, place(old));
+
+        Primate infant = treated("Infant", Primate.Sex.FEMALE, 10, 1, Primate.Food.FRUITS);
+        Enclosure enclosure = sanctuary.getEnclosureForSpecies(Primate.Species.SAKI);
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, sanctuary.getPlacementRules().check(enclosure, infant));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, place(infant));
+
+        // a weight of 40 is two power-of-two classes above 10
+        Primate heavy = treated("Heavy", Primate.Sex.FEMALE, 40, 6, Primate.Food.FRUITS);
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, place(heavy));
+        // once the resident weighs more, the heavy one fits in
+        sanctuary.recordMeasurement(old, HealthRecords.Measure.WEIGHT, 25);
+        assertEquals(Outcome.ACCEPTED, place(heavy));
+
+        sanctuary.removePrimateFromENC(old);
+        sanctuary.removePrimateFromENC(heavy);
+        assertEquals(Outcome.ACCEPTED, place(infant));
+    }
+
+    @Test
+    public void testFoodsSpreadOverTheEnclosureGroup() {
+        sanctuary.setPlacementRules(PlacementRules.NONE.withMaxFoods(1));
+        Enclosure second = sanctuary.addEnclosure(Primate.Species.SAKI, 10);
+        assertEquals(Outcome.ACCEPTED, place(treated("Fruit", Primate.Sex.MALE, 10, 4, Primate.Food.FRUITS)));
+        Primate nuts = treated("Nuts", Primate.Sex.MALE, 10, 4, Primate.Food.NUTS);
+        assertEquals(Outcome.ACCEPTED, place(nuts));
+        assertTrue(second.getPrimates().contains(nuts));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, place(treated("Seeds", Primate.Sex.MALE, 10, 4, Primate.Food.SEEDS)));
+
+        // transactions follow the same rules
+        Primate eggs = treated("Eggs", Primate.Sex.MALE, 10, 4, Primate.Food.EGGS);
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, sanctuary.beginTransaction().move(eggs, second).tryCommit());
+        assertTrue(sanctuary.isPrimateInIsolation(eggs));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, sanctuary.tryMoveToEnclosure(eggs));
+    }
+
+    // placed one by one, the second male is turned away; placed as a cohort, the female goes first and makes room for him
+    @Test
+    public void testCohortPlacesMoreThanArrivalOrder() {
+        sanctuary.setPlacementRules(PlacementRules.NONE.withMaxShare(Primate.Sex.MALE, 50, 1));
+        assertEquals(Outcome.ACCEPTED, place(treated("Adam", Primate.Sex.MALE, 10, 4, Primate.Food.FRUITS)));
+        Primate bert = treated("Bert", Primate.Sex.MALE, 10, 4, Primate.Food.FRUITS);
+        Primate cleo = treated("Cleo", Primate.Sex.FEMALE, 10, 4, Primate.Food.FRUITS);
+        Primate dora = treated("Dora", Primate.Sex.FEMALE, 10, 4, Primate.Food.FRUITS);
+        Primate ed = treated("Ed", Primate.Sex.MALE, 10, 4, Primate.Food.FRUITS);
+        Primate fred = treated("Fred", Primate.Sex.MALE, 10, 4, Primate.Food.FRUITS);
+        Primate untreated = sanctuary.addPrimateToSanctuary("Gus", Primate.Species.DRILL, Primate.Sex.MALE, 30, 10, 4, Primate.Food.NUTS);
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, sanctuary.getPlacementRules().check(sanctuary.getEnclosureForSpecies(Primate.Species.SAKI), bert));
+
+        Map<Primate, Outcome> outcomes = sanctuary.placeCohort(Arrays.asList(bert, cleo, dora, ed, fred, untreated));
+        assertEquals(Arrays.asList(bert, cleo, dora, ed, fred, untreated), Arrays.asList(outcomes.keySet().toArray()));
+        assertEquals(Outcome.ACCEPTED, outcomes.get(bert));
+        assertEquals(Outcome.ACCEPTED, outcomes.get(cleo));
+        assertEquals(Outcome.ACCEPTED, outcomes.get(dora));
+        // a third male among two females would break the share
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, outcomes.get(ed));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, outcomes.get(fred));
+        assertEquals(Outcome.NOT_MEDICATED, outcomes.get(untreated));
+
+        assertEquals(4, sanctuary.getEnclosurePopulation(Primate.Species.SAKI));
+        assertTrue(sanctuary.isPrimateInIsolation(ed));
+        assertFalse(sanctuary.isPrimateInIsolation(bert));
+        assertEquals(4, sanctuary.snapshot().getEnclosurePopulation(Primate.Species.SAKI));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingAgeBandsAreRejected() {
+        PlacementRules.NONE.withSeparatedAges(0, 5, 3, 10);
+    }
+}
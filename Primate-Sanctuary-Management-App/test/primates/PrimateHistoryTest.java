@@ -0,0 +1,89 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Primate;
+import primates.Model.PrimateHistory;
+import primates.Model.Sanctuary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PrimateHistoryTest {
+
+    private ManualClock clock;
+    private Sanctuary sanctuary;
+
+    // set up a sanctuary driven by the manual clock
+    @Before
+    public void setUp() {
+        clock = new ManualClock();
+        sanctuary = new Sanctuary(clock);
+    }
+
+    // helper to take a primate through isolation into its enclosure
+    private Primate admitAndMove(String name, Primate.Species species, Duration stay) {
+        Primate primate = sanctuary.addPrimateToSanctuary(name, species, Primate.Sex.FEMALE, 50, 18, 5, Primate.Food.NUTS);
+        clock.advance(stay);
+        sanctuary.medicalCare(primate);
+        sanctuary.removePrimateFromISO(primate);
+        sanctuary.addPrimateToENC(primate);
+        return primate;
+    }
+
+    // check whether a primate's timeline lists its events in order
+    @Test
+    public void testTimelineRecordsEveryStep() {
+        Primate primate = admitAndMove("Zoe", Primate.Species.SAKI, Duration.ofDays(2));
+        List<PrimateHistory.Event> timeline = sanctuary.getHistory().timeline(primate.getId());
+        assertEquals(4, timeline.size());
+        assertEquals(PrimateHistory.EventType.ENTERED_ISOLATION, timeline.get(0).getType());
+        assertEquals(PrimateHistory.EventType.MEDICATED, timeline.get(1).getType());
+        assertEquals(PrimateHistory.EventType.LEFT_ISOLATION, timeline.get(2).getType());
+        assertEquals(PrimateHistory.EventType.ENTERED_ENCLOSURE, timeline.get(3).getType());
+        assertEquals(Primate.Species.SAKI.ordinal(), timeline.get(3).getLocation());
+    }
+
+    // check whether the enclosure can be queried as it was in the past
+    @Test
+    public void testEnclosureStateAtEarlierTime() {
+        admitAndMove("Amy", Primate.Species.SAKI, Duration.ofDays(1));
+        Instant between = clock.instant();
+        clock.advance(Duration.ofDays(1));
+        Primate ben = admitAndMove("Ben", Primate.Species.SAKI, Duration.ofDays(1));
+        clock.advance(Duration.ofDays(1));
+        sanctuary.removePrimateFromENC(ben);
+
+        assertEquals(1, sanctuary.getEnclosureResidentsAt(Primate.Species.SAKI, between).size());
+        assertEquals(2, sanctuary.getEnclosureResidentsAt(Primate.Species.SAKI, clock.instant().minusMillis(1)).size());
+        assertEquals(1, sanctuary.getEnclosureResidentsAt(Primate.Species.SAKI, clock.instant()).size());
+    }
+
+    // check whether queries stay correct across many checkpoints
+    @Test
+    public void testQueriesAcrossCheckpoints() {
+        Instant[] marks = new Instant[3000];
+        for (int i = 0; i < marks.length; i++) {
+            admitAndMove("Monkey" + i, Primate.Species.HOWLER, Duration.ofMinutes(1));
+            marks[i] = clock.instant();
+        }
+        assertTrue(sanctuary.getHistory().size() > 2 * 4096);
+        for (int i = 0; i < marks.length; i += 250) {
+            assertEquals(i + 1, sanctuary.getEnclosureResidentsAt(Primate.Species.HOWLER, marks[i]).size());
+        }
+    }
+
+    // check whether the median isolation stay is computed per period
+    @Test
+    public void testMedianIsolationDuration() {
+        Instant start = clock.instant();
+        admitAndMove("A", Primate.Species.DRILL, Duration.ofDays(1));
+        admitAndMove("B", Primate.Species.DRILL, Duration.ofDays(3));
+        admitAndMove("C", Primate.Species.DRILL, Duration.ofDays(10));
+        assertEquals(Duration.ofDays(3), sanctuary.getMedianIsolationDuration(start, clock.instant().plusMillis(1)));
+        assertNull(sanctuary.getMedianIsolationDuration(start, start.plusSeconds(1)));
+    }
+}
@@ -0,0 +1,144 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Outcome;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.TimingWheel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class QuarantineTest {
+
+    private ManualClock clock;
+    private Sanctuary sanctuary;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock();
+        sanctuary = new Sanctuary(clock);
+        sanctuary.setQuarantinePeriod(Duration.ofDays(14));
+    }
+
+    @Test
+    public void testPrimateCannotLeaveBeforeQuarantineEnds() {
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.medicalCare(leo);
+        assertTrue(leo.isQuarantined());
+        assertEquals(Outcome.QUARANTINE_ACTIVE, sanctuary.tryMoveToEnclosure(leo));
+        assertEquals(Outcome.QUARANTINE_ACTIVE, sanctuary.tryRemovePrimateFromISO(leo));
+
+        clock.advance(Duration.ofDays(14).minusSeconds(1));
+        assertEquals(Outcome.QUARANTINE_ACTIVE, sanctuary.tryMoveToEnclosure(leo));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Outcome.ACCEPTED, sanctuary.tryMoveToEnclosure(leo));
+        assertFalse(leo.isQuarantined());
+        assertEquals(0, sanctuary.getQuarantineCount());
+    }
+
+    @Test
+    public void testExpiredQuarantinesAutoMoveMedicatedPrimates() {
+        sanctuary.setAutoMoveAfterQuarantine(true);
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        clock.advance(Duration.ofDays(1));
+        Primate mia = sanctuary.addPrimateToSanctuary("Mia", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 10, 3, Primate.Food.NUTS);
+        sanctuary.medicalCare(leo);
+
+        clock.advance(Duration.ofDays(14));
+        assertEquals(2, sanctuary.advanceQuarantine());
+        // only the medicated primate moves on; the other one stays in isolation without its quarantine
+        assertTrue(sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().contains(leo));
+        assertTrue(sanctuary.isPrimateInIsolation(mia));
+        assertFalse(mia.isQuarantined());
+    }
+
+    @Test
+    public void testTickerEndsQuarantinesOfAnIdleSanctuary() throws InterruptedException {
+        sanctuary.setAutoMoveAfterQuarantine(true);
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.medicalCare(leo);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            sanctuary.setQuarantineTicker(scheduler);
+            clock.advance(Duration.ofDays(14));
+            // nothing calls into the sanctuary from here on; only the ticker can move Leo
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().contains(leo) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().contains(leo));
+            assertFalse(leo.isQuarantined());
+            assertEquals(0, sanctuary.getQuarantineCount());
+        } finally {
+            sanctuary.setQuarantineTicker(null);
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAddToEnclosureSeesTheAutoMoveItTriggered() {
+        sanctuary.setAutoMoveAfterQuarantine(true);
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        sanctuary.medicalCare(leo);
+        clock.advance(Duration.ofDays(14));
+        // the quarantine ends inside the call, and the auto-move takes Leo to the enclosure first
+        assertEquals(Outcome.ALREADY_IN_ENCLOSURE, sanctuary.tryAddPrimateToENC(leo));
+        assertEquals(1, sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().size());
+        assertFalse(sanctuary.isPrimateInIsolation(leo));
+    }
+
+    @Test
+    public void testNoQuarantineByDefault() {
+        Sanctuary plain = new Sanctuary(clock);
+        Primate leo = plain.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        plain.medicalCare(leo);
+        assertFalse(leo.isQuarantined());
+        assertEquals(Outcome.ACCEPTED, plain.tryMoveToEnclosure(leo));
+    }
+
+    @Test
+    public void testTimingWheelExpiresEveryTimerOnItsTick() {
+        long start = 1_000_000L;
+        TimingWheel<Long> wheel = new TimingWheel<>(10, start);
+        Random random = new Random(7);
+        List<TimingWheel.Timer<Long>> cancelled = new ArrayList<>();
+        int scheduled = 0;
+        for (int i = 0; i < 5000; i++) {
+            // deadlines from a few ticks up to far beyond the finest levels
+            long deadline = start + 1 + (long) (Math.pow(random.nextDouble(), 4) * 2_000_000_000L);
+            TimingWheel.Timer<Long> timer = wheel.schedule(deadline, deadline);
+            if (i % 10 == 0) {
+                cancelled.add(timer);
+            } else {
+                scheduled++;
+            }
+        }
+        for (TimingWheel.Timer<Long> timer : cancelled) {
+            assertTrue(wheel.cancel(timer));
+            assertFalse(timer.isPending());
+        }
+        assertEquals(scheduled, wheel.size());
+
+        int expired = 0;
+        long now = start;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(5_000_000);
+            for (long deadline : wheel.advanceTo(now)) {
+                assertTrue(deadline <= now);
+                // nothing may come out later than one step after its deadline
+                assertTrue(deadline > now - 5_000_011L);
+                expired++;
+            }
+        }
+        assertEquals(scheduled, expired);
+    }
+}
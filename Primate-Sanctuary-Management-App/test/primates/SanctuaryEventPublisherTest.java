@@ -0,0 +1,221 @@
+package primates;
+
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.SanctuaryEvent;
+import primates.Model.SanctuaryEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SanctuaryEventPublisherTest {
+
+    // a subscriber that keeps what it receives and only asks for events when told to
+    private static class Recorder implements Flow.Subscriber<SanctuaryEvent> {
+        final List<SanctuaryEvent> received = new ArrayList<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile boolean completed;
+        volatile Throwable error;
+        // whether a terminal signal came before onSubscribe
+        volatile boolean terminatedEarly;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public synchronized void onNext(SanctuaryEvent event) {
+            received.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            terminatedEarly |= subscription == null;
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            terminatedEarly |= subscription == null;
+            completed = true;
+        }
+
+        synchronized List<SanctuaryEvent> received() {
+            return new ArrayList<>(received);
+        }
+    }
+
+    // helper to wait until a recorder has seen the expected number of events
+    private static List<SanctuaryEvent> await(Recorder recorder, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recorder.received().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return recorder.received();
+    }
+
+    private Sanctuary sanctuary;
+    private Recorder recorder;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        sanctuary = new Sanctuary();
+        recorder = new Recorder();
+        sanctuary.getEvents().subscribe(recorder);
+        assertTrue(recorder.subscribed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEventsFollowTheLifeOfAPrimate() throws InterruptedException {
+        recorder.subscription.request(Long.MAX_VALUE);
+        Primate coco = sanctuary.addPrimateToSanctuary("Coco", Primate.Species.DRILL, Primate.Sex.FEMALE, 30, 20, 4, Primate.Food.FRUITS);
+        sanctuary.medicalCare(coco);
+        sanctuary.moveToEnclosure(coco);
+        sanctuary.removePrimateFromENC(coco);
+
+        List<SanctuaryEvent> events = await(recorder, 4);
+        assertEquals(4, events.size());
+        assertEquals(SanctuaryEvent.Type.INTAKE, events.get(0).getType());
+        assertEquals("0", events.get(0).getHousingID());
+        assertEquals(SanctuaryEvent.Type.MEDICATED, events.get(1).getType());
+        assertEquals(SanctuaryEvent.Type.MOVED, events.get(2).getType());
+        assertEquals("DRILL", events.get(2).getHousingID());
+        assertEquals(SanctuaryEvent.Type.REMOVED, events.get(3).getType());
+        assertSame(coco, events.get(3).getPrimate());
+    }
+
+    @Test
+    public void testNoEventsAreSentBeyondTheRequestedDemand() throws InterruptedException {
+        recorder.subscription.request(1);
+        for (int i = 0; i < 3; i++) {
+            sanctuary.addPrimateToSanctuary("Pip" + i, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+        }
+        assertEquals(1, await(recorder, 1).size());
+        Thread.sleep(50);
+        assertEquals(1, recorder.received().size());
+
+        recorder.subscription.request(2);
+        assertEquals(3, await(recorder, 3).size());
+    }
+
+    @Test
+    public void testSlowSubscriberNeverStallsIntake() {
+        // the recorder asks for nothing, so every event has to wait in its bounded buffer
+        int intakes = 20;
+        for (int i = 0; i < intakes; i++) {
+            Primate primate = sanctuary.addPrimateToSanctuary("Burst" + i, Primate.Species.TAMARIN, Primate.Sex.FEMALE, 10, 5, 2, Primate.Food.EGGS);
+            sanctuary.medicalCare(primate);
+            sanctuary.moveToEnclosure(primate);
+        }
+        assertEquals(intakes, sanctuary.getEnclosureForSpecies(Primate.Species.TAMARIN).getPrimates().size());
+    }
+
+    @Test
+    public void testFullBufferMergesEventsOfTheSamePrimate() throws InterruptedException {
+        Primate coco = sanctuary.addPrimateToSanctuary("Coco", Primate.Species.DRILL, Primate.Sex.FEMALE, 30, 20, 4, Primate.Food.FRUITS);
+        int treatments = SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE + 44;
+        for (int i = 0; i < treatments; i++) {
+            sanctuary.medicalCare(coco);
+        }
+        SanctuaryEventPublisher events = sanctuary.getEvents();
+        assertEquals(treatments + 1 - SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE, events.getMergedCount());
+        assertEquals(0, events.getDroppedCount());
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        List<SanctuaryEvent> received = await(recorder, SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE);
+        assertEquals(SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE, received.size());
+        assertEquals(SanctuaryEvent.Type.INTAKE, received.get(0).getType());
+        assertEquals(SanctuaryEvent.Type.MEDICATED, received.get(received.size() - 1).getType());
+    }
+
+    @Test
+    public void testCloseCompletesSubscribers() throws InterruptedException {
+        sanctuary.getEvents().close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!recorder.completed && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(recorder.completed);
+        assertEquals(0, sanctuary.getEvents().getSubscriberCount());
+    }
+
+    @Test
+    public void testFullBufferOnlyMergesEventsOfTheSameType() throws InterruptedException {
+        sanctuary.addPrimateToSanctuary("Abe", Primate.Species.DRILL, Primate.Sex.MALE, 30, 20, 4, Primate.Food.FRUITS);
+        Primate coco = sanctuary.addPrimateToSanctuary("Coco", Primate.Species.DRILL, Primate.Sex.FEMALE, 30, 20, 4, Primate.Food.FRUITS);
+        Primate filler = sanctuary.addPrimateToSanctuary("Filler", Primate.Species.SAKI, Primate.Sex.FEMALE, 30, 20, 4, Primate.Food.NUTS);
+        for (int i = 3; i < SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE; i++) {
+            sanctuary.medicalCare(filler);
+        }
+        SanctuaryEventPublisher events = sanctuary.getEvents();
+        assertEquals(0, events.getMergedCount());
+
+        // Coco's intake is waiting, but a treatment must not replace it; the oldest event goes instead
+        sanctuary.medicalCare(coco);
+        assertEquals(0, events.getMergedCount());
+        assertEquals(1, events.getDroppedCount());
+        sanctuary.medicalCare(coco);
+        assertEquals(1, events.getMergedCount());
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        List<SanctuaryEvent> received = await(recorder, SanctuaryEventPublisher.DEFAULT_BUFFER_SIZE);
+        assertSame(coco, received.get(0).getPrimate());
+        assertEquals(SanctuaryEvent.Type.INTAKE, received.get(0).getType());
+        assertSame(coco, received.get(received.size() - 1).getPrimate());
+        assertEquals(SanctuaryEvent.Type.MEDICATED, received.get(received.size() - 1).getType());
+    }
+
+    @Test
+    public void testInvalidRequestEndsTheSubscriptionWithAnError() throws InterruptedException {
+        recorder.subscription.request(0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recorder.error == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(recorder.error instanceof IllegalArgumentException);
+        assertEquals(0, sanctuary.getEvents().getSubscriberCount());
+        sanctuary.addPrimateToSanctuary("Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+        Thread.sleep(50);
+        assertTrue(recorder.received().isEmpty());
+    }
+
+    @Test
+    public void testCloseNeverOvertakesOnSubscribe() {
+        // an executor that runs the newest task first, the worst order for two tasks submitted one after the other
+        List<Runnable> tasks = new ArrayList<>();
+        Executor newestFirst = tasks::add;
+        SanctuaryEventPublisher publisher = new SanctuaryEventPublisher(newestFirst, 4);
+        Recorder early = new Recorder();
+        publisher.subscribe(early);
+        publisher.close();
+        while (!tasks.isEmpty()) {
+            tasks.remove(tasks.size() - 1).run();
+        }
+        assertNotNull(early.subscription);
+        assertTrue(early.completed);
+        assertFalse(early.terminatedEarly);
+    }
+
+    @Test
+    public void testNullSubscriberIsRefused() {
+        SanctuaryEventPublisher publisher = new SanctuaryEventPublisher(Runnable::run, 4);
+        try {
+            publisher.subscribe(null);
+            fail("A null subscriber should be refused");
+        } catch (NullPointerException expected) {
+            // the subscriber is checked before anything is set up
+        }
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+}
@@ -0,0 +1,82 @@
+package primates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Service.SanctuaryHttpService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.Assert.*;
+
+public class SanctuaryHttpServiceTest {
+
+    private Sanctuary sanctuary;
+    private SanctuaryHttpService service;
+    private HttpClient client;
+
+    // start a service on a free localhost port
+    @Before
+    public void setUp() throws IOException {
+        sanctuary = new Sanctuary();
+        service = new SanctuaryHttpService(sanctuary, 0);
+        service.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    // stop the service again
+    @After
+    public void tearDown() {
+        service.stop(0);
+    }
+
+    // helper to send a request and return the response
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + service.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // check whether a primate can be taken in, treated, moved and looked up over HTTP
+    @Test
+    public void testIntakeToEnclosure() throws Exception {
+        assertEquals(201, send("POST", "/intake?name=Leo&species=drill&sex=male&size=80&weight=25&age=5&food=fruits", null).statusCode());
+        assertEquals(200, send("POST", "/medicate?name=Leo", null).statusCode());
+        assertEquals(200, send("POST", "/move?name=Leo", null).statusCode());
+
+        HttpResponse<String> lookup = send("GET", "/primates?name=Leo", null);
+        assertEquals(200, lookup.statusCode());
+        assertTrue(lookup.body().contains("\"location\":\"enclosure\""));
+        assertEquals(1, sanctuary.getEnclosureForSpecies(Primate.Species.DRILL).getPrimates().size());
+        assertTrue(send("GET", "/census", null).body().contains("\"name\":\"Leo\""));
+    }
+
+    // check whether model errors become the matching HTTP status codes
+    @Test
+    public void testErrorsMapToStatusCodes() throws Exception {
+        assertEquals(400, send("POST", "/intake?name=&species=drill&sex=male&size=1&weight=1&age=1&food=eggs", null).statusCode());
+        assertEquals(404, send("POST", "/medicate?name=Nobody", null).statusCode());
+        assertEquals(405, send("GET", "/intake", null).statusCode());
+        HttpResponse<String> batch = send("POST", "/batch", "add Ann SAKI FEMALE 60 20 7 LEAVES\nmove Ann\n");
+        assertEquals(207, batch.statusCode());
+        assertTrue(batch.body().contains("\"failures\":1"));
+    }
+
+    // check whether batches that would read or write the server's files are refused before anything runs
+    @Test
+    public void testBatchRefusesFileCommands() throws Exception {
+        assertEquals(400, send("POST", "/batch", "add Ann SAKI FEMALE 60 20 7 LEAVES\nsave /tmp/sanctuary.bin\n").statusCode());
+        assertEquals(400, send("POST", "/batch", "LOAD \"/tmp/sanctuary.bin\"\n").statusCode());
+        assertEquals(400, send("POST", "/batch", "shutdown\n").statusCode());
+        assertTrue(sanctuary.getIsolatedPrimates().isEmpty());
+        assertEquals(200, send("POST", "/batch", "# intake\nadd Ann SAKI FEMALE 60 20 7 LEAVES\n").statusCode());
+        assertEquals(1, sanctuary.getIsolatedPrimates().size());
+    }
+}
@@ -0,0 +1,158 @@
+package primates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import primates.Model.Enclosure;
+import primates.Model.Outcome;
+import primates.Model.PlacementRules;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Model.SanctuarySnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class SanctuarySnapshotTest {
+
+    private Path file;
+
+    // create a scratch file for every test
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("sanctuary", ".snap");
+    }
+
+    // remove the scratch file again
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // check whether isolated and enclosed primates survive a save and load unchanged
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        Sanctuary sanctuary = new Sanctuary();
+        sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        Primate moved = sanctuary.addPrimateToSanctuary("Ella", Primate.Species.SAKI, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+        sanctuary.medicalCare(moved);
+        sanctuary.removePrimateFromISO(moved);
+        sanctuary.addPrimateToENC(moved);
+
+        SanctuarySnapshot.write(sanctuary, file);
+        Sanctuary loaded = SanctuarySnapshot.read(file);
+
+        Primate leo = loaded.findPrimateByName("Leo");
+        assertNotNull("Leo should still be in isolation", leo);
+        assertEquals(80, leo.getSize());
+        assertEquals(25, leo.getWeight());
+        assertFalse("Leo should not be medicated", leo.medicatedBefore());
+        assertEquals(1, loaded.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().size());
+        Primate ella = loaded.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().get(0);
+        assertEquals("Ella", ella.getName());
+        assertTrue("Ella should keep its medical record", ella.medicatedBefore());
+        assertEquals(sanctuary.getAllNames(), loaded.getAllNames());
+    }
+
+    // check whether added enclosures, their capacities and who lives in which of them survive a save and load
+    @Test
+    public void testOverflowEnclosureRoundTrip() throws IOException {
+        Sanctuary sanctuary = new Sanctuary();
+        Enclosure overflow = sanctuary.addEnclosure(Primate.Species.SAKI, 3);
+        Primate ella = sanctuary.addPrimateToSanctuary("Ella", Primate.Species.SAKI, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+        Primate nina = sanctuary.addPrimateToSanctuary("Nina", Primate.Species.SAKI, Primate.Sex.FEMALE, 50, 15, 4, Primate.Food.NUTS);
+        sanctuary.medicalCare(ella);
+        sanctuary.medicalCare(nina);
+        sanctuary.moveToEnclosure(ella);
+        assertEquals(Outcome.ACCEPTED, sanctuary.beginTransaction().move(nina, overflow).tryCommit());
+
+        SanctuarySnapshot.write(sanctuary, file);
+        Sanctuary loaded = SanctuarySnapshot.read(file);
+
+        assertEquals(2, loaded.getEnclosureGroup(Primate.Species.SAKI).size());
+        assertEquals(1, loaded.getEnclosureGroup(Primate.Species.DRILL).size());
+        Enclosure main = loaded.getEnclosureGroup(Primate.Species.SAKI).get(0);
+        Enclosure restored = loaded.getEnclosureGroup(Primate.Species.SAKI).get(1);
+        assertEquals(3, restored.getCapacity());
+        assertEquals("Ella", main.getPrimates().get(0).getName());
+        assertEquals(1, main.getPrimates().size());
+        assertEquals("Nina", restored.getPrimates().get(0).getName());
+        assertEquals(1, restored.getPrimates().size());
+        assertEquals(2, loaded.getEnclosurePopulation(Primate.Species.SAKI));
+
+        // the placement rules see the restored residents of each enclosure
+        loaded.setPlacementRules(PlacementRules.NONE.withMaxFoods(1));
+        Primate eater = new Primate("Omar", Primate.Species.SAKI, Primate.Sex.MALE, 50, 15, 4, Primate.Food.LEAVES);
+        assertEquals(Outcome.ACCEPTED, loaded.getPlacementRules().check(main, eater));
+        assertEquals(Outcome.INCOMPATIBLE_GROUP, loaded.getPlacementRules().check(restored, eater));
+    }
+
+    // check whether a file that is not a snapshot is rejected
+    @Test(expected = IOException.class)
+    public void testInvalidSnapshotIsRejected() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6});
+        SanctuarySnapshot.read(file);
+    }
+
+    // check whether a snapshot written while primates keep moving holds every primate exactly once
+    @Test
+    public void testSnapshotWhileMovesRun() throws Exception {
+        Sanctuary sanctuary = new Sanctuary();
+        Enclosure overflow = sanctuary.addEnclosure(Primate.Species.SAKI, 1000);
+        Enclosure main = sanctuary.getEnclosureForSpecies(Primate.Species.SAKI);
+        for (int i = 0; i < 1000; i++) {
+            Primate primate = sanctuary.addPrimateToSanctuary("Saki" + i, Primate.Species.SAKI, Primate.Sex.FEMALE, 50, 15, 4, Primate.Food.NUTS);
+            sanctuary.medicalCare(primate);
+            sanctuary.moveToEnclosure(primate);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread mover = new Thread(() -> {
+            while (running.get()) {
+                for (Primate primate : main.getPrimates()) {
+                    sanctuary.beginTransaction().move(primate, overflow).tryCommit();
+                }
+                for (Primate primate : overflow.getPrimates()) {
+                    sanctuary.beginTransaction().move(primate, main).tryCommit();
+                }
+            }
+        });
+        mover.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                SanctuarySnapshot.write(sanctuary, file);
+                Sanctuary loaded = SanctuarySnapshot.read(file);
+                assertEquals(1000, loaded.getEnclosurePopulation(Primate.Species.SAKI));
+            }
+        } finally {
+            running.set(false);
+            mover.join();
+        }
+    }
+
+    // check whether a name with a negative length is reported as a corrupt snapshot
+    @Test
+    public void testNegativeNameLengthIsRejected() throws IOException {
+        ByteBuffer snapshot = ByteBuffer.allocate(64);
+        snapshot.putInt(0x50534E50).put((byte) 2);
+        // 20 isolation cages, 8 species with their main enclosure only
+        snapshot.put((byte) 20).put((byte) 8);
+        for (int i = 0; i < 8; i++) {
+            snapshot.put((byte) 1);
+        }
+        // one name whose length is the varint of -1
+        snapshot.put((byte) 1).put(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        Files.write(file, Arrays.copyOf(snapshot.array(), snapshot.position()));
+        try {
+            SanctuarySnapshot.read(file);
+            fail("A negative name length should be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Corrupt number of name bytes"));
+        }
+    }
+}
@@ -5,9 +5,16 @@ import org.junit.Test;
 import org.junit.Rule;
 import org.junit.rules.ExpectedException;
 import primates.Model.Enclosure;
+import primates.Model.Outcome;
+import primates.Model.Page;
 import primates.Model.Primate;
+import primates.Model.PrimateArena;
 import primates.Model.Sanctuary;
+import primates.Model.SanctuaryTransaction;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -113,4 +120,239 @@ public class SanctuaryTest {
         assertTrue("The list should include detailed info for Ben", primateDetails.get(2).contains("Ben"));
         assertTrue("The list should include detailed info for Zoe", primateDetails.get(3).contains("Zoe"));
     }
-}
\ No newline at end of file
+
+    // check whether primates with equal names share a name ID and can be found by name, including non-ASCII names
+    @Test
+    public void testNamesAreInternedAndFound() {
+        Primate first = sanctuary.addPrimateToSanctuary("Zoë 🐒", Primate.Species.SAKI, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+        Primate second = sanctuary.addPrimateToSanctuary("Zoë 🐒", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        assertEquals(first.getNameId(), second.getNameId());
+        assertEquals("Zoë 🐒", first.getName());
+        assertSame(first, sanctuary.findPrimateByName("Zoë 🐒"));
+        assertNull(sanctuary.findPrimateByName("Zoe 🐒"));
+        assertTrue(first.getDetails().startsWith("Zoë 🐒 - 7 - SAKI"));
+    }
+
+    // check that a new name only gets an ID once its primate is taken in, so rejected intakes leave the names alone
+    @Test
+    public void testNamesAreInternedOnlyWhenTakenIn() {
+        for (int i = 0; i < 20; i++) {
+            sanctuary.addPrimateToSanctuary("Pip" + i, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+        }
+        String name = "Turned Away " + System.nanoTime();
+        Primate late = new Primate(name, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+        assertEquals(Outcome.ISOLATION_FULL, sanctuary.tryAddPrimateToISO(late));
+        assertEquals(Outcome.ISOLATION_FULL, sanctuary.intake(new PrimateArena(1), name, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+        assertEquals(-1, late.getNameId());
+        assertEquals(name, late.getName());
+        assertTrue(late.getDetails().startsWith(name + " - 2 - SAKI"));
+
+        Primate pip = sanctuary.findPrimateByName("Pip0");
+        sanctuary.medicalCare(pip);
+        sanctuary.moveToEnclosure(pip);
+        assertEquals(Outcome.ACCEPTED, sanctuary.tryAddPrimateToISO(late));
+        assertTrue(late.getNameId() >= 0);
+        assertEquals(name, late.getName());
+        assertSame(late, sanctuary.findPrimateByName(name));
+    }
+
+    // check that names read while other threads add new ones always come back whole
+    @Test
+    public void testNamesReadWhileOthersAreAdded() throws InterruptedException {
+        Enclosure sakis = sanctuary.getEnclosureForSpecies(Primate.Species.SAKI);
+        String prefix = "Crowd " + System.nanoTime() + " ";
+        List<Primate> added = Collections.synchronizedList(new ArrayList<>());
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        Primate primate = new Primate(prefix + thread + "-" + i, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+                        if (sakis.addPrimate(primate)) {
+                            added.add(primate);
+                        }
+                        assertEquals(prefix + thread + "-" + i, primate.getName());
+                        Primate earlier = added.get(i % added.size());
+                        assertTrue(earlier.getName().startsWith(prefix));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(2000, added.size());
+    }
+
+    // check whether a transaction with one invalid move leaves every primate where it was
+    @Test
+    public void testTransactionIsAllOrNothing() {
+        Primate healthy = sanctuary.addPrimateToSanctuary("Healthy", Primate.Species.SAKI, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+        Primate sick = sanctuary.addPrimateToSanctuary("Sick", Primate.Species.SAKI, Primate.Sex.MALE, 60, 20, 7, Primate.Food.LEAVES);
+        sanctuary.medicalCare(healthy);
+
+        try {
+            sanctuary.beginTransaction().moveToEnclosure(healthy).moveToEnclosure(sick).commit();
+            fail("Moving an untreated primate should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("This primate has not been medicated yet.", e.getMessage());
+        }
+        assertTrue(sanctuary.isPrimateInIsolation(healthy));
+        assertTrue(sanctuary.isPrimateInIsolation(sick));
+        assertTrue(sanctuary.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().isEmpty());
+
+        // housings of another sanctuary are refused when the move is staged, before anything changes
+        Sanctuary other = new Sanctuary();
+        SanctuaryTransaction foreign = sanctuary.beginTransaction().moveToEnclosure(healthy);
+        assertEquals(Outcome.FOREIGN_HOUSING, foreign.tryMove(sick, other.getIsolation(0)));
+        assertEquals(Outcome.FOREIGN_HOUSING, foreign.tryMove(sick, other.getEnclosureForSpecies(Primate.Species.SAKI)));
+        assertEquals(1, foreign.size());
+        assertEquals(Outcome.FOREIGN_HOUSING, sanctuary.beginTransaction().tryMove(healthy, other.getEnclosureForSpecies(Primate.Species.SAKI)));
+        assertTrue(sanctuary.isPrimateInIsolation(healthy));
+        assertTrue(other.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().isEmpty());
+        assertTrue(other.getIsolatedPrimates().isEmpty());
+
+        sanctuary.medicalCare(sick);
+        sanctuary.beginTransaction().moveToEnclosure(healthy).moveToEnclosure(sick).commit();
+        assertEquals(2, sanctuary.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().size());
+    }
+
+    // check whether a transaction notices that one of its housings changed after it was prepared
+    @Test
+    public void testTransactionDetectsConflicts() {
+        Primate first = sanctuary.addPrimateToSanctuary("First", Primate.Species.DRILL, Primate.Sex.FEMALE, 60, 20, 7, Primate.Food.LEAVES);
+        Primate second = sanctuary.addPrimateToSanctuary("Second", Primate.Species.DRILL, Primate.Sex.MALE, 60, 20, 7, Primate.Food.LEAVES);
+        sanctuary.medicalCare(first);
+        sanctuary.medicalCare(second);
+
+        SanctuaryTransaction transaction = sanctuary.beginTransaction().moveToEnclosure(first);
+        sanctuary.moveToEnclosure(second);
+
+        thrown.expect(ConcurrentModificationException.class);
+        transaction.commit();
+    }
+
+    // check that the fast intake path applies the same rules and reports rejections instead of throwing
+    @Test
+    public void testFastIntakeReportsOutcomes() {
+        PrimateArena arena = new PrimateArena(4);
+        assertEquals(Outcome.INVALID_NAME, sanctuary.intake(arena, " \t", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+        assertEquals(Outcome.INVALID_MEASUREMENTS, sanctuary.intake(arena, "Pip", Primate.Species.SAKI, Primate.Sex.MALE, 0, 5, 2, Primate.Food.NUTS));
+        assertEquals(4, arena.remaining());
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Outcome.ACCEPTED, sanctuary.intake(arena, "Pip" + i, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+            assertTrue(sanctuary.isPrimateInIsolation(arena.last()));
+        }
+        assertEquals(0, arena.remaining());
+        assertEquals("Pip19", arena.last().getName());
+        assertSame(arena.last(), sanctuary.findPrimateByName("Pip19"));
+        assertEquals(Outcome.ISOLATION_FULL, sanctuary.intake(arena, "Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+        assertEquals("No available isolation space.", Outcome.ISOLATION_FULL.getMessage());
+    }
+
+    // check that the try* methods report expected failures and leave the sanctuary unchanged
+    @Test
+    public void testTryMethodsReportRejections() {
+        Primate leo = sanctuary.addPrimateToSanctuary("Leo", Primate.Species.DRILL, Primate.Sex.MALE, 80, 25, 5, Primate.Food.FRUITS);
+        assertEquals(Outcome.NOT_MEDICATED, sanctuary.tryMoveToEnclosure(leo));
+        assertEquals(Outcome.NOT_MEDICATED, sanctuary.tryRemovePrimateFromISO(leo));
+        assertTrue(sanctuary.isPrimateInIsolation(leo));
+        assertEquals(Outcome.NOT_IN_ENCLOSURE, sanctuary.tryRemovePrimateFromENC(leo));
+
+        sanctuary.medicalCare(leo);
+        assertEquals(Outcome.ACCEPTED, sanctuary.tryMoveToEnclosure(leo));
+        assertEquals(Outcome.NOT_IN_ISOLATION, sanctuary.tryMoveToEnclosure(leo));
+        assertEquals(Outcome.ACCEPTED, sanctuary.tryRemovePrimateFromENC(leo));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Outcome.ACCEPTED, sanctuary.tryAddPrimateToSanctuary("Pip" + i, Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+        }
+        assertEquals(Outcome.ISOLATION_FULL, sanctuary.tryAddPrimateToSanctuary("Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS));
+        assertNull(sanctuary.findPrimateByName("Late"));
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("No available isolation space.");
+        sanctuary.addPrimateToSanctuary("Late", Primate.Species.SAKI, Primate.Sex.MALE, 10, 5, 2, Primate.Food.NUTS);
+    }
+
+    // check that a species' enclosures fill up in order and keep a count of their residents
+    @Test
+    public void testEnclosureGroupsRouteBySpecies() {
+        Enclosure overflow = sanctuary.addEnclosure(Primate.Species.HOWLER, 1);
+        assertEquals(2, sanctuary.getEnclosureGroup(Primate.Species.HOWLER).size());
+        assertSame(overflow, sanctuary.getEnclosureGroup(Primate.Species.HOWLER).get(1));
+        assertEquals("HOWLER-2", overflow.getID());
+
+        Primate ana = sanctuary.addPrimateToSanctuary("Ana", Primate.Species.HOWLER, Primate.Sex.FEMALE, 40, 9, 6, Primate.Food.LEAVES);
+        sanctuary.medicalCare(ana);
+        sanctuary.moveToEnclosure(ana);
+        assertTrue(sanctuary.getEnclosureForSpecies(Primate.Species.HOWLER).getPrimates().contains(ana));
+        assertEquals(1, sanctuary.getEnclosurePopulation(Primate.Species.HOWLER));
+        assertEquals(0, sanctuary.getEnclosurePopulation(Primate.Species.DRILL));
+
+        sanctuary.removePrimateFromENC(ana);
+        assertEquals(0, sanctuary.getEnclosurePopulation(Primate.Species.HOWLER));
+        // the enclosure listing follows the species order
+        assertTrue(sanctuary.getEnclosureList().get(0).startsWith("Enclosure for DRILL"));
+    }
+
+    // check whether the paged listings return every primate once, in order, and whether their cursors survive changes
+    @Test
+    public void testPagedListingsFollowCursors() {
+        String[] names = {"Kiko", "Bea", "Umi", "Ana", "Toto", "Lulu", "Dax"};
+        for (String name : names) {
+            Primate primate = sanctuary.addPrimateToSanctuary(name, Primate.Species.DRILL, Primate.Sex.MALE, 30, 12, 4, Primate.Food.NUTS);
+            sanctuary.medicalCare(primate);
+        }
+        sanctuary.moveToEnclosure(sanctuary.findPrimateByName("Umi"));
+        sanctuary.moveToEnclosure(sanctuary.findPrimateByName("Bea"));
+
+        // the census is read in pages of three, in name order
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Primate> page = sanctuary.getCensusPage(Page.Order.BY_NAME, 3, cursor);
+            assertTrue(page.getItems().size() <= 3);
+            for (Primate primate : page.getItems()) {
+                listed.add(primate.getName());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of("Ana", "Bea", "Dax", "Kiko", "Lulu", "Toto", "Umi"), listed);
+
+        // the enclosure and isolation listings only hold their own residents
+        assertEquals(2, sanctuary.getEnclosurePage(Primate.Species.DRILL, Page.Order.BY_NAME, 10, null).getItems().size());
+        assertEquals(5, sanctuary.getIsolationPage(Page.Order.BY_ID, 10, null).getItems().size());
+        assertTrue(sanctuary.getEnclosurePage(Primate.Species.HOWLER, Page.Order.BY_ID, 10, null).getItems().isEmpty());
+
+        // a cursor stays valid when the primate it points after leaves
+        Page<Primate> first = sanctuary.getIsolationPage(Page.Order.BY_NAME, 2, null);
+        assertEquals("Dax", first.getItems().get(1).getName());
+        sanctuary.moveToEnclosure(sanctuary.findPrimateByName("Dax"));
+        Page<Primate> second = sanctuary.getIsolationPage(Page.Order.BY_NAME, 2, first.getNextCursor());
+        assertEquals("Kiko", second.getItems().get(0).getName());
+        assertEquals("Lulu", second.getItems().get(1).getName());
+        assertEquals(3, sanctuary.getEnclosurePage(Primate.Species.DRILL, Page.Order.BY_ID, 10, null).getItems().size());
+    }
+
+    // check whether a cursor is only accepted by a listing in the order it was made for
+    @Test
+    public void testPagedListingsRejectBadCursors() {
+        Primate primate = sanctuary.addPrimateToSanctuary("Ana", Primate.Species.DRILL, Primate.Sex.MALE, 30, 12, 4, Primate.Food.NUTS);
+        String byName = "N" + primate.getId();
+        assertEquals(1, sanctuary.getCensusPage(Page.Order.BY_NAME, 5, null).getItems().size());
+        assertTrue(sanctuary.getCensusPage(Page.Order.BY_NAME, 5, byName).getItems().isEmpty());
+
+        thrown.expect(IllegalArgumentException.class);
+        sanctuary.getCensusPage(Page.Order.BY_ID, 5, byName);
+    }
+}
@@ -0,0 +1,50 @@
+package primates;
+
+import org.junit.Test;
+import primates.Model.Primate;
+import primates.Model.Sanctuary;
+import primates.Simulation.Scenario;
+import primates.Simulation.SimulationReport;
+import primates.Simulation.WorkloadSimulator;
+
+import static org.junit.Assert.*;
+
+public class WorkloadSimulatorTest {
+
+    @Test
+    public void testSingleThreadedRunsAreReproducible() throws InterruptedException {
+        Scenario scenario = new Scenario().seed(11).operations(5000).weights("REPORT=1,DRILL=4,SAKI=0");
+        Sanctuary first = new Sanctuary();
+        Sanctuary second = new Sanctuary();
+        SimulationReport one = new WorkloadSimulator(scenario).run(first);
+        SimulationReport two = new WorkloadSimulator(scenario).run(second);
+
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            assertEquals(one.accepted(operation), two.accepted(operation));
+            assertEquals(one.rejected(operation), two.rejected(operation));
+            assertEquals(one.skipped(operation), two.skipped(operation));
+        }
+        assertEquals(first.getAllNames(), second.getAllNames());
+        assertEquals(0, first.getEnclosureForSpecies(Primate.Species.SAKI).getPrimates().size());
+        assertTrue(one.accepted(Scenario.Operation.TRANSFER) > 0);
+        assertFalse(one.heap().isEmpty());
+    }
+
+    @Test
+    public void testMultiThreadedRunPerformsEveryOperation() throws InterruptedException {
+        Scenario scenario = new Scenario().seed(3).operations(20_000).threads(4);
+        SimulationReport report = new WorkloadSimulator(scenario).run(new Sanctuary());
+        long drawn = 0;
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            drawn += report.accepted(operation) + report.rejected(operation) + report.skipped(operation);
+            assertEquals(report.accepted(operation) + report.rejected(operation), report.latency(operation).count());
+        }
+        assertEquals(20_000, drawn);
+        assertTrue(report.throughput() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownWeightIsRejected() {
+        new Scenario().weights("BANANAS=3");
+    }
+}